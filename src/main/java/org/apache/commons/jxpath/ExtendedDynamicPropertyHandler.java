@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath;
+
+/**
+ * A DynamicPropertyHandler that answers questions about property names without listing them all. JXPath uses it to look up {@code "map/key"} and
+ * {@code "map[@name = 'key']"} in constant time and to count properties without sorting their names.
+ *
+ * @since 1.4.1
+ */
+public interface ExtendedDynamicPropertyHandler extends DynamicPropertyHandler {
+
+    /**
+     * Returns the number of dynamic properties of the supplied object, which is the length of {@link #getPropertyNames(Object)}.
+     *
+     * @param object to inspect
+     * @return int
+     */
+    int getPropertyCount(Object object);
+
+    /**
+     * Returns the dynamic property names of the supplied object sorted alphabetically. JXPath does not modify the returned array, so an implementation may
+     * return a snapshot that it shares between calls as long as the object does not change.
+     *
+     * @param object to inspect
+     * @return String[]
+     */
+    String[] getSortedPropertyNames(Object object);
+
+    /**
+     * Tests whether the supplied object has the specified dynamic property, which is whether {@link #getPropertyNames(Object)} lists its name.
+     *
+     * @param object       to inspect
+     * @param propertyName to look for
+     * @return boolean
+     */
+    boolean hasProperty(Object object, String propertyName);
+}
@@ -23,7 +23,9 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+
+import org.apache.commons.jxpath.util.MethodHandlePropertyAccessor;
+import org.apache.commons.jxpath.util.PropertyAccessor;
 
 /**
  * An implementation of JXPathBeanInfo based on JavaBeans' BeanInfo. Properties advertised by JXPathBasicBeanInfo are the same as those advertised by BeanInfo
@@ -37,6 +39,100 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
     private static final long serialVersionUID = -3863803443111484155L;
     private static final Comparator<PropertyDescriptor> PROPERTY_DESCRIPTOR_COMPARATOR = Comparator.comparing(PropertyDescriptor::getName);
 
+    /**
+     * Marks a property for which no accessor could be created.
+     */
+    private static final PropertyAccessor NO_ACCESSOR = new PropertyAccessor() {
+
+        @Override
+        public int getLength(final Object bean) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getValue(final Object bean) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getValue(final Object bean, final int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setValue(final Object bean, final int index, final Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setValue(final Object bean, final Object value) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    /**
+     * Immutable table of the property descriptors sorted by name, with an open-addressed name index. Once published, lookups neither lock nor allocate.
+     */
+    private static final class PropertyTable {
+
+        private static final PropertyTable EMPTY = new PropertyTable(new PropertyDescriptor[0]);
+
+        private static int hash(final String name) {
+            final int h = name.hashCode();
+            return h ^ h >>> 16;
+        }
+
+        /**
+         * Property descriptors sorted by name.
+         */
+        private final PropertyDescriptor[] descriptors;
+
+        /**
+         * Accessors for the property descriptors, created on demand, in the same order.
+         */
+        private final PropertyAccessor[] accessors;
+
+        /**
+         * Open-addressed hash table holding descriptor positions plus one, zero for an empty slot.
+         */
+        private final int[] slots;
+
+        private final int mask;
+
+        PropertyTable(final PropertyDescriptor[] descriptors) {
+            this.descriptors = descriptors;
+            this.accessors = new PropertyAccessor[descriptors.length];
+            int capacity = 2;
+            while (capacity < descriptors.length * 2) {
+                capacity <<= 1;
+            }
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < descriptors.length; i++) {
+                int slot = hash(descriptors[i].getName()) & mask;
+                while (slots[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        int indexOf(final String name) {
+            if (name == null) {
+                return -1;
+            }
+            int slot = hash(name) & mask;
+            int entry;
+            while ((entry = slots[slot]) != 0) {
+                if (name.equals(descriptors[entry - 1].getName())) {
+                    return entry - 1;
+                }
+                slot = slot + 1 & mask;
+            }
+            return -1;
+        }
+    }
+
     /**
      * Whether objects of this class are treated as atomic objects which have no properties of their own.
      */
@@ -53,14 +149,9 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
     private Class dynamicPropertyHandlerClass;
 
     /**
-     * List of property descriptors for the beans described by this bean info object.
+     * Property descriptors for the beans described by this bean info object, published once introspection completes.
      */
-    private transient PropertyDescriptor[] propertyDescriptors;
-
-    /**
-     * PropertyDescriptor for the specified name or null if there is no such property.
-     */
-    private transient HashMap<String, PropertyDescriptor> propertyDescriptorMap;
+    private transient volatile PropertyTable propertyTable;
 
     /**
      * Constructs a new JXPathBasicBeanInfo.
@@ -94,6 +185,17 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
         this.dynamicPropertyHandlerClass = dynamicPropertyHandlerClass;
     }
 
+    /**
+     * Creates the accessor for a property of this class. Override this to plug in a different accessor implementation.
+     *
+     * @param propertyDescriptor the property
+     * @return a new accessor or {@code null} to access the property through reflection
+     * @since 1.4.1
+     */
+    protected PropertyAccessor createPropertyAccessor(final PropertyDescriptor propertyDescriptor) {
+        return MethodHandlePropertyAccessor.of(propertyDescriptor);
+    }
+
     /**
      * Gets the DynamicPropertyHandler class for a dynamic class.
      *
@@ -104,23 +206,92 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
         return dynamicPropertyHandlerClass;
     }
 
-    @Override
-    public synchronized PropertyDescriptor getPropertyDescriptor(final String propertyName) {
-        if (propertyDescriptorMap == null) {
-            propertyDescriptorMap = new HashMap<>();
-            final PropertyDescriptor[] pds = getPropertyDescriptors();
-            for (final PropertyDescriptor pd : pds) {
-                propertyDescriptorMap.put(pd.getName(), pd);
+    /**
+     * Gets the cached accessor for the specified property of this class, creating it on first use.
+     *
+     * @param propertyDescriptor one of the descriptors returned by this bean info
+     * @return PropertyAccessor or {@code null} if the descriptor does not belong to this bean info or the property must be accessed through reflection
+     * @since 1.4.1
+     */
+    public PropertyAccessor getPropertyAccessor(final PropertyDescriptor propertyDescriptor) {
+        final PropertyTable table = propertyTable();
+        final int index = table.indexOf(propertyDescriptor.getName());
+        if (index < 0 || table.descriptors[index] != propertyDescriptor) {
+            return null;
+        }
+        final PropertyAccessor[] accessors = table.accessors;
+        PropertyAccessor accessor = accessors[index];
+        if (accessor == null) {
+            // Racing threads may both create an accessor; either one will do.
+            accessor = createPropertyAccessor(propertyDescriptor);
+            if (accessor == null) {
+                accessor = NO_ACCESSOR;
             }
+            accessors[index] = accessor;
         }
-        return propertyDescriptorMap.get(propertyName);
+        return accessor == NO_ACCESSOR ? null : accessor;
+    }
+
+    /**
+     * Gets the number of properties of this class.
+     *
+     * @return the length of the array returned by {@link #getPropertyDescriptors()}
+     * @since 1.4.1
+     */
+    public int getPropertyCount() {
+        return propertyTable().descriptors.length;
+    }
+
+    /**
+     * Gets the property descriptor at the specified position, without copying the descriptor array.
+     *
+     * @param index position in the array returned by {@link #getPropertyDescriptors()}
+     * @return PropertyDescriptor
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @since 1.4.1
+     */
+    public PropertyDescriptor getPropertyDescriptor(final int index) {
+        return propertyTable().descriptors[index];
+    }
+
+    @Override
+    public PropertyDescriptor getPropertyDescriptor(final String propertyName) {
+        final PropertyTable table = propertyTable();
+        final int index = table.indexOf(propertyName);
+        return index < 0 ? null : table.descriptors[index];
     }
 
     @Override
-    public synchronized PropertyDescriptor[] getPropertyDescriptors() {
-        if (propertyDescriptors == null) {
+    public PropertyDescriptor[] getPropertyDescriptors() {
+        final PropertyDescriptor[] descriptors = propertyTable().descriptors;
+        if (descriptors.length == 0) {
+            return descriptors;
+        }
+        final PropertyDescriptor[] result = new PropertyDescriptor[descriptors.length];
+        System.arraycopy(descriptors, 0, result, 0, descriptors.length);
+        return result;
+    }
+
+    /**
+     * Gets the position of the named property.
+     *
+     * @param propertyName property name
+     * @return position in the array returned by {@link #getPropertyDescriptors()} or -1 if there is no such property
+     * @since 1.4.1
+     */
+    public int getPropertyIndex(final String propertyName) {
+        return propertyTable().indexOf(propertyName);
+    }
+
+    /**
+     * Introspects the class and publishes the property table.
+     *
+     * @return PropertyTable
+     */
+    private synchronized PropertyTable introspect() {
+        if (propertyTable == null) {
             if (clazz == Object.class) {
-                propertyDescriptors = new PropertyDescriptor[0];
+                propertyTable = PropertyTable.EMPTY;
             } else {
                 try {
                     BeanInfo bi;
@@ -133,19 +304,14 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
                     final PropertyDescriptor[] descriptors = new PropertyDescriptor[pds.length];
                     System.arraycopy(pds, 0, descriptors, 0, pds.length);
                     Arrays.sort(descriptors, PROPERTY_DESCRIPTOR_COMPARATOR);
-                    propertyDescriptors = descriptors;
+                    propertyTable = new PropertyTable(descriptors);
                 } catch (final IntrospectionException ex) {
                     ex.printStackTrace();
-                    return new PropertyDescriptor[0];
+                    return PropertyTable.EMPTY;
                 }
             }
         }
-        if (propertyDescriptors.length == 0) {
-            return propertyDescriptors;
-        }
-        final PropertyDescriptor[] result = new PropertyDescriptor[propertyDescriptors.length];
-        System.arraycopy(propertyDescriptors, 0, result, 0, propertyDescriptors.length);
-        return result;
+        return propertyTable;
     }
 
     /**
@@ -168,6 +334,16 @@ public class JXPathBasicBeanInfo implements JXPathBeanInfo {
         return dynamicPropertyHandlerClass != null;
     }
 
+    /**
+     * Gets the property table, introspecting the class on first use.
+     *
+     * @return PropertyTable
+     */
+    private PropertyTable propertyTable() {
+        final PropertyTable table = propertyTable;
+        return table != null ? table : introspect();
+    }
+
     @Override
     public String toString() {
         final StringBuilder buffer = new StringBuilder();
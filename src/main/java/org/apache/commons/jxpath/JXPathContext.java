@@ -20,9 +20,11 @@ package org.apache.commons.jxpath;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.commons.jxpath.util.KeyManagerUtils;
 
@@ -481,9 +483,16 @@ public abstract class JXPathContext {
 
     /** Decimal format map */
     protected HashMap<String, DecimalFormatSymbols> decimalFormats;
-    private Locale locale;
-    private boolean lenientSet;
-    private boolean lenient;
+    private volatile Locale locale;
+    private volatile boolean lenientSet;
+    private volatile boolean lenient;
+    private volatile boolean elementNameIndexEnabledSet;
+    private volatile boolean elementNameIndexEnabled;
+    /**
+     * Copied on write, so that {@link #isAttributeIndexed(String)} reads it without locking.
+     */
+    private volatile Set<String> indexedAttributes;
+    private String[] idAttributeNames;
 
     /**
      * This constructor should remain protected - it is to be overridden by subclasses, but never explicitly invoked by clients.
@@ -590,6 +599,20 @@ public abstract class JXPathContext {
         return null;
     }
 
+    /**
+     * Gets the names of the attributes that hold element IDs in XML documents. If none have been set, returns the names of the parent context.
+     *
+     * @return attribute names, empty by default
+     * @see #setIDAttributeNames(String...)
+     * @since 1.4.1
+     */
+    public synchronized String[] getIDAttributeNames() {
+        if (idAttributeNames == null) {
+            return parentContext != null ? parentContext.getIDAttributeNames() : new String[0];
+        }
+        return idAttributeNames.clone();
+    }
+
     /**
      * Returns this context's identity manager. If none has been installed, returns the identity manager of the parent context.
      *
@@ -619,14 +642,12 @@ public abstract class JXPathContext {
      *
      * @return Locale
      */
-    public synchronized Locale getLocale() {
-        if (locale == null) {
-            if (parentContext != null) {
-                return parentContext.getLocale();
-            }
-            locale = Locale.getDefault();
+    public Locale getLocale() {
+        final Locale current = locale;
+        if (current != null) {
+            return current;
         }
-        return locale;
+        return parentContext != null ? parentContext.getLocale() : Locale.getDefault();
     }
 
     /**
@@ -692,7 +713,7 @@ public abstract class JXPathContext {
     public abstract Pointer getPointer(String xpath);
 
     /**
-     * Locates a Node by its ID.
+     * Locates a Node by its ID, using the IdentityManager of this context.
      *
      * @param id is the ID of the sought node.
      * @return Pointer
@@ -770,13 +791,43 @@ public abstract class JXPathContext {
         return vars;
     }
 
+    /**
+     * Tests whether an index of the values of an attribute has been registered with this context or its parent.
+     *
+     * @param attributeName local name of an attribute without namespace
+     * @return boolean
+     * @see #registerAttributeIndex(String)
+     * @since 1.4.1
+     */
+    public boolean isAttributeIndexed(final String attributeName) {
+        final Set<String> attributes = indexedAttributes;
+        if (attributes != null && attributes.contains(attributeName)) {
+            return true;
+        }
+        return parentContext != null && parentContext.isAttributeIndexed(attributeName);
+    }
+
+    /**
+     * Tests whether descendant name tests over XML documents are answered from an element name index.
+     *
+     * @return boolean
+     * @see #setElementNameIndexEnabled(boolean)
+     * @since 1.4.1
+     */
+    public boolean isElementNameIndexEnabled() {
+        if (!elementNameIndexEnabledSet && parentContext != null) {
+            return parentContext.isElementNameIndexEnabled();
+        }
+        return elementNameIndexEnabled;
+    }
+
     /**
      * Tests whether this JXPathContext is lenient.
      *
      * @return boolean
      * @see #setLenient(boolean)
      */
-    public synchronized boolean isLenient() {
+    public boolean isLenient() {
         if (!lenientSet && parentContext != null) {
             return parentContext.isLenient();
         }
@@ -802,6 +853,21 @@ public abstract class JXPathContext {
      */
     public abstract Iterator<Pointer> iteratePointers(String xpath);
 
+    /**
+     * Registers an index of the values of an attribute. Descendant steps over XML documents whose first predicate compares the attribute with a string
+     * literal or variable, as in "//account[@number = $n]", then only test the elements that have the attribute with that value. The index of a DOM or JDOM
+     * document is built by the first such query, kept with the document and dropped when the document is modified through JXPath, like the index described
+     * in {@link #setElementNameIndexEnabled(boolean)}.
+     *
+     * @param attributeName local name of an attribute without namespace
+     * @since 1.4.1
+     */
+    public synchronized void registerAttributeIndex(final String attributeName) {
+        final Set<String> attributes = indexedAttributes == null ? new HashSet<>() : new HashSet<>(indexedAttributes);
+        attributes.add(attributeName);
+        indexedAttributes = attributes;
+    }
+
     /**
      * Registers a namespace prefix.
      *
@@ -869,6 +935,23 @@ public abstract class JXPathContext {
         decimalFormats.put(name, symbols);
     }
 
+    /**
+     * Sets whether descendant name tests over XML documents, as in "//invoice" or "descendant::invoice", are answered from an index of the elements of the
+     * document by name instead of a walk of the tree. The index of a DOM or JDOM document is built by the first such query, kept with the document and
+     * dropped when the document is modified through JXPath; changes made to the document by other means are not tracked, so the index should only be
+     * enabled for documents that are not modified directly.
+     * <p>
+     * By default, the index is not enabled.
+     * </p>
+     *
+     * @param elementNameIndexEnabled flag
+     * @since 1.4.1
+     */
+    public synchronized void setElementNameIndexEnabled(final boolean elementNameIndexEnabled) {
+        this.elementNameIndexEnabled = elementNameIndexEnabled;
+        elementNameIndexEnabledSet = true;
+    }
+
     /**
      * Sets the ExceptionHandler used by this context, if any.
      *
@@ -898,6 +981,19 @@ public abstract class JXPathContext {
         this.functions = functions;
     }
 
+    /**
+     * Sets the names of the attributes without namespace that hold element IDs in XML documents, for documents whose parser did not register ID attributes
+     * from a DTD. The {@code id()} function and {@link #getPointerByID(String)} then find DOM, JDOM and tiny tree elements by the values of these
+     * attributes, trying the names in order, from an index built once per document and dropped when the document is modified through JXPath. IDs
+     * registered by the parser still take precedence in DOM and tiny tree documents.
+     *
+     * @param names attribute names, such as "id"
+     * @since 1.4.1
+     */
+    public synchronized void setIDAttributeNames(final String... names) {
+        idAttributeNames = names.clone();
+    }
+
     /**
      * Install an identity manager that will be used by the context to look up a node by its ID.
      *
@@ -17,14 +17,16 @@
 
 package org.apache.commons.jxpath;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * Implements the DynamicPropertyHandler interface for {@link java.util.Map}.
  */
-public class MapDynamicPropertyHandler implements DynamicPropertyHandler {
+public class MapDynamicPropertyHandler implements ExtendedDynamicPropertyHandler {
 
     /**
      * Constructs a new instance.
@@ -38,6 +40,16 @@ public class MapDynamicPropertyHandler implements DynamicPropertyHandler {
         return ((Map) object).get(propertyName);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.4.1
+     */
+    @Override
+    public int getPropertyCount(final Object object) {
+        return ((Map<?, ?>) object).size();
+    }
+
     @Override
     public String[] getPropertyNames(final Object object) {
         final Map map = (Map) object;
@@ -50,6 +62,51 @@ public class MapDynamicPropertyHandler implements DynamicPropertyHandler {
         return names;
     }
 
+    /**
+     * {@inheritDoc} The keys of a {@link SortedMap} in natural order that are all strings are already sorted.
+     *
+     * @since 1.4.1
+     */
+    @Override
+    public String[] getSortedPropertyNames(final Object object) {
+        final Map<?, ?> map = (Map<?, ?>) object;
+        boolean sorted = map instanceof SortedMap && ((SortedMap<?, ?>) map).comparator() == null;
+        final String[] names = new String[map.size()];
+        final Iterator<?> it = map.keySet().iterator();
+        for (int i = 0; i < names.length; i++) {
+            final Object key = it.next();
+            sorted &= key instanceof String;
+            names[i] = String.valueOf(key);
+        }
+        if (!sorted) {
+            Arrays.sort(names);
+        }
+        return names;
+    }
+
+    /**
+     * {@inheritDoc} Keys that are not strings are compared by their string value, which takes a scan of the keys when the lookup misses.
+     *
+     * @since 1.4.1
+     */
+    @Override
+    public boolean hasProperty(final Object object, final String propertyName) {
+        final Map<?, ?> map = (Map<?, ?>) object;
+        try {
+            if (map.containsKey(propertyName)) {
+                return true;
+            }
+        } catch (final ClassCastException e) {
+            // a sorted map of keys that are not strings
+        }
+        for (final Object key : map.keySet()) {
+            if (!(key instanceof String) && String.valueOf(key).equals(propertyName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void setProperty(final Object object, final String propertyName, final Object value) {
         ((Map) object).put(propertyName, value);
@@ -189,6 +189,27 @@ public interface Compiler {
     /** Constant {@value} */
     int FUNCTION_ENDS_WITH = 31;
 
+    /**
+     * Constant {@value}
+     *
+     * @since 1.4.1
+     */
+    int FUNCTION_MIN = 32;
+
+    /**
+     * Constant {@value}
+     *
+     * @since 1.4.1
+     */
+    int FUNCTION_MAX = 33;
+
+    /**
+     * Constant {@value}
+     *
+     * @since 1.4.1
+     */
+    int FUNCTION_AVG = 34;
+
     /**
      * Produces an EXPRESSION object representing logical conjunction of all arguments
      *
@@ -31,6 +31,7 @@ import org.apache.commons.jxpath.JXPathException;
 import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.axes.RootContext;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
 import org.apache.commons.jxpath.ri.model.NodePointer;
 import org.apache.commons.jxpath.util.ReverseComparator;
 
@@ -55,6 +56,9 @@ public abstract class EvalContext implements ExpressionContext, Iterator {
     private boolean hasPerformedIteratorStep;
     private Iterator<Pointer> pointerIterator;
 
+    /** The number of nodes in the current set, or -1 if they have not been counted since the last reset. */
+    private int lastPosition = -1;
+
     /**
      * Constructs a new EvalContext.
      *
@@ -166,6 +170,33 @@ public abstract class EvalContext implements ExpressionContext, Iterator {
         return set;
     }
 
+    /**
+     * Gets the position of the last node in the current set, which is the value of last(). The nodes are counted once per set, so that predicates like
+     * {@code [position() = last()]} do not count them again for every node.
+     *
+     * @return int
+     * @since 1.4.1
+     */
+    public int getLastPosition() {
+        if (lastPosition < 0) {
+            // Move the position to the beginning and iterate through
+            // the context to count nodes.
+            final int old = getCurrentPosition();
+            reset();
+            int count = 0;
+            while (nextNode()) {
+                count++;
+            }
+            // Restore the current position.
+            if (old != 0) {
+                setPosition(old);
+            }
+            // Set last, restoring the position may reset the context
+            lastPosition = count;
+        }
+        return lastPosition;
+    }
+
     @Override
     public int getPosition() {
         return position;
@@ -339,6 +370,7 @@ public abstract class EvalContext implements ExpressionContext, Iterator {
      */
     public void reset() {
         position = 0;
+        lastPosition = -1;
     }
 
     /**
@@ -361,10 +393,14 @@ public abstract class EvalContext implements ExpressionContext, Iterator {
     protected void sortPointers(final List l) {
         switch (getDocumentOrder()) {
         case 1:
-            Collections.sort(l);
+            if (!DocumentOrder.sort(l, false)) {
+                Collections.sort(l);
+            }
             break;
         case -1:
-            Collections.sort(l, ReverseComparator.INSTANCE);
+            if (!DocumentOrder.sort(l, true)) {
+                Collections.sort(l, ReverseComparator.INSTANCE);
+            }
             break;
         default:
             break;
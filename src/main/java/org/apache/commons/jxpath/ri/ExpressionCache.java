@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.jxpath.ri.compiler.Expression;
+
+/**
+ * A concurrent, size-bounded cache of compiled expressions keyed by their XPath source.
+ * <p>
+ * Lookups never block: the entries live in a {@link ConcurrentHashMap} and each hit only records the current epoch on the entry. The epoch advances on
+ * insertion only, so hits do not contend on a shared counter. When the cache grows beyond its maximum size, a single thread evicts the least recently used
+ * entries (by epoch) until the cache is back under its low-water mark; concurrent lookups and insertions proceed while it does so.
+ * </p>
+ * <p>
+ * Values may optionally be held through {@link SoftReference}s, in which case the garbage collector may reclaim them under memory pressure; cleared entries
+ * are dropped on lookup and during eviction.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public class ExpressionCache {
+
+    /**
+     * An eviction candidate with a stable snapshot of its epoch, so that concurrent lookups cannot disturb the sort.
+     */
+    private static final class Candidate {
+
+        private final String key;
+        private final Entry entry;
+        private final long epoch;
+
+        Candidate(final String key, final Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.epoch = entry.epoch;
+        }
+    }
+
+    /**
+     * A cache entry.
+     */
+    private static final class Entry {
+
+        /** The Expression, or a SoftReference to it. */
+        private final Object value;
+
+        /** The epoch in which this entry was last used. */
+        private volatile long epoch;
+
+        Entry(final Expression expression, final boolean soft, final long epoch) {
+            this.value = soft ? new SoftReference<>(expression) : expression;
+            this.epoch = epoch;
+        }
+
+        Expression get() {
+            if (value instanceof SoftReference) {
+                return (Expression) ((SoftReference<?>) value).get();
+            }
+            return (Expression) value;
+        }
+
+        void touch(final long currentEpoch) {
+            // Avoid writing to a shared cache line when nothing changes.
+            if (epoch != currentEpoch) {
+                epoch = currentEpoch;
+            }
+        }
+    }
+
+    /**
+     * The default maximum number of cached expressions.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final ConcurrentHashMap<String, Entry> map;
+    private final int maximumSize;
+    private final int lowWaterMark;
+    private final boolean softValues;
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructs a new cache with the {@link #DEFAULT_MAXIMUM_SIZE default maximum size} and soft values.
+     */
+    public ExpressionCache() {
+        this(DEFAULT_MAXIMUM_SIZE, true);
+    }
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param maximumSize maximum number of cached expressions, must be positive
+     * @param softValues  whether to hold cached expressions through soft references
+     */
+    public ExpressionCache(final int maximumSize, final boolean softValues) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.lowWaterMark = maximumSize - Math.max(1, maximumSize / 10);
+        this.softValues = softValues;
+        this.map = new ConcurrentHashMap<>(Math.min(maximumSize, 256));
+    }
+
+    /**
+     * Removes all entries. Statistics are not reset.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Evicts least recently used entries until the size is at the low-water mark. Only one thread evicts at a time; others return immediately.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final List<Candidate> candidates = new ArrayList<>(map.size());
+            final Iterator<Map.Entry<String, Entry>> it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, Entry> e = it.next();
+                final Entry entry = e.getValue();
+                if (entry.get() == null) {
+                    if (map.remove(e.getKey(), entry)) {
+                        evictionCount.increment();
+                    }
+                } else {
+                    candidates.add(new Candidate(e.getKey(), entry));
+                }
+            }
+            int excess = map.size() - lowWaterMark;
+            if (excess <= 0) {
+                return;
+            }
+            candidates.sort((a, b) -> Long.compare(a.epoch, b.epoch));
+            for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                final Candidate candidate = candidates.get(i);
+                if (map.remove(candidate.key, candidate.entry)) {
+                    evictionCount.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Gets the cached expression for the given XPath.
+     *
+     * @param xpath XPath source
+     * @return Expression or {@code null} if not cached
+     */
+    public Expression get(final String xpath) {
+        final Entry entry = map.get(xpath);
+        if (entry != null) {
+            final Expression expression = entry.get();
+            if (expression != null) {
+                entry.touch(epoch.get());
+                hitCount.increment();
+                return expression;
+            }
+            // Soft reference cleared by the garbage collector.
+            if (map.remove(xpath, entry)) {
+                evictionCount.increment();
+            }
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Gets the number of entries evicted because the cache was full or their soft reference was cleared.
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached expression.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the maximum number of cached expressions.
+     *
+     * @return maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached expression.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Tests whether cached expressions are held through soft references.
+     *
+     * @return boolean
+     */
+    public boolean isSoftValues() {
+        return softValues;
+    }
+
+    /**
+     * Caches an expression.
+     *
+     * @param xpath      XPath source
+     * @param expression compiled Expression
+     */
+    public void put(final String xpath, final Expression expression) {
+        map.put(xpath, new Entry(expression, softValues, epoch.incrementAndGet()));
+        if (map.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public void resetStatistics() {
+        hitCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+    }
+
+    /**
+     * Gets the current number of entries, including entries whose soft reference may have been cleared.
+     *
+     * @return size
+     */
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionCache[size=" + size() + ", maximumSize=" + maximumSize + ", softValues=" + softValues + ", hits=" + getHitCount() + ", misses="
+                + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import org.apache.commons.jxpath.CompiledExpression;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.ri.compiler.BeanPath;
 import org.apache.commons.jxpath.ri.compiler.Expression;
 
 /**
@@ -29,9 +30,19 @@ import org.apache.commons.jxpath.ri.compiler.Expression;
  */
 public class JXPathCompiledExpression implements CompiledExpression {
 
+    /**
+     * Marks a value that the {@link BeanPath} could not read.
+     */
+    private static final Object UNRESOLVED = new Object();
+
     private final String xpath;
     private final Expression expression;
 
+    /**
+     * Reads the value directly, or null to always use the interpreter.
+     */
+    private final BeanPath beanPath;
+
     /**
      * Constructs a new JXPathCompiledExpression.
      *
@@ -39,8 +50,21 @@ public class JXPathCompiledExpression implements CompiledExpression {
      * @param expression compiled
      */
     public JXPathCompiledExpression(final String xpath, final Expression expression) {
+        this(xpath, expression, false);
+    }
+
+    /**
+     * Constructs a new JXPathCompiledExpression.
+     *
+     * @param xpath      source
+     * @param expression compiled
+     * @param specialize whether {@link #getValue(JXPathContext)} reads a simple JavaBean path directly, see {@link BeanPath}
+     * @since 1.4.1
+     */
+    public JXPathCompiledExpression(final String xpath, final Expression expression, final boolean specialize) {
         this.xpath = xpath;
         this.expression = expression;
+        this.beanPath = specialize ? BeanPath.compile(expression) : null;
     }
 
     @Override
@@ -67,14 +91,27 @@ public class JXPathCompiledExpression implements CompiledExpression {
         return ((JXPathContextReferenceImpl) context).getPointer(xpath, expression);
     }
 
+    /**
+     * Gets the value through the {@link BeanPath}, if any.
+     *
+     * @param context evaluation context
+     * @return the value or {@link #UNRESOLVED}
+     */
+    private Object getSpecializedValue(final JXPathContext context) {
+        return beanPath == null ? UNRESOLVED : beanPath.getValue(context.getContextPointer(), UNRESOLVED);
+    }
+
     @Override
     public Object getValue(final JXPathContext context) {
-        return ((JXPathContextReferenceImpl) context).getValue(xpath, expression);
+        final Object value = getSpecializedValue(context);
+        return value != UNRESOLVED ? value : ((JXPathContextReferenceImpl) context).getValue(xpath, expression);
     }
 
     @Override
     public Object getValue(final JXPathContext context, final Class requiredType) {
-        return ((JXPathContextReferenceImpl) context).getValue(xpath, expression, requiredType);
+        final Object value = getSpecializedValue(context);
+        return value != UNRESOLVED ? JXPathContextReferenceImpl.convert(xpath, value, requiredType)
+                : ((JXPathContextReferenceImpl) context).getValue(xpath, expression, requiredType);
     }
 
     /**
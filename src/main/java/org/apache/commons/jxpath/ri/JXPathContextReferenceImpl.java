@@ -17,14 +17,12 @@
 
 package org.apache.commons.jxpath.ri;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.List;
+import java.util.Objects;
 import java.util.Vector;
 
 import org.apache.commons.jxpath.CompiledExpression;
@@ -43,7 +41,9 @@ import org.apache.commons.jxpath.ri.axes.RootContext;
 import org.apache.commons.jxpath.ri.compiler.Expression;
 import org.apache.commons.jxpath.ri.compiler.LocationPath;
 import org.apache.commons.jxpath.ri.compiler.Path;
+import org.apache.commons.jxpath.ri.compiler.OptimizingTreeCompiler;
 import org.apache.commons.jxpath.ri.compiler.TreeCompiler;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
 import org.apache.commons.jxpath.ri.model.NodePointer;
 import org.apache.commons.jxpath.ri.model.NodePointerFactory;
 import org.apache.commons.jxpath.ri.model.VariablePointerFactory;
@@ -51,6 +51,7 @@ import org.apache.commons.jxpath.ri.model.beans.BeanPointerFactory;
 import org.apache.commons.jxpath.ri.model.beans.CollectionPointerFactory;
 import org.apache.commons.jxpath.ri.model.container.ContainerPointerFactory;
 import org.apache.commons.jxpath.ri.model.dynamic.DynamicPointerFactory;
+import org.apache.commons.jxpath.ri.model.tiny.TinyPointerFactory;
 import org.apache.commons.jxpath.util.ClassLoaderUtil;
 import org.apache.commons.jxpath.util.ReverseComparator;
 import org.apache.commons.jxpath.util.TypeUtils;
@@ -65,11 +66,11 @@ public class JXPathContextReferenceImpl extends JXPathContext {
      */
     public static final boolean USE_SOFT_CACHE = true;
     private static final Compiler COMPILER = new TreeCompiler();
-    private static Map<String, Object> compiled = new HashMap<>();
-    private static int cleanupCount;
+    private static final Compiler OPTIMIZING_COMPILER = new OptimizingTreeCompiler();
+    private static volatile boolean optimizing = true;
+    private static volatile boolean specializing;
+    private static volatile ExpressionCache compiled = new ExpressionCache(ExpressionCache.DEFAULT_MAXIMUM_SIZE, USE_SOFT_CACHE);
     private static NodePointerFactory[] nodeFactoryArray;
-    // The frequency of the cache cleanup
-    private static final int CLEANUP_THRESHOLD = 500;
     private static final Vector<NodePointerFactory> nodeFactories = new Vector<>();
     static {
         nodeFactories.add(new CollectionPointerFactory());
@@ -94,6 +95,7 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         if (dynaBeanFactory != null) {
             nodeFactories.add(dynaBeanFactory);
         }
+        nodeFactories.add(new TinyPointerFactory());
         nodeFactories.add(new ContainerPointerFactory());
         createNodeFactoryArray();
     }
@@ -131,6 +133,25 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         }
     }
 
+    /**
+     * Converts the value of an XPath to the required type.
+     *
+     * @param xpath        expression, for the error message
+     * @param value        to convert
+     * @param requiredType Class, or null to leave the value as is
+     * @return converted value
+     */
+    static Object convert(final String xpath, final Object value, final Class requiredType) {
+        if (value != null && requiredType != null) {
+            if (!TypeUtils.canConvert(value, requiredType)) {
+                throw new JXPathTypeConversionException("Invalid expression type. '" + xpath + "' returns " + value.getClass().getName()
+                        + ". It cannot be converted to " + requiredType.getName());
+            }
+            return TypeUtils.convert(value, requiredType);
+        }
+        return value;
+    }
+
     /**
      * Create the default node factory array.
      */
@@ -145,6 +166,16 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         }
     }
 
+    /**
+     * Gets the cache shared by all contexts for expressions compiled from XPath strings.
+     *
+     * @return ExpressionCache
+     * @since 1.4.1
+     */
+    public static ExpressionCache getExpressionCache() {
+        return compiled;
+    }
+
     /**
      * Gets the registered NodePointerFactories.
      *
@@ -154,6 +185,26 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         return nodeFactoryArray;
     }
 
+    /**
+     * Tests whether XPath strings are compiled with an {@link OptimizingTreeCompiler}, which is the default.
+     *
+     * @return boolean
+     * @since 1.4.1
+     */
+    public static boolean isOptimizing() {
+        return optimizing;
+    }
+
+    /**
+     * Tests whether expressions compiled by {@link JXPathContext#compile(String)} read simple JavaBean paths directly, see {@link #setSpecializing(boolean)}.
+     *
+     * @return boolean
+     * @since 1.4.1
+     */
+    public static boolean isSpecializing() {
+        return specializing;
+    }
+
     /**
      * Removes support for additional types of objects.
      *
@@ -169,6 +220,47 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         }
     }
 
+    /**
+     * Replaces the cache shared by all contexts for expressions compiled from XPath strings, for example to change its maximum size or to hold expressions
+     * strongly. Expressions cached by the previous cache are discarded.
+     *
+     * @param cache the new cache, not null
+     * @since 1.4.1
+     */
+    public static void setExpressionCache(final ExpressionCache cache) {
+        compiled = Objects.requireNonNull(cache, "cache");
+    }
+
+    /**
+     * Sets whether XPath strings are compiled with an {@link OptimizingTreeCompiler} or with a plain {@link TreeCompiler}. Clears the cache shared by all
+     * contexts for expressions compiled from XPath strings, so that expressions compiled under the previous setting are not reused.
+     *
+     * @param optimizing whether to optimize compiled expressions
+     * @since 1.4.1
+     */
+    public static void setOptimizing(final boolean optimizing) {
+        JXPathContextReferenceImpl.optimizing = optimizing;
+        compiled.clear();
+    }
+
+    /**
+     * Sets whether expressions compiled by {@link JXPathContext#compile(String)} read simple JavaBean paths directly. A path like
+     * {@code order[3]/items[2]/price} is then compiled to a {@link org.apache.commons.jxpath.ri.compiler.BeanPath}, which
+     * {@link CompiledExpression#getValue(JXPathContext)} uses instead of the interpreter whenever the path goes through plain JavaBeans only. Only paths of
+     * named child steps with at most one constant position each are specialized; paths with other predicates, variables or function calls are always
+     * interpreted. Off by default; expressions compiled before the call keep the previous setting.
+     * <p>
+     * When the path leaves plain JavaBeans, for example at a Map, a {@code null} bean, a getter that throws or a position out of range, the interpreter
+     * evaluates the whole path again, so the getters read up to that point are called twice. Only specialize paths whose getters have no side effects.
+     * </p>
+     *
+     * @param specializing whether to specialize compiled expressions
+     * @since 1.4.1
+     */
+    public static void setSpecializing(final boolean specializing) {
+        JXPathContextReferenceImpl.specializing = specializing;
+    }
+
     /** Namespace resolver */
     protected NamespaceResolver namespaceResolver;
     private Pointer rootPointer;
@@ -230,45 +322,18 @@ public class JXPathContextReferenceImpl extends JXPathContext {
      * @return Expression
      */
     private Expression compileExpression(final String xpath) {
-        Expression expr;
-        synchronized (compiled) {
-            if (USE_SOFT_CACHE) {
-                expr = null;
-                final SoftReference<Expression> ref = (SoftReference) compiled.get(xpath);
-                if (ref != null) {
-                    expr = ref.get();
-                }
-            } else {
-                expr = (Expression) compiled.get(xpath);
-            }
-        }
-        if (expr != null) {
-            return expr;
-        }
-        expr = (Expression) Parser.parseExpression(xpath, getCompiler());
-        synchronized (compiled) {
-            if (USE_SOFT_CACHE) {
-                if (cleanupCount++ >= CLEANUP_THRESHOLD) {
-                    final Iterator<Entry<String, Object>> it = compiled.entrySet().iterator();
-                    while (it.hasNext()) {
-                        final Entry<String, ?> me = it.next();
-                        if (((SoftReference<Expression>) me.getValue()).get() == null) {
-                            it.remove();
-                        }
-                    }
-                    cleanupCount = 0;
-                }
-                compiled.put(xpath, new SoftReference<>(expr));
-            } else {
-                compiled.put(xpath, expr);
-            }
+        final ExpressionCache cache = compiled;
+        Expression expr = cache.get(xpath);
+        if (expr == null) {
+            expr = (Expression) Parser.parseExpression(xpath, getCompiler());
+            cache.put(xpath, expr);
         }
         return expr;
     }
 
     @Override
     protected CompiledExpression compilePath(final String xpath) {
-        return new JXPathCompiledExpression(xpath, compileExpression(xpath));
+        return new JXPathCompiledExpression(xpath, compileExpression(xpath), specializing);
     }
 //    private Object getNativeContextNode(Expression expression) {
 //        Object node = getNativeContextNode(getContextBean());
@@ -371,14 +436,14 @@ public class JXPathContextReferenceImpl extends JXPathContext {
     }
 
     /**
-     * Returns a static instance of TreeCompiler.
+     * Returns a static instance of TreeCompiler, which is an OptimizingTreeCompiler unless optimization is turned off with {@link #setOptimizing(boolean)}.
      *
      * Override this to return an alternate compiler.
      *
      * @return Compiler
      */
     protected Compiler getCompiler() {
-        return COMPILER;
+        return optimizing ? OPTIMIZING_COMPILER : COMPILER;
     }
 
     @Override
@@ -467,6 +532,24 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         return NodePointer.newNodePointer(null, result, getLocale());
     }
 
+    /**
+     * Locates a node by its ID. Without an IdentityManager, looks the ID up in the attributes named by {@link #getIDAttributeNames()} if the model of the
+     * context node supports it.
+     *
+     * @param id is the ID of the sought node.
+     * @return Pointer
+     */
+    @Override
+    public Pointer getPointerByID(final String id) {
+        if (getIdentityManager() == null) {
+            final Pointer pointer = ((NodePointer) contextPointer).getValuePointer().getPointerByIDAttribute(this, id);
+            if (pointer != null) {
+                return pointer;
+            }
+        }
+        return super.getPointerByID(id);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -583,15 +666,7 @@ public class JXPathContextReferenceImpl extends JXPathContext {
      * @return Object
      */
     public Object getValue(final String xpath, final Expression expr, final Class requiredType) {
-        Object value = getValue(xpath, expr);
-        if (value != null && requiredType != null) {
-            if (!TypeUtils.canConvert(value, requiredType)) {
-                throw new JXPathTypeConversionException("Invalid expression type. '" + xpath + "' returns " + value.getClass().getName()
-                        + ". It cannot be converted to " + requiredType.getName());
-            }
-            value = TypeUtils.convert(value, requiredType);
-        }
-        return value;
+        return convert(xpath, getValue(xpath, expr), requiredType);
     }
 
     /**
@@ -674,19 +749,11 @@ public class JXPathContextReferenceImpl extends JXPathContext {
     public void removeAll(final String xpath, final Expression expr) {
         try {
             final ArrayList<NodePointer> list = new ArrayList<>();
-            Iterator<NodePointer> it = expr.iteratePointers(getEvalContext());
+            final Iterator<NodePointer> it = expr.iteratePointers(getEvalContext());
             while (it.hasNext()) {
                 list.add(it.next());
             }
-            Collections.sort(list, ReverseComparator.INSTANCE);
-            it = list.iterator();
-            if (it.hasNext()) {
-                final NodePointer pointer = it.next();
-                pointer.remove();
-                while (it.hasNext()) {
-                    removePath(it.next().asPath());
-                }
-            }
+            removePointers(list);
         } catch (final Throwable ex) {
             throw new JXPathException("Exception trying to remove all for xpath " + xpath, ex);
         }
@@ -714,6 +781,44 @@ public class JXPathContextReferenceImpl extends JXPathContext {
         }
     }
 
+    /**
+     * Removes the nodes of the specified pointers. The nodes are removed in reverse document order, which keeps the positions of the nodes not yet removed
+     * valid, and nodes that share a parent or a collection are removed together.
+     *
+     * @param pointers to remove
+     * @return the number of nodes removed
+     * @since 1.4.1
+     */
+    public int removePointers(final List<? extends Pointer> pointers) {
+        final List<NodePointer> list = new ArrayList<>(pointers.size());
+        for (final Pointer pointer : pointers) {
+            list.add((NodePointer) pointer);
+        }
+        if (!DocumentOrder.sort(list, true)) {
+            Collections.sort(list, ReverseComparator.INSTANCE);
+        }
+        int count = 0;
+        int start = 0;
+        while (start < list.size()) {
+            NodePointer pointer = list.get(start);
+            int end = start + 1;
+            while (end < list.size() && pointer.isSiblingOf(list.get(end))) {
+                end++;
+            }
+            List<NodePointer> siblings = list.subList(start, end);
+            if (start > 0 && !pointer.isStableOnRemove()) {
+                // A previous removal may have replaced a collection cached by this pointer
+                final String path = pointer.asPath();
+                pointer = (NodePointer) getPointer(path, compileExpression(path));
+                siblings = new ArrayList<>(siblings);
+                siblings.set(0, pointer);
+            }
+            count += pointer.removeSiblings(siblings);
+            start = end;
+        }
+        return count;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,7 @@
 package org.apache.commons.jxpath.ri;
 
 import java.io.StringReader;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.commons.jxpath.JXPathInvalidSyntaxException;
 import org.apache.commons.jxpath.ri.parser.ParseException;
@@ -26,10 +27,14 @@ import org.apache.commons.jxpath.ri.parser.XPathParser;
 
 /**
  * XPath parser.
+ * <p>
+ * The generated {@link XPathParser} is not reentrant, so each parse borrows an instance from a pool and returns it when done. Concurrent callers therefore
+ * parse in parallel; the pool only ever grows to the peak number of concurrent parses.
+ * </p>
  */
 public class Parser {
 
-    private static final XPathParser PARSER = new XPathParser(new StringReader(""));
+    private static final ConcurrentLinkedQueue<XPathParser> PARSERS = new ConcurrentLinkedQueue<>();
 
     /**
      * Add escapes to the specified String.
@@ -67,20 +72,25 @@ public class Parser {
      * @return parsed Object
      */
     public static Object parseExpression(final String expression, final Compiler compiler) {
-        synchronized (PARSER) {
-            PARSER.setCompiler(compiler);
-            Object expr;
-            try {
-                PARSER.ReInit(new StringReader(expression));
-                expr = PARSER.parseExpression();
-            } catch (final TokenMgrError e) {
-                throw new JXPathInvalidSyntaxException("Invalid XPath: '" + addEscapes(expression) + "'. Invalid symbol '"
-                        + addEscapes(String.valueOf(e.getCharacter())) + "' " + describePosition(expression, e.getPosition()));
-            } catch (final ParseException e) {
-                throw new JXPathInvalidSyntaxException(
-                        "Invalid XPath: '" + addEscapes(expression) + "'. Syntax error " + describePosition(expression, e.currentToken.beginColumn));
-            }
-            return expr;
+        XPathParser parser = PARSERS.poll();
+        if (parser == null) {
+            parser = new XPathParser(new StringReader(expression));
+        } else {
+            parser.ReInit(new StringReader(expression));
+        }
+        try {
+            parser.setCompiler(compiler);
+            return parser.parseExpression();
+        } catch (final TokenMgrError e) {
+            throw new JXPathInvalidSyntaxException("Invalid XPath: '" + addEscapes(expression) + "'. Invalid symbol '"
+                    + addEscapes(String.valueOf(e.getCharacter())) + "' " + describePosition(expression, e.getPosition()));
+        } catch (final ParseException e) {
+            throw new JXPathInvalidSyntaxException(
+                    "Invalid XPath: '" + addEscapes(expression) + "'. Syntax error " + describePosition(expression, e.currentToken.beginColumn));
+        } finally {
+            // Don't hold on to the compiler between parses.
+            parser.setCompiler(null);
+            PARSERS.offer(parser);
         }
     }
 
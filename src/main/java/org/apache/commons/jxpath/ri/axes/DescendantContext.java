@@ -22,6 +22,8 @@ import java.util.Stack;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.EvalContext;
+import org.apache.commons.jxpath.ri.compiler.Expression;
+import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
 import org.apache.commons.jxpath.ri.model.NodeIterator;
@@ -36,9 +38,24 @@ public class DescendantContext extends EvalContext {
     private final NodeTest nodeTest;
     private boolean setStarted;
     private Stack<NodeIterator> stack;
+
+    /**
+     * Iterates the descendants directly if the model supports it or has an element name index, replacing the stack.
+     */
+    private NodeIterator descendants;
     private NodePointer currentNodePointer;
     private final boolean includeSelf;
 
+    /**
+     * Local name of an indexed attribute that the descendants must have, or null.
+     */
+    private final String attributeName;
+
+    /**
+     * Value of that attribute.
+     */
+    private final Expression attributeValue;
+
     /**
      * Constructs a new DescendantContext.
      *
@@ -47,9 +64,41 @@ public class DescendantContext extends EvalContext {
      * @param nodeTest      test
      */
     public DescendantContext(final EvalContext parentContext, final boolean includeSelf, final NodeTest nodeTest) {
+        this(parentContext, includeSelf, nodeTest, null, null);
+    }
+
+    /**
+     * Constructs a new DescendantContext that skips the descendants that do not have an attribute value, when the model has an index of the attribute. The
+     * nodes it returns may still lack the attribute, so a predicate testing it must follow.
+     *
+     * @param parentContext  parent context
+     * @param includeSelf    whether to include this node
+     * @param nodeTest       test
+     * @param attributeName  local name of an attribute without namespace
+     * @param attributeValue expression computing the value of the attribute, independent of the context node
+     * @since 1.4.1
+     */
+    public DescendantContext(final EvalContext parentContext, final boolean includeSelf, final NodeTest nodeTest, final String attributeName,
+            final Expression attributeValue) {
         super(parentContext);
         this.includeSelf = includeSelf;
         this.nodeTest = nodeTest;
+        this.attributeName = attributeName;
+        this.attributeValue = attributeValue;
+    }
+
+    /**
+     * Computes the attribute value to look up in an index.
+     *
+     * @return the value if it is a single string, otherwise null
+     */
+    private String getAttributeValue() {
+        Object value = attributeValue.computeValue(parentContext);
+        if (value instanceof EvalContext) {
+            final Pointer pointer = ((EvalContext) value).getSingleNodePointer();
+            value = pointer instanceof NodePointer && !((NodePointer) pointer).isCollection() ? pointer.getValue() : null;
+        }
+        return value instanceof String ? (String) value : null;
     }
 
     @Override
@@ -65,6 +114,15 @@ public class DescendantContext extends EvalContext {
         return true;
     }
 
+    /**
+     * Tests whether the node test can be answered from an element name index: it must be a name test without wildcard and the index must be enabled.
+     *
+     * @return boolean
+     */
+    private boolean isIndexable() {
+        return nodeTest instanceof NodeNameTest && !((NodeNameTest) nodeTest).isWildcard() && getJXPathContext().isElementNameIndexEnabled();
+    }
+
     /**
      * Checks if we are reentering a bean we have already seen and if so returns true to prevent infinite recursion.
      *
@@ -92,8 +150,18 @@ public class DescendantContext extends EvalContext {
                 stack.clear();
             }
             currentNodePointer = parentContext.getCurrentNodePointer();
+            descendants = currentNodePointer == null ? null : currentNodePointer.descendantIterator(nodeTest);
+            if (descendants == null && currentNodePointer != null && attributeName != null) {
+                final String value = getAttributeValue();
+                if (value != null) {
+                    descendants = currentNodePointer.indexedDescendantIterator((NodeNameTest) nodeTest, attributeName, value);
+                }
+            }
+            if (descendants == null && currentNodePointer != null && isIndexable()) {
+                descendants = currentNodePointer.indexedDescendantIterator((NodeNameTest) nodeTest);
+            }
             if (currentNodePointer != null) {
-                if (!currentNodePointer.isLeaf()) {
+                if (descendants == null && !currentNodePointer.isLeaf()) {
                     stack.push(currentNodePointer.childIterator(ELEMENT_NODE_TEST, false, null));
                 }
                 if (includeSelf && currentNodePointer.testNode(nodeTest)) {
@@ -102,6 +170,14 @@ public class DescendantContext extends EvalContext {
                 }
             }
         }
+        if (descendants != null) {
+            if (descendants.setPosition(descendants.getPosition() + 1)) {
+                currentNodePointer = descendants.getNodePointer();
+                position++;
+                return true;
+            }
+            return false;
+        }
         while (!stack.isEmpty()) {
             final NodeIterator it = stack.peek();
             if (it.setPosition(it.getPosition() + 1)) {
@@ -32,6 +32,11 @@ public class PrecedingOrFollowingContext extends EvalContext {
     private final NodeTest nodeTest;
     private boolean setStarted;
     private Stack<NodeIterator> stack;
+
+    /**
+     * Iterates the axis directly if the model supports it, replacing the stack.
+     */
+    private NodeIterator axis;
     private NodePointer currentNodePointer;
     private NodePointer currentRootLocation;
     private final boolean reverse;
@@ -69,12 +74,21 @@ public class PrecedingOrFollowingContext extends EvalContext {
                 stack.clear();
             }
             currentRootLocation = parentContext.getCurrentNodePointer();
+            axis = currentRootLocation.precedingOrFollowingIterator(nodeTest, reverse);
             final NodePointer parent = currentRootLocation.getParent();
-            if (parent != null) {
+            if (axis == null && parent != null) {
                 // TBD: check type
                 stack.push(parent.childIterator(null, reverse, currentRootLocation));
             }
         }
+        if (axis != null) {
+            if (axis.setPosition(axis.getPosition() + 1)) {
+                currentNodePointer = axis.getNodePointer();
+                super.setPosition(getCurrentPosition() + 1);
+                return true;
+            }
+            return false;
+        }
         while (true) {
             if (stack.isEmpty()) {
                 currentRootLocation = currentRootLocation.getParent();
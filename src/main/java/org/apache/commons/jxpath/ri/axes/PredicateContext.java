@@ -37,6 +37,16 @@ public class PredicateContext extends EvalContext {
     private Expression nameTestExpression;
     private PropertyPointer dynamicPropertyPointer;
 
+    /**
+     * Whether the predicate has the same value for every node of a set, in which case it is computed once per set.
+     */
+    private final boolean setInvariant;
+
+    /**
+     * The boolean value of a set invariant predicate for the current set, or null if it has not been computed yet.
+     */
+    private Boolean setValue;
+
     /**
      * Constructs a new PredicateContext.
      *
@@ -49,6 +59,7 @@ public class PredicateContext extends EvalContext {
         if (expression instanceof NameAttributeTest) {
             nameTestExpression = ((NameAttributeTest) expression).getNameTestExpression();
         }
+        setInvariant = nameTestExpression == null && !expression.isContextDependent();
     }
 
     @Override
@@ -77,25 +88,25 @@ public class PredicateContext extends EvalContext {
                 // However some PropertyPointers, e.g. DynamicPropertyPointer
                 // will declare that any property you ask for is actual.
                 // That's not acceptable for us: we really need to know
-                // if the property is currently declared. Thus,
-                // we'll need to perform a search.
-                boolean ok = false;
-                final String[] names = dynamicPropertyPointer.getPropertyNames();
-                for (final String name : names) {
-                    if (name.equals(propertyName)) {
-                        ok = true;
-                        break;
-                    }
+                // if the property is currently declared, which
+                // selectProperty tells us.
+                if (dynamicPropertyPointer.selectProperty(propertyName)) {
+                    position++;
+                    return true;
                 }
-                if (ok) {
-                    dynamicPropertyPointer.setPropertyName(propertyName);
+            } else if (setValue != null) {
+                if (setValue.booleanValue()) {
                     position++;
                     return true;
                 }
+                return false;
             } else {
                 Object pred = expression.computeValue(parentContext);
                 if (pred instanceof Iterator) {
                     if (!((Iterator) pred).hasNext()) {
+                        if (setInvariant) {
+                            setValue = Boolean.FALSE;
+                        }
                         return false;
                     }
                     pred = ((Iterator) pred).next();
@@ -109,10 +120,18 @@ public class PredicateContext extends EvalContext {
                     done = true;
                     return parentContext.setPosition(pos);
                 }
-                if (InfoSetUtil.booleanValue(pred)) {
+                final boolean value = InfoSetUtil.booleanValue(pred);
+                if (setInvariant) {
+                    // No need to look at the other nodes of the set
+                    setValue = Boolean.valueOf(value);
+                }
+                if (value) {
                     position++;
                     return true;
                 }
+                if (setInvariant) {
+                    return false;
+                }
             }
         }
         return false;
@@ -129,6 +148,7 @@ public class PredicateContext extends EvalContext {
         super.reset();
         parentContext.reset();
         done = false;
+        setValue = null;
     }
 
     @Override
@@ -18,10 +18,16 @@
 package org.apache.commons.jxpath.ri.axes;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.apache.commons.jxpath.BasicNodeSet;
+import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.ri.EvalContext;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
 import org.apache.commons.jxpath.ri.model.NodePointer;
 
 /**
@@ -29,6 +35,74 @@ import org.apache.commons.jxpath.ri.model.NodePointer;
  */
 public class UnionContext extends NodeSetContext {
 
+    /**
+     * The next unmerged pointer of one operand.
+     */
+    private static final class Head implements Comparable<Head> {
+
+        private final List<NodePointer> pointers;
+        private final int operand;
+        private int index;
+
+        Head(final List<NodePointer> pointers, final int operand) {
+            this.pointers = pointers;
+            this.operand = operand;
+        }
+
+        @Override
+        public int compareTo(final Head other) {
+            final int result = pointer().compareTo(other.pointer());
+            return result != 0 ? result : Integer.compare(operand, other.operand);
+        }
+
+        NodePointer pointer() {
+            return pointers.get(index);
+        }
+    }
+
+    /**
+     * Tests whether a list of pointers is in ascending document order.
+     *
+     * @param pointers to test
+     * @return boolean
+     */
+    private static boolean isSorted(final List<NodePointer> pointers) {
+        for (int i = 1; i < pointers.size(); i++) {
+            if (pointers.get(i - 1).compareTo(pointers.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges lists of pointers that are each in ascending document order.
+     *
+     * @param lists  to merge
+     * @param result receives the merged pointers
+     */
+    private static void merge(final List<List<NodePointer>> lists, final List<NodePointer> result) {
+        final PriorityQueue<Head> heads = new PriorityQueue<>(lists.size());
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new Head(lists.get(i), i));
+            }
+        }
+        while (heads.size() > 1) {
+            final Head head = heads.poll();
+            result.add(head.pointer());
+            if (++head.index < head.pointers.size()) {
+                heads.add(head);
+            }
+        }
+        final Head last = heads.poll();
+        if (last != null) {
+            for (int i = last.index; i < last.pointers.size(); i++) {
+                result.add(last.pointers.get(i));
+            }
+        }
+    }
+
     private final EvalContext[] contexts;
     private boolean prepared;
 
@@ -48,27 +122,59 @@ public class UnionContext extends NodeSetContext {
         return contexts.length > 1 ? 1 : super.getDocumentOrder();
     }
 
+    /**
+     * Gets the nodes of the union, which extension functions receive as the argument value.
+     *
+     * @return NodeSet
+     */
     @Override
-    public boolean setPosition(final int position) {
+    public NodeSet getNodeSet() {
+        prepare();
+        return super.getNodeSet();
+    }
+
+    /**
+     * Collects the nodes of the operands once.
+     */
+    private void prepare() {
         if (!prepared) {
             prepared = true;
-            final BasicNodeSet nodeSet = (BasicNodeSet) getNodeSet();
-            final ArrayList<NodePointer> pointers = new ArrayList<>();
+            final BasicNodeSet nodeSet = (BasicNodeSet) super.getNodeSet();
+            final Set<NodePointer> seen = new HashSet<>();
+            final List<List<NodePointer>> lists = new ArrayList<>(contexts.length);
             for (final EvalContext ctx : contexts) {
+                final List<NodePointer> pointers = new ArrayList<>();
                 while (ctx.nextSet()) {
                     while (ctx.nextNode()) {
                         final NodePointer ptr = ctx.getCurrentNodePointer();
-                        if (!pointers.contains(ptr)) {
+                        if (seen.add(ptr)) {
                             pointers.add(ptr);
                         }
                     }
                 }
+                lists.add(pointers);
             }
-            sortPointers(pointers);
-            for (final Iterator<NodePointer> it = pointers.iterator(); it.hasNext();) {
-                nodeSet.add(it.next());
+            final List<NodePointer> union = new ArrayList<>(seen.size());
+            lists.forEach(union::addAll);
+            if (getDocumentOrder() != 1) {
+                sortPointers(union);
+            } else if (!DocumentOrder.sort(union, false)) {
+                // Without document order keys, merge the operands, which usually come in document order already, instead of sorting the union.
+                for (final List<NodePointer> pointers : lists) {
+                    if (!isSorted(pointers)) {
+                        pointers.sort(NodePointer::compareTo);
+                    }
+                }
+                union.clear();
+                merge(lists, union);
             }
+            union.forEach(nodeSet::add);
         }
+    }
+
+    @Override
+    public boolean setPosition(final int position) {
+        prepare();
         return super.setPosition(position);
     }
 }
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.compiler;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
+import java.util.Collection;
+import java.util.Locale;
+
+import org.apache.commons.jxpath.Container;
+import org.apache.commons.jxpath.JXPathBasicBeanInfo;
+import org.apache.commons.jxpath.JXPathBeanInfo;
+import org.apache.commons.jxpath.JXPathIntrospector;
+import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.ri.Compiler;
+import org.apache.commons.jxpath.ri.QName;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.beans.BeanPointer;
+import org.apache.commons.jxpath.util.PropertyAccessor;
+import org.apache.commons.jxpath.util.ValueUtils;
+
+/**
+ * A location path like {@code order[3]/items[2]/price}, compiled to direct JavaBean property reads. Each step remembers the class of the last bean it read
+ * and the {@link PropertyAccessor} for that class. Evaluating the path again does not create pointers or look up properties by name.
+ * <p>
+ * The scope is deliberately narrow: only paths made of child steps with a plain name, each with at most one constant position predicate such as {@code [3]},
+ * are compiled. Any other path, including one with another predicate such as {@code [@id = 'x']} or {@code [last()]}, a variable, a function call, an
+ * attribute or another axis, a wildcard or a prefixed name, is not compiled at all and is always evaluated by the interpreter.
+ * </p>
+ * <p>
+ * Within a compiled path, a value that the interpreter would not treat as a plain JavaBean makes {@link #getValue(Pointer, Object)} return the caller's marker,
+ * so that the caller can evaluate the path the usual way. Examples are a {@code null} bean before the last step, a collection without a position, a DOM node, a
+ * Map and a {@link Container}. The interpreter then calls again the getters that were already called, as it does when a getter throws an exception or a
+ * position is out of range. A {@code null} value of the last step is returned as is.
+ * </p>
+ *
+ * @see org.apache.commons.jxpath.ri.JXPathContextReferenceImpl#setSpecializing(boolean)
+ * @since 1.4.1
+ */
+public final class BeanPath {
+
+    /**
+     * How a step reads beans of one class.
+     */
+    private static final class Binding {
+
+        private final Class<?> beanClass;
+
+        /**
+         * The property to read, or null if beans of this class are not followed.
+         */
+        private final PropertyDescriptor propertyDescriptor;
+
+        /**
+         * Reads the property, or null to read it through {@link ValueUtils}.
+         */
+        private final PropertyAccessor accessor;
+
+        Binding(final Class<?> beanClass, final PropertyDescriptor propertyDescriptor, final PropertyAccessor accessor) {
+            this.beanClass = beanClass;
+            this.propertyDescriptor = propertyDescriptor;
+            this.accessor = accessor;
+        }
+    }
+
+    /**
+     * A child step.
+     */
+    private static final class Link {
+
+        private final String name;
+
+        /**
+         * The zero-based position, or -1 to take the property value as is.
+         */
+        private final int index;
+
+        private volatile Binding binding;
+
+        Link(final String name, final int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        /**
+         * Binds this step to a bean class.
+         *
+         * @param bean   a bean of the class
+         * @param locale context locale
+         * @return Binding
+         */
+        private Binding bind(final Object bean, final Locale locale) {
+            final Class<?> beanClass = bean.getClass();
+            PropertyDescriptor propertyDescriptor = null;
+            PropertyAccessor accessor = null;
+            if (isBean(bean, locale)) {
+                final JXPathBeanInfo beanInfo = JXPathIntrospector.getBeanInfo(beanClass);
+                propertyDescriptor = beanInfo.getPropertyDescriptor(name);
+                if (propertyDescriptor instanceof IndexedPropertyDescriptor || propertyDescriptor != null && propertyDescriptor.getReadMethod() == null) {
+                    propertyDescriptor = null;
+                }
+                if (propertyDescriptor != null && beanInfo instanceof JXPathBasicBeanInfo) {
+                    accessor = ((JXPathBasicBeanInfo) beanInfo).getPropertyAccessor(propertyDescriptor);
+                }
+            }
+            return new Binding(beanClass, propertyDescriptor, accessor);
+        }
+
+        /**
+         * Reads this step from a bean.
+         *
+         * @param bean       to read
+         * @param root       the context pointer, which has the locale
+         * @param unresolved returned if the step cannot be followed
+         * @return the value, null if the property is null and no position is selected, or {@code unresolved}
+         */
+        Object read(final Object bean, final NodePointer root, final Object unresolved) {
+            Binding current = binding;
+            if (current == null || current.beanClass != bean.getClass()) {
+                current = bind(bean, root.getLocale());
+                binding = current;
+            }
+            if (current.propertyDescriptor == null) {
+                return unresolved;
+            }
+            Object value;
+            try {
+                value = current.accessor != null ? current.accessor.getValue(bean) : ValueUtils.getValue(bean, current.propertyDescriptor);
+            } catch (final RuntimeException e) {
+                // Let the interpreter report it
+                return unresolved;
+            }
+            if (value == null) {
+                return index == -1 ? null : unresolved;
+            }
+            if (value instanceof Container) {
+                return unresolved;
+            }
+            final boolean collection = value instanceof Collection || value.getClass().isArray();
+            if (index == -1) {
+                return collection ? unresolved : value;
+            }
+            if (!collection) {
+                return index == 0 ? value : unresolved;
+            }
+            if (index >= ValueUtils.getLength(value)) {
+                return unresolved;
+            }
+            value = ValueUtils.getValue(value, index);
+            return value == null ? unresolved : value;
+        }
+    }
+
+    private static final QName ROOT = new QName(null, "root");
+
+    /**
+     * Compiles a location path of child steps with plain names and at most one constant position, like {@code order[3]/items[2]/price}.
+     *
+     * @param expression compiled XPath
+     * @return BeanPath or null if the expression is not such a path
+     */
+    public static BeanPath compile(final Expression expression) {
+        if (!(expression instanceof LocationPath)) {
+            return null;
+        }
+        final Step[] steps = ((LocationPath) expression).getSteps();
+        if (steps == null || steps.length == 0) {
+            return null;
+        }
+        final Link[] links = new Link[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            final Step step = steps[i];
+            if (step.getAxis() != Compiler.AXIS_CHILD || !(step.getNodeTest() instanceof NodeNameTest)) {
+                return null;
+            }
+            final NodeNameTest nodeTest = (NodeNameTest) step.getNodeTest();
+            if (nodeTest.isWildcard() || nodeTest.getNodeName().getPrefix() != null) {
+                return null;
+            }
+            final Expression[] predicates = step.getPredicates();
+            int index = -1;
+            if (predicates != null && predicates.length > 0) {
+                if (predicates.length > 1) {
+                    return null;
+                }
+                index = getIndex(predicates[0]);
+                if (index == -1) {
+                    return null;
+                }
+            }
+            links[i] = new Link(nodeTest.getNodeName().getName(), index);
+        }
+        return new BeanPath(links);
+    }
+
+    /**
+     * Gets the zero-based position selected by a constant predicate like {@code [3]}.
+     *
+     * @param predicate to test
+     * @return position or -1
+     */
+    private static int getIndex(final Expression predicate) {
+        if (predicate instanceof Constant && predicate.isNumberValued()) {
+            final double position = predicate.computeDouble(null);
+            if (position >= 1 && position <= Integer.MAX_VALUE && position == Math.floor(position)) {
+                return (int) position - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests whether the interpreter would treat an object as a plain JavaBean, that is, allocate a {@link BeanPointer} for it.
+     *
+     * @param object to test
+     * @param locale context locale
+     * @return boolean
+     */
+    private static boolean isBean(final Object object, final Locale locale) {
+        return NodePointer.newNodePointer(ROOT, object, locale).getClass() == BeanPointer.class;
+    }
+
+    private final Link[] links;
+
+    /**
+     * The class of the last value returned, known to be a plain JavaBean.
+     */
+    private volatile Class<?> valueClass;
+
+    private BeanPath(final Link[] links) {
+        this.links = links;
+    }
+
+    /**
+     * Gets the value of the path.
+     *
+     * @param contextPointer the context pointer, which must point to a JavaBean that is not itself a property of another bean
+     * @param unresolved     returned if the path cannot be evaluated without the interpreter
+     * @return the value, which is null if the last property is null, or {@code unresolved}
+     */
+    public Object getValue(final Pointer contextPointer, final Object unresolved) {
+        if (contextPointer == null || contextPointer.getClass() != BeanPointer.class) {
+            return unresolved;
+        }
+        final NodePointer root = (NodePointer) contextPointer;
+        if (root.getImmediateParentPointer() != null) {
+            return unresolved;
+        }
+        Object value = root.getBaseValue();
+        for (int i = 0; i < links.length; i++) {
+            value = links[i].read(value, root, unresolved);
+            if (value == unresolved || value == null && i < links.length - 1) {
+                return unresolved;
+            }
+        }
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass() != valueClass) {
+            if (!isBean(value, root.getLocale())) {
+                return unresolved;
+            }
+            valueClass = value.getClass();
+        }
+        return value;
+    }
+}
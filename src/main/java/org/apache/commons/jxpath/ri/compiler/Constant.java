@@ -75,6 +75,11 @@ public class Constant extends Expression {
         return false;
     }
 
+    @Override
+    boolean isNumberValued() {
+        return value instanceof Number;
+    }
+
     @Override
     public String toString() {
         if (value instanceof Number) {
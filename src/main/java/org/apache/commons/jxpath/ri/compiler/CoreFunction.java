@@ -21,25 +21,27 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Locale;
 
 import org.apache.commons.jxpath.BasicNodeSet;
 import org.apache.commons.jxpath.JXPathContext;
-import org.apache.commons.jxpath.JXPathException;
 import org.apache.commons.jxpath.JXPathInvalidSyntaxException;
 import org.apache.commons.jxpath.NodeSet;
+import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.EvalContext;
 import org.apache.commons.jxpath.ri.InfoSetUtil;
 import org.apache.commons.jxpath.ri.axes.NodeSetContext;
 import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.util.ValueUtils;
 
 /**
  * An element of the compile tree representing one of built-in functions like "position()" or "number()".
  */
 public class CoreFunction extends Operation {
 
-    private static final Double ZERO = Double.valueOf(0);
     private final int functionCode;
 
     /**
@@ -53,6 +55,70 @@ public class CoreFunction extends Operation {
         this.functionCode = functionCode;
     }
 
+    /**
+     * sum(), min(), max() and avg() implementation: adds up the number values of the nodes in one pass, without collecting them. The nodes of a context that
+     * iteration would sort are only checked for duplicates.
+     *
+     * @param context evaluation context
+     * @return double
+     */
+    private double aggregate(final EvalContext context) {
+        assertArgCount(1);
+        return aggregate(getArg1().compute(context));
+    }
+
+    /**
+     * Aggregates the value of the argument, see {@link #aggregate(EvalContext)}. A value that is not a node set, such as a variable bound to an array or a
+     * collection, is aggregated element by element, and any other value as a sequence of one.
+     *
+     * @param v the computed argument
+     * @return double
+     */
+    double aggregate(final Object v) {
+        if (v == null) {
+            return functionCode == Compiler.FUNCTION_SUM ? 0.0 : Double.NaN;
+        }
+        double sum = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        if (v instanceof EvalContext) {
+            final EvalContext ctx = (EvalContext) v;
+            final HashSet<Pointer> seen = ctx.getDocumentOrder() != 0 ? new HashSet<>() : null;
+            while (ctx.nextSet()) {
+                while (ctx.nextNode()) {
+                    final NodePointer ptr = ctx.getCurrentNodePointer();
+                    if (seen == null || seen.add(ptr)) {
+                        final double d = InfoSetUtil.doubleValue(ptr);
+                        sum += d;
+                        min = Math.min(min, d);
+                        max = Math.max(max, d);
+                        count++;
+                    }
+                }
+            }
+        } else {
+            final Iterator<?> it = ValueUtils.iterate(v);
+            while (it.hasNext()) {
+                final double d = InfoSetUtil.doubleValue(it.next());
+                sum += d;
+                min = Math.min(min, d);
+                max = Math.max(max, d);
+                count++;
+            }
+        }
+        switch (functionCode) {
+        case Compiler.FUNCTION_MIN:
+            return count == 0 ? Double.NaN : min;
+        case Compiler.FUNCTION_MAX:
+            return count == 0 ? Double.NaN : max;
+        case Compiler.FUNCTION_AVG:
+            return count == 0 ? Double.NaN : sum / count;
+        default:
+            return sum;
+        }
+    }
+
     /**
      * Assert {@code count} args.
      *
@@ -75,11 +141,46 @@ public class CoreFunction extends Operation {
         }
     }
 
+    /**
+     * ceiling() implementation.
+     *
+     * @param context evaluation context
+     * @return double
+     */
+    private double ceiling(final EvalContext context) {
+        assertArgCount(1);
+        final double v = getArg1().computeDouble(context);
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            return v;
+        }
+        return Math.ceil(v);
+    }
+
     @Override
     public Object compute(final EvalContext context) {
         return computeValue(context);
     }
 
+    /**
+     * Computes boolean() and not() without converting their argument to an object first, unless a subclass may override their implementation.
+     */
+    @Override
+    public boolean computeBoolean(final EvalContext context) {
+        if (isExactType()) {
+            switch (functionCode) {
+            case Compiler.FUNCTION_BOOLEAN:
+                assertArgCount(1);
+                return getArg1().computeBoolean(context);
+            case Compiler.FUNCTION_NOT:
+                assertArgCount(1);
+                return !getArg1().computeBoolean(context);
+            default:
+                break;
+            }
+        }
+        return super.computeBoolean(context);
+    }
+
     /**
      * Returns true if any argument is context dependent or if the function is last(), position(), boolean(), local-name(), name(), string(), lang(), number().
      *
@@ -123,11 +224,50 @@ public class CoreFunction extends Operation {
         case Compiler.FUNCTION_FLOOR:
         case Compiler.FUNCTION_CEILING:
         case Compiler.FUNCTION_ROUND:
+        case Compiler.FUNCTION_MIN:
+        case Compiler.FUNCTION_MAX:
+        case Compiler.FUNCTION_AVG:
         default:
             return false;
         }
     }
 
+    /**
+     * Computes the numeric functions without boxing their result, unless a subclass may override their implementation.
+     */
+    @Override
+    public double computeDouble(final EvalContext context) {
+        if (isExactType()) {
+            switch (functionCode) {
+            case Compiler.FUNCTION_LAST:
+                return last(context);
+            case Compiler.FUNCTION_POSITION:
+                assertArgCount(0);
+                return context.getCurrentPosition();
+            case Compiler.FUNCTION_COUNT:
+                return count(context, Integer.MAX_VALUE);
+            case Compiler.FUNCTION_STRING_LENGTH:
+                return stringLength(context);
+            case Compiler.FUNCTION_NUMBER:
+                return ((Number) functionNumber(context)).doubleValue();
+            case Compiler.FUNCTION_SUM:
+            case Compiler.FUNCTION_MIN:
+            case Compiler.FUNCTION_MAX:
+            case Compiler.FUNCTION_AVG:
+                return aggregate(context);
+            case Compiler.FUNCTION_FLOOR:
+                return floor(context);
+            case Compiler.FUNCTION_CEILING:
+                return ceiling(context);
+            case Compiler.FUNCTION_ROUND:
+                return round(context);
+            default:
+                break;
+            }
+        }
+        return super.computeDouble(context);
+    }
+
     @Override
     public Object computeValue(final EvalContext context) {
         switch (functionCode) {
@@ -193,11 +333,79 @@ public class CoreFunction extends Operation {
             return functionKey(context);
         case Compiler.FUNCTION_FORMAT_NUMBER:
             return functionFormatNumber(context);
+        case Compiler.FUNCTION_MIN:
+            return functionMin(context);
+        case Compiler.FUNCTION_MAX:
+            return functionMax(context);
+        case Compiler.FUNCTION_AVG:
+            return functionAvg(context);
         default:
             return null;
         }
     }
 
+    /**
+     * count() implementation. Nodes past the limit are not looked for, so a count compared with a constant can stop early. The nodes are counted without
+     * creating a pointer to each of them, unless iteration would sort them, in which case they are only checked for duplicates.
+     *
+     * @param context evaluation context
+     * @param limit   the largest count of interest
+     * @return the count, or the limit if there are more nodes
+     */
+    int count(final EvalContext context, final int limit) {
+        assertArgCount(1);
+        final Expression arg1 = getArg1();
+        int count = 0;
+        Object value = arg1.compute(context);
+        if (value instanceof NodePointer) {
+            value = ((NodePointer) value).getValue();
+        }
+        if (value instanceof EvalContext) {
+            final EvalContext ctx = (EvalContext) value;
+            final HashSet<Pointer> seen = ctx.getDocumentOrder() != 0 ? new HashSet<>() : null;
+            while (count < limit && ctx.nextSet()) {
+                while (count < limit && ctx.nextNode()) {
+                    if (seen == null || seen.add(ctx.getCurrentNodePointer())) {
+                        count++;
+                    }
+                }
+            }
+        } else if (value instanceof Collection) {
+            count = ((Collection) value).size();
+        } else if (value == null) {
+            count = 0;
+        } else {
+            count = 1;
+        }
+        return count;
+    }
+
+    /**
+     * floor() implementation.
+     *
+     * @param context evaluation context
+     * @return double
+     */
+    private double floor(final EvalContext context) {
+        assertArgCount(1);
+        final double v = getArg1().computeDouble(context);
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            return v;
+        }
+        return Math.floor(v);
+    }
+
+    /**
+     * avg() implementation: the average of the number values of the nodes, or NaN if there are none.
+     *
+     * @param context evaluation context
+     * @return Number
+     * @since 1.4.1
+     */
+    protected Object functionAvg(final EvalContext context) {
+        return Double.valueOf(aggregate(context));
+    }
+
     /**
      * boolean() implementation.
      *
@@ -216,12 +424,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionCeiling(final EvalContext context) {
-        assertArgCount(1);
-        final double v = InfoSetUtil.doubleValue(getArg1().computeValue(context));
-        if (Double.isNaN(v) || Double.isInfinite(v)) {
-            return Double.valueOf(v);
-        }
-        return Double.valueOf(Math.ceil(v));
+        return Double.valueOf(ceiling(context));
     }
 
     /**
@@ -262,27 +465,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionCount(final EvalContext context) {
-        assertArgCount(1);
-        final Expression arg1 = getArg1();
-        int count = 0;
-        Object value = arg1.compute(context);
-        if (value instanceof NodePointer) {
-            value = ((NodePointer) value).getValue();
-        }
-        if (value instanceof EvalContext) {
-            final EvalContext ctx = (EvalContext) value;
-            while (ctx.hasNext()) {
-                ctx.next();
-                count++;
-            }
-        } else if (value instanceof Collection) {
-            count = ((Collection) value).size();
-        } else if (value == null) {
-            count = 0;
-        } else {
-            count = 1;
-        }
-        return Double.valueOf(count);
+        return Double.valueOf(count(context, Integer.MAX_VALUE));
     }
 
     /**
@@ -317,12 +500,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionFloor(final EvalContext context) {
-        assertArgCount(1);
-        final double v = InfoSetUtil.doubleValue(getArg1().computeValue(context));
-        if (Double.isNaN(v) || Double.isInfinite(v)) {
-            return Double.valueOf(v);
-        }
-        return Double.valueOf(Math.floor(v));
+        return Double.valueOf(floor(context));
     }
 
     /**
@@ -426,20 +604,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionLast(final EvalContext context) {
-        assertArgCount(0);
-        // Move the position to the beginning and iterate through
-        // the context to count nodes.
-        final int old = context.getCurrentPosition();
-        context.reset();
-        int count = 0;
-        while (context.nextNode()) {
-            count++;
-        }
-        // Restore the current position.
-        if (old != 0) {
-            context.setPosition(old);
-        }
-        return Double.valueOf(count);
+        return Double.valueOf(last(context));
     }
 
     /**
@@ -465,6 +630,28 @@ public class CoreFunction extends Operation {
         return "";
     }
 
+    /**
+     * max() implementation: the largest of the number values of the nodes, or NaN if there are none.
+     *
+     * @param context evaluation context
+     * @return Number
+     * @since 1.4.1
+     */
+    protected Object functionMax(final EvalContext context) {
+        return Double.valueOf(aggregate(context));
+    }
+
+    /**
+     * min() implementation: the smallest of the number values of the nodes, or NaN if there are none.
+     *
+     * @param context evaluation context
+     * @return Number
+     * @since 1.4.1
+     */
+    protected Object functionMin(final EvalContext context) {
+        return Double.valueOf(aggregate(context));
+    }
+
     /**
      * name() implementation.
      *
@@ -601,12 +788,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionRound(final EvalContext context) {
-        assertArgCount(1);
-        final double v = InfoSetUtil.doubleValue(getArg1().computeValue(context));
-        if (Double.isNaN(v) || Double.isInfinite(v)) {
-            return Double.valueOf(v);
-        }
-        return Double.valueOf(Math.round(v));
+        return Double.valueOf(round(context));
     }
 
     /**
@@ -643,14 +825,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionStringLength(final EvalContext context) {
-        String s;
-        if (getArgumentCount() == 0) {
-            s = InfoSetUtil.stringValue(context.getCurrentNodePointer());
-        } else {
-            assertArgCount(1);
-            s = InfoSetUtil.stringValue(getArg1().computeValue(context));
-        }
-        return Double.valueOf(s.length());
+        return Double.valueOf(stringLength(context));
     }
 
     /**
@@ -741,21 +916,7 @@ public class CoreFunction extends Operation {
      * @return Number
      */
     protected Object functionSum(final EvalContext context) {
-        assertArgCount(1);
-        final Object v = getArg1().compute(context);
-        if (v == null) {
-            return ZERO;
-        }
-        if (v instanceof EvalContext) {
-            double sum = 0.0;
-            final EvalContext ctx = (EvalContext) v;
-            while (ctx.hasNext()) {
-                final NodePointer ptr = (NodePointer) ctx.next();
-                sum += InfoSetUtil.doubleValue(ptr);
-            }
-            return Double.valueOf(sum);
-        }
-        throw new JXPathException("Invalid argument type for 'sum': " + v.getClass().getName());
+        return Double.valueOf(aggregate(context));
     }
 
     /**
@@ -912,11 +1073,93 @@ public class CoreFunction extends Operation {
             return "key";
         case Compiler.FUNCTION_FORMAT_NUMBER:
             return "format-number";
+        case Compiler.FUNCTION_MIN:
+            return "min";
+        case Compiler.FUNCTION_MAX:
+            return "max";
+        case Compiler.FUNCTION_AVG:
+            return "avg";
         default:
             return "unknownFunction" + functionCode + "()";
         }
     }
 
+    /**
+     * Tests whether this is a CoreFunction rather than a subclass, which may override the protected implementations of the functions.
+     *
+     * @return boolean
+     */
+    boolean isExactType() {
+        return getClass() == CoreFunction.class;
+    }
+
+    @Override
+    boolean isNumberValued() {
+        if (isExactType()) {
+            switch (functionCode) {
+            case Compiler.FUNCTION_LAST:
+            case Compiler.FUNCTION_POSITION:
+            case Compiler.FUNCTION_COUNT:
+            case Compiler.FUNCTION_STRING_LENGTH:
+            case Compiler.FUNCTION_NUMBER:
+            case Compiler.FUNCTION_SUM:
+            case Compiler.FUNCTION_FLOOR:
+            case Compiler.FUNCTION_CEILING:
+            case Compiler.FUNCTION_ROUND:
+            case Compiler.FUNCTION_MIN:
+            case Compiler.FUNCTION_MAX:
+            case Compiler.FUNCTION_AVG:
+                return true;
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * last() implementation.
+     *
+     * @param context evaluation context
+     * @return int
+     */
+    private int last(final EvalContext context) {
+        assertArgCount(0);
+        return context.getLastPosition();
+    }
+
+    /**
+     * round() implementation.
+     *
+     * @param context evaluation context
+     * @return double
+     */
+    private double round(final EvalContext context) {
+        assertArgCount(1);
+        final double v = getArg1().computeDouble(context);
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            return v;
+        }
+        return Math.round(v);
+    }
+
+    /**
+     * string-length() implementation.
+     *
+     * @param context evaluation context
+     * @return int
+     */
+    private int stringLength(final EvalContext context) {
+        String s;
+        if (getArgumentCount() == 0) {
+            s = InfoSetUtil.stringValue(context.getCurrentNodePointer());
+        } else {
+            assertArgCount(1);
+            s = getArg1().computeString(context);
+        }
+        return s.length();
+    }
+
     @Override
     public String toString() {
         final StringBuilder buffer = new StringBuilder();
@@ -17,6 +17,7 @@
 
 package org.apache.commons.jxpath.ri.compiler;
 
+import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.EvalContext;
 
 /**
@@ -48,6 +49,29 @@ public abstract class CoreOperation extends Operation {
     /** Union precedence */
     protected static final int UNION_PRECEDENCE = 7;
 
+    /**
+     * Computes an operand of a numeric comparison. When a count() is compared with a constant, the nodes are only counted up to the first one past the
+     * constant, which is enough to decide the comparison.
+     *
+     * @param context evaluation context
+     * @param operand the operand to compute
+     * @param other   the operand it is compared with
+     * @return the value of the operand, or a value that compares with the other operand the same way
+     */
+    static double computeOperand(final EvalContext context, final Expression operand, final Expression other) {
+        if (operand instanceof CoreFunction && other instanceof Constant && other.isNumberValued()) {
+            final CoreFunction function = (CoreFunction) operand;
+            if (function.isExactType() && function.getFunctionCode() == Compiler.FUNCTION_COUNT) {
+                final double bound = Math.floor(other.computeDouble(context)) + 1;
+                if (bound < Integer.MAX_VALUE) {
+                    // Still evaluate the argument when the constant is negative
+                    return function.count(context, (int) Math.max(1, bound));
+                }
+            }
+        }
+        return operand.computeDouble(context);
+    }
+
     /**
      * Constructs a new CoreOperation.
      *
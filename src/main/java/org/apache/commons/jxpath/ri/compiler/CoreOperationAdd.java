@@ -18,7 +18,6 @@
 package org.apache.commons.jxpath.ri.compiler;
 
 import org.apache.commons.jxpath.ri.EvalContext;
-import org.apache.commons.jxpath.ri.InfoSetUtil;
 
 /**
  * Implementation of {@link Expression} for the operation "+".
@@ -35,12 +34,17 @@ public class CoreOperationAdd extends CoreOperation {
     }
 
     @Override
-    public Object computeValue(final EvalContext context) {
+    public double computeDouble(final EvalContext context) {
         double s = 0.0;
         for (final Expression arg : args) {
-            s += InfoSetUtil.doubleValue(arg.computeValue(context));
+            s += arg.computeDouble(context);
         }
-        return Double.valueOf(s);
+        return s;
+    }
+
+    @Override
+    public Object computeValue(final EvalContext context) {
+        return Double.valueOf(computeDouble(context));
     }
 
     @Override
@@ -53,6 +57,11 @@ public class CoreOperationAdd extends CoreOperation {
         return "+";
     }
 
+    @Override
+    boolean isNumberValued() {
+        return true;
+    }
+
     @Override
     protected boolean isSymmetric() {
         return true;
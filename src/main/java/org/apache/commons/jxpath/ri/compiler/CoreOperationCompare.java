@@ -17,9 +17,12 @@
 
 package org.apache.commons.jxpath.ri.compiler;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.EvalContext;
@@ -32,6 +35,125 @@ import org.apache.commons.jxpath.ri.axes.SelfContext;
  */
 public abstract class CoreOperationCompare extends CoreOperation {
 
+    /**
+     * The values of a node-set, hashed so that {@link CoreOperationCompare#equal(Object, Object)} against each of them can be answered in constant time. Values
+     * are bucketed by the type that decides how they compare: a boolean operand compares as boolean, otherwise a number operand compares as number, otherwise
+     * a string operand compares as string, and two other objects compare with {@link Object#equals(Object)}.
+     */
+    private static final class ValueSet {
+
+        /**
+         * Normalizes -0.0 to 0.0 so that hashing agrees with {@code ==}.
+         *
+         * @param d double
+         * @return Double
+         */
+        private static Double key(final double d) {
+            return Double.valueOf(d + 0.0);
+        }
+
+        /** The boolean values of the Boolean values. */
+        private final Set<Boolean> booleans = new HashSet<>();
+
+        /** The boolean values of all values. */
+        private final Set<Boolean> truths = new HashSet<>();
+
+        /** The double values of the Number values. */
+        private final Set<Double> numbers = new HashSet<>();
+
+        /** The String values. */
+        private final Set<String> strings = new HashSet<>();
+
+        /** The values that are neither Boolean, Number nor String. */
+        private final Set<Object> others = new HashSet<>();
+
+        /** The string values of {@link #others}. */
+        private final Set<String> otherStrings = new HashSet<>();
+
+        /** The values that are not Boolean, converted to doubles on first use. */
+        private List<Object> nonBooleans = new ArrayList<>();
+
+        /** The double values of {@link #nonBooleans}. */
+        private Set<Double> nonBooleanNumbers;
+
+        ValueSet(final Iterator it) {
+            while (it.hasNext()) {
+                final Object value = value(it.next());
+                truths.add(Boolean.valueOf(InfoSetUtil.booleanValue(value)));
+                if (value instanceof Boolean) {
+                    booleans.add((Boolean) value);
+                    continue;
+                }
+                nonBooleans.add(value);
+                if (value instanceof Number) {
+                    final double d = ((Number) value).doubleValue();
+                    if (!Double.isNaN(d)) {
+                        numbers.add(key(d));
+                    }
+                } else if (value instanceof String) {
+                    strings.add((String) value);
+                } else {
+                    others.add(value);
+                    otherStrings.add(InfoSetUtil.stringValue(value));
+                }
+            }
+        }
+
+        /**
+         * Tests whether any value of this set equals the specified value.
+         *
+         * @param object Pointer or value
+         * @return boolean
+         */
+        boolean contains(final Object object) {
+            final Object value = value(object);
+            if (value instanceof Boolean) {
+                return truths.contains(value);
+            }
+            if (!booleans.isEmpty() && booleans.contains(Boolean.valueOf(InfoSetUtil.booleanValue(value)))) {
+                return true;
+            }
+            if (value instanceof Number) {
+                final double d = ((Number) value).doubleValue();
+                return !Double.isNaN(d) && nonBooleanNumbers().contains(key(d));
+            }
+            if (!numbers.isEmpty()) {
+                final double d = InfoSetUtil.doubleValue(value);
+                if (!Double.isNaN(d) && numbers.contains(key(d))) {
+                    return true;
+                }
+            }
+            if (value instanceof String) {
+                return strings.contains(value) || otherStrings.contains(value);
+            }
+            return !strings.isEmpty() && strings.contains(InfoSetUtil.stringValue(value)) || others.contains(value);
+        }
+
+        private Set<Double> nonBooleanNumbers() {
+            if (nonBooleanNumbers == null) {
+                nonBooleanNumbers = new HashSet<>();
+                for (final Object value : nonBooleans) {
+                    final double d = InfoSetUtil.doubleValue(value);
+                    if (!Double.isNaN(d)) {
+                        nonBooleanNumbers.add(key(d));
+                    }
+                }
+                nonBooleans = null;
+            }
+            return nonBooleanNumbers;
+        }
+    }
+
+    /**
+     * Gets the value of a node-set element.
+     *
+     * @param object Pointer or value
+     * @return Object
+     */
+    private static Object value(final Object object) {
+        return object instanceof Pointer ? ((Pointer) object).getValue() : object;
+    }
+
     private final boolean invert;
 
     /**
@@ -56,9 +178,14 @@ public abstract class CoreOperationCompare extends CoreOperation {
         this.invert = invert;
     }
 
+    @Override
+    public boolean computeBoolean(final EvalContext context) {
+        return equal(context, args[0], args[1]);
+    }
+
     @Override
     public Object computeValue(final EvalContext context) {
-        return equal(context, args[0], args[1]) ? Boolean.TRUE : Boolean.FALSE;
+        return computeBoolean(context) ? Boolean.TRUE : Boolean.FALSE;
     }
 
     /**
@@ -87,6 +214,12 @@ public abstract class CoreOperationCompare extends CoreOperation {
      * @return whether left = right in XPath terms
      */
     protected boolean equal(final EvalContext context, final Expression left, final Expression right) {
+        if (left.isNumberValued() && right.isNumberValued()) {
+            // Both sides are numbers: compare them without boxing
+            final double ld = computeOperand(context, left, right);
+            final double rd = computeOperand(context, right, left);
+            return !Double.isNaN(ld) && !Double.isNaN(rd) && ld == rd ^ invert;
+        }
         Object l = left.compute(context);
         Object r = right.compute(context);
         if (l instanceof InitialContext) {
@@ -165,12 +298,22 @@ public abstract class CoreOperationCompare extends CoreOperation {
      * @return boolean
      */
     protected boolean findMatch(final Iterator lit, final Iterator rit) {
-        final HashSet left = new HashSet();
-        while (lit.hasNext()) {
-            left.add(lit.next());
+        if (invert) {
+            // Some pair is almost always unequal, so a scan over the values stops early.
+            final List<Object> left = new ArrayList<>();
+            while (lit.hasNext()) {
+                left.add(value(lit.next()));
+            }
+            while (rit.hasNext()) {
+                if (contains(left.iterator(), value(rit.next()))) {
+                    return true;
+                }
+            }
+            return false;
         }
+        final ValueSet left = new ValueSet(lit);
         while (rit.hasNext()) {
-            if (contains(left.iterator(), rit.next())) {
+            if (left.contains(rit.next())) {
                 return true;
             }
         }
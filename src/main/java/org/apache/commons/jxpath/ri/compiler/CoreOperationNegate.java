@@ -18,7 +18,6 @@
 package org.apache.commons.jxpath.ri.compiler;
 
 import org.apache.commons.jxpath.ri.EvalContext;
-import org.apache.commons.jxpath.ri.InfoSetUtil;
 
 /**
  * Implementation of {@link Expression} for the operation unary "-".
@@ -34,10 +33,14 @@ public class CoreOperationNegate extends CoreOperation {
         super(new Expression[] { arg });
     }
 
+    @Override
+    public double computeDouble(final EvalContext context) {
+        return -args[0].computeDouble(context);
+    }
+
     @Override
     public Object computeValue(final EvalContext context) {
-        final double a = InfoSetUtil.doubleValue(args[0].computeValue(context));
-        return Double.valueOf(-a);
+        return Double.valueOf(computeDouble(context));
     }
 
     @Override
@@ -50,6 +53,11 @@ public class CoreOperationNegate extends CoreOperation {
         return "-";
     }
 
+    @Override
+    boolean isNumberValued() {
+        return true;
+    }
+
     @Override
     protected boolean isSymmetric() {
         return false;
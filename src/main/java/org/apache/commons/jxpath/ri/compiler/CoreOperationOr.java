@@ -18,7 +18,6 @@
 package org.apache.commons.jxpath.ri.compiler;
 
 import org.apache.commons.jxpath.ri.EvalContext;
-import org.apache.commons.jxpath.ri.InfoSetUtil;
 
 /**
  * Implementation of {@link Expression} for the operation "or".
@@ -35,13 +34,18 @@ public class CoreOperationOr extends CoreOperation {
     }
 
     @Override
-    public Object computeValue(final EvalContext context) {
+    public boolean computeBoolean(final EvalContext context) {
         for (final Expression arg : args) {
-            if (InfoSetUtil.booleanValue(arg.computeValue(context))) {
-                return Boolean.TRUE;
+            if (arg.computeBoolean(context)) {
+                return true;
             }
         }
-        return Boolean.FALSE;
+        return false;
+    }
+
+    @Override
+    public Object computeValue(final EvalContext context) {
+        return computeBoolean(context) ? Boolean.TRUE : Boolean.FALSE;
     }
 
     @Override
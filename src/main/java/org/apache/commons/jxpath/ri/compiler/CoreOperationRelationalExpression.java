@@ -67,20 +67,37 @@ public abstract class CoreOperationRelationalExpression extends CoreOperation {
         if (right instanceof Iterator) {
             return containsMatch(left, (Iterator) right);
         }
-        final double ld = InfoSetUtil.doubleValue(left);
-        if (Double.isNaN(ld)) {
-            return false;
-        }
-        final double rd = InfoSetUtil.doubleValue(right);
-        if (Double.isNaN(rd)) {
+        return compute(InfoSetUtil.doubleValue(left), InfoSetUtil.doubleValue(right));
+    }
+
+    /**
+     * Compare left to right.
+     *
+     * @param ld left operand
+     * @param rd right operand
+     * @return operation success/failure
+     */
+    private boolean compute(final double ld, final double rd) {
+        if (Double.isNaN(ld) || Double.isNaN(rd)) {
             return false;
         }
         return evaluateCompare(ld == rd ? 0 : ld < rd ? -1 : 1);
     }
 
+    /**
+     * Compares operands that are both numbers as doubles, without boxing them.
+     */
+    @Override
+    public final boolean computeBoolean(final EvalContext context) {
+        if (args[0].isNumberValued() && args[1].isNumberValued()) {
+            return compute(computeOperand(context, args[0], args[1]), computeOperand(context, args[1], args[0]));
+        }
+        return compute(args[0].compute(context), args[1].compute(context));
+    }
+
     @Override
     public final Object computeValue(final EvalContext context) {
-        return compute(args[0].compute(context), args[1].compute(context)) ? Boolean.TRUE : Boolean.FALSE;
+        return computeBoolean(context) ? Boolean.TRUE : Boolean.FALSE;
     }
 
     /**
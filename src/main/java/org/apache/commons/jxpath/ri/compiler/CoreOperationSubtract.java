@@ -18,7 +18,6 @@
 package org.apache.commons.jxpath.ri.compiler;
 
 import org.apache.commons.jxpath.ri.EvalContext;
-import org.apache.commons.jxpath.ri.InfoSetUtil;
 
 /**
  * Implementation of {@link Expression} for the operation "-".
@@ -35,11 +34,16 @@ public class CoreOperationSubtract extends CoreOperation {
         super(new Expression[] { arg1, arg2 });
     }
 
+    @Override
+    public double computeDouble(final EvalContext context) {
+        final double l = args[0].computeDouble(context);
+        final double r = args[1].computeDouble(context);
+        return l - r;
+    }
+
     @Override
     public Object computeValue(final EvalContext context) {
-        final double l = InfoSetUtil.doubleValue(args[0].computeValue(context));
-        final double r = InfoSetUtil.doubleValue(args[1].computeValue(context));
-        return Double.valueOf(l - r);
+        return Double.valueOf(computeDouble(context));
     }
 
     @Override
@@ -52,6 +56,11 @@ public class CoreOperationSubtract extends CoreOperation {
         return "-";
     }
 
+    @Override
+    boolean isNumberValued() {
+        return true;
+    }
+
     @Override
     protected boolean isSymmetric() {
         return false;
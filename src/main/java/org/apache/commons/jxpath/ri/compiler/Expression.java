@@ -24,6 +24,7 @@ import java.util.Locale;
 import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.EvalContext;
+import org.apache.commons.jxpath.ri.InfoSetUtil;
 import org.apache.commons.jxpath.ri.QName;
 import org.apache.commons.jxpath.ri.model.NodePointer;
 import org.apache.commons.jxpath.util.ValueUtils;
@@ -31,6 +32,11 @@ import org.apache.commons.jxpath.util.ValueUtils;
 /**
  * Common superclass for several types of nodes in the parse tree. Provides APIs for optimization of evaluation of expressions. Specifically, an expression only
  * needs to executed once during the evaluation of an XPath if that expression is context-independent. Expression.isContextDependent() provides that hint.
+ * <p>
+ * {@link #computeBoolean(EvalContext)}, {@link #computeDouble(EvalContext)} and {@link #computeString(EvalContext)} evaluate the expression to an XPath
+ * boolean, number or string. They default to converting the result of {@link #computeValue(EvalContext)}; operations and functions whose result has a known
+ * type override them to compute it without boxing, and must return the same result as the conversion would.
+ * </p>
  */
 public abstract class Expression {
 
@@ -114,6 +120,12 @@ public abstract class Expression {
         }
     }
 
+    /** Cached {@code false} */
+    static final byte KNOWN_FALSE = 1;
+
+    /** Cached {@code true} */
+    static final byte KNOWN_TRUE = 2;
+
     /** Zero */
     protected static final Double ZERO = Double.valueOf(0);
 
@@ -122,8 +134,11 @@ public abstract class Expression {
 
     /** NaN */
     protected static final Double NOT_A_NUMBER = Double.valueOf(Double.NaN);
-    private boolean contextDependencyKnown;
-    private boolean contextDependent;
+    /**
+     * Cached {@link #computeContextDependent()}: 0 if not known yet, then {@link #KNOWN_FALSE} or {@link #KNOWN_TRUE}. A single field written after the
+     * computation, so that threads sharing a compiled expression read it without locking; a thread that sees 0 computes the same value again.
+     */
+    private byte contextDependent;
 
     /**
      * Constructs a new instance.
@@ -140,6 +155,17 @@ public abstract class Expression {
      */
     public abstract Object compute(EvalContext context);
 
+    /**
+     * Evaluates the expression and converts the result to a boolean as the XPath boolean() function does.
+     *
+     * @param context evaluation context
+     * @return boolean
+     * @since 1.4.1
+     */
+    public boolean computeBoolean(final EvalContext context) {
+        return InfoSetUtil.booleanValue(computeValue(context));
+    }
+
     /**
      * Implemented by subclasses and result is cached by isContextDependent()
      *
@@ -147,6 +173,28 @@ public abstract class Expression {
      */
     public abstract boolean computeContextDependent();
 
+    /**
+     * Evaluates the expression and converts the result to a number as the XPath number() function does.
+     *
+     * @param context evaluation context
+     * @return double
+     * @since 1.4.1
+     */
+    public double computeDouble(final EvalContext context) {
+        return InfoSetUtil.doubleValue(computeValue(context));
+    }
+
+    /**
+     * Evaluates the expression and converts the result to a string as the XPath string() function does.
+     *
+     * @param context evaluation context
+     * @return String
+     * @since 1.4.1
+     */
+    public String computeString(final EvalContext context) {
+        return InfoSetUtil.stringValue(computeValue(context));
+    }
+
     /**
      * Evaluates the expression. If the result is a node set, returns the first element of the node set.
      *
@@ -160,12 +208,22 @@ public abstract class Expression {
      *
      * @return boolean
      */
-    public synchronized boolean isContextDependent() {
-        if (!contextDependencyKnown) {
-            contextDependent = computeContextDependent();
-            contextDependencyKnown = true;
+    public boolean isContextDependent() {
+        byte known = contextDependent;
+        if (known == 0) {
+            known = computeContextDependent() ? KNOWN_TRUE : KNOWN_FALSE;
+            contextDependent = known;
         }
-        return contextDependent;
+        return known == KNOWN_TRUE;
+    }
+
+    /**
+     * Tests whether {@link #computeValue(EvalContext)} always returns a {@link Number}, in which case {@link #computeDouble(EvalContext)} can stand in for it.
+     *
+     * @return boolean
+     */
+    boolean isNumberValued() {
+        return false;
     }
 
     /**
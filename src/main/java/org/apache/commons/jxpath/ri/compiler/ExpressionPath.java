@@ -33,8 +33,11 @@ public class ExpressionPath extends Path {
 
     private final Expression expression;
     private final Expression[] predicates;
-    private boolean basicKnown;
-    private boolean basic;
+
+    /**
+     * Cached {@link #isSimpleExpressionPath()}, see {@link Expression#isContextDependent()}.
+     */
+    private byte basic;
 
     /**
      * Constructs a new ExpressionPath.
@@ -141,12 +144,13 @@ public class ExpressionPath extends Path {
      *
      * @return boolean
      */
-    public synchronized boolean isSimpleExpressionPath() {
-        if (!basicKnown) {
-            basicKnown = true;
-            basic = isSimplePath() && areBasicPredicates(getPredicates());
+    public boolean isSimpleExpressionPath() {
+        byte known = basic;
+        if (known == 0) {
+            known = isSimplePath() && areBasicPredicates(getPredicates()) ? KNOWN_TRUE : KNOWN_FALSE;
+            basic = known;
         }
-        return basic;
+        return known == KNOWN_TRUE;
     }
 
     @Override
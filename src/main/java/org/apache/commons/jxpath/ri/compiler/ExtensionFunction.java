@@ -22,6 +22,7 @@ import java.util.Arrays;
 import org.apache.commons.jxpath.Function;
 import org.apache.commons.jxpath.JXPathFunctionNotFoundException;
 import org.apache.commons.jxpath.NodeSet;
+import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.EvalContext;
 import org.apache.commons.jxpath.ri.QName;
 import org.apache.commons.jxpath.ri.axes.NodeSetContext;
@@ -31,8 +32,35 @@ import org.apache.commons.jxpath.ri.axes.NodeSetContext;
  */
 public class ExtensionFunction extends Operation {
 
+    /**
+     * Gets the code of the built-in function used when no function of the context matches an unprefixed min(), max() or avg() call.
+     *
+     * @param functionName name of the function
+     * @return {@link Compiler} function code or 0
+     */
+    private static int getBuiltInCode(final QName functionName) {
+        if (functionName.getPrefix() == null) {
+            switch (functionName.getName()) {
+            case "min":
+                return Compiler.FUNCTION_MIN;
+            case "max":
+                return Compiler.FUNCTION_MAX;
+            case "avg":
+                return Compiler.FUNCTION_AVG;
+            default:
+                break;
+            }
+        }
+        return 0;
+    }
+
     private final QName functionName;
 
+    /**
+     * Computes min(), max() or avg() if no function of the context matches, or null.
+     */
+    private final CoreFunction builtIn;
+
     /**
      * Constructs a new ExtensionFunction.
      *
@@ -42,6 +70,8 @@ public class ExtensionFunction extends Operation {
     public ExtensionFunction(final QName functionName, final Expression[] args) {
         super(args);
         this.functionName = functionName;
+        final int code = getBuiltInCode(functionName);
+        this.builtIn = code != 0 && args != null && args.length == 1 ? new CoreFunction(code, args) : null;
     }
 
     @Override
@@ -68,8 +98,21 @@ public class ExtensionFunction extends Operation {
                 parameters[i] = convert(args[i].compute(context));
             }
         }
-        final Function function = context.getRootContext().getFunction(functionName, parameters);
+        Function function;
+        try {
+            function = context.getRootContext().getFunction(functionName, parameters);
+        } catch (final JXPathFunctionNotFoundException e) {
+            if (builtIn == null) {
+                throw e;
+            }
+            function = null;
+        }
         if (function == null) {
+            if (builtIn != null) {
+                // Functions of the context take precedence over the built-in min(), max() and avg()
+                final Object nodes = parameters[0];
+                return Double.valueOf(builtIn.aggregate(nodes instanceof NodeSet ? new NodeSetContext(context, (NodeSet) nodes) : nodes));
+            }
             throw new JXPathFunctionNotFoundException("No such function: " + functionName + Arrays.asList(parameters));
         }
         final Object result = function.invoke(context, parameters);
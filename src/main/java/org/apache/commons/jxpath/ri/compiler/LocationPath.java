@@ -18,6 +18,7 @@
 package org.apache.commons.jxpath.ri.compiler;
 
 import org.apache.commons.jxpath.ri.EvalContext;
+import org.apache.commons.jxpath.ri.InfoSetUtil;
 import org.apache.commons.jxpath.ri.axes.InitialContext;
 
 /**
@@ -50,6 +51,28 @@ public class LocationPath extends Path {
         return evalSteps(rootContext);
     }
 
+    /**
+     * Tests whether the path selects any node. Unlike {@link #computeValue(EvalContext)}, this stops at the first node found and does not look for a place to
+     * create a missing node at.
+     *
+     * @param context evaluation context
+     * @return boolean
+     */
+    @Override
+    public boolean computeBoolean(final EvalContext context) {
+        final EvalContext rootContext;
+        if (isAbsolute()) {
+            rootContext = context.getRootContext().getAbsoluteRootContext();
+        } else {
+            rootContext = new InitialContext(context);
+        }
+        final Step[] steps = getSteps();
+        if (steps.length == 0 || isSimplePath()) {
+            return InfoSetUtil.booleanValue(getSingleNodePointerForSteps(rootContext));
+        }
+        return InfoSetUtil.booleanValue(buildContextChain(rootContext, steps.length, true));
+    }
+
     @Override
     public boolean computeContextDependent() {
         return !absolute || super.computeContextDependent();
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.commons.jxpath.ri.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.jxpath.ri.Compiler;
+import org.apache.commons.jxpath.ri.InfoSetUtil;
+
+/**
+ * A {@link TreeCompiler} that simplifies the expression tree as the parser builds it, bottom-up:
+ * <ul>
+ * <li>Operations and side-effect free core functions whose arguments are all constants are evaluated once: {@code 1 + 2} compiles to {@code 3},
+ * {@code not(true())} to {@code false()}.</li>
+ * <li>Constant arguments of "and" and "or" that do not decide the result are dropped, and so are the arguments after one that does.</li>
+ * <li>Predicates that are constantly true, like {@code [true()]}, are dropped from a location step that has other predicates.</li>
+ * <li>Nested unions are flattened.</li>
+ * <li>{@code self::node()} steps without predicates are dropped unless they end the path.</li>
+ * </ul>
+ * <p>
+ * A trailing {@code self::node()} step or a lone constant predicate is kept because it makes the path select the elements of a collection rather than the
+ * collection itself. Rewrites keep the result of the expression; only {@link Expression#toString()} may differ from the source.
+ * </p>
+ *
+ * @see org.apache.commons.jxpath.ri.JXPathContextReferenceImpl#setOptimizing(boolean)
+ * @since 1.4.1
+ */
+public class OptimizingTreeCompiler extends TreeCompiler {
+
+    /**
+     * Gets the boolean value of a constant expression.
+     *
+     * @param expression Expression
+     * @return Boolean, or null if the expression is not constant
+     */
+    private static Boolean booleanConstant(final Expression expression) {
+        if (expression instanceof Constant) {
+            return Boolean.valueOf(InfoSetUtil.booleanValue(((Constant) expression).computeValue(null)));
+        }
+        if (isBooleanConstant(expression)) {
+            return Boolean.valueOf(((CoreFunction) expression).getFunctionCode() == Compiler.FUNCTION_TRUE);
+        }
+        return null;
+    }
+
+    /**
+     * Creates an expression for a constant value.
+     *
+     * @param value Boolean, Number or String
+     * @return Expression, or null for another type of value
+     */
+    private static Expression constant(final Object value) {
+        if (value instanceof Boolean) {
+            return newBoolean(((Boolean) value).booleanValue());
+        }
+        if (value instanceof Number) {
+            return new Constant((Number) value);
+        }
+        if (value instanceof String) {
+            return new Constant((String) value);
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates an operation whose arguments are all constants.
+     *
+     * @param operation Operation
+     * @return the constant result, or the operation if it cannot be evaluated at compile time
+     */
+    private static Object fold(final Operation operation) {
+        final Expression[] args = operation.getArguments();
+        if (args != null) {
+            for (final Expression arg : args) {
+                if (!(arg instanceof Constant) && !isBooleanConstant(arg)) {
+                    return operation;
+                }
+            }
+        }
+        final Object value;
+        try {
+            value = operation.computeValue(null);
+        } catch (final RuntimeException e) {
+            // Report the error when the expression is evaluated, as without optimization
+            return operation;
+        }
+        final Expression constant = constant(value);
+        return constant == null ? operation : constant;
+    }
+
+    /**
+     * Tests whether an expression is a call to true() or false().
+     *
+     * @param expression Expression
+     * @return boolean
+     */
+    private static boolean isBooleanConstant(final Expression expression) {
+        if (!(expression instanceof CoreFunction) || ((CoreFunction) expression).getArgumentCount() != 0) {
+            return false;
+        }
+        final int code = ((CoreFunction) expression).getFunctionCode();
+        return code == Compiler.FUNCTION_TRUE || code == Compiler.FUNCTION_FALSE;
+    }
+
+    /**
+     * Tests whether a core function depends on nothing but its arguments.
+     *
+     * @param code function code
+     * @return boolean
+     */
+    private static boolean isPure(final int code) {
+        switch (code) {
+        case Compiler.FUNCTION_STRING:
+        case Compiler.FUNCTION_CONCAT:
+        case Compiler.FUNCTION_STARTS_WITH:
+        case Compiler.FUNCTION_ENDS_WITH:
+        case Compiler.FUNCTION_CONTAINS:
+        case Compiler.FUNCTION_SUBSTRING_BEFORE:
+        case Compiler.FUNCTION_SUBSTRING_AFTER:
+        case Compiler.FUNCTION_SUBSTRING:
+        case Compiler.FUNCTION_STRING_LENGTH:
+        case Compiler.FUNCTION_NORMALIZE_SPACE:
+        case Compiler.FUNCTION_TRANSLATE:
+        case Compiler.FUNCTION_BOOLEAN:
+        case Compiler.FUNCTION_NOT:
+        case Compiler.FUNCTION_NUMBER:
+        case Compiler.FUNCTION_FLOOR:
+        case Compiler.FUNCTION_CEILING:
+        case Compiler.FUNCTION_ROUND:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Tests whether a step is {@code self::node()} without predicates.
+     *
+     * @param step Step
+     * @return boolean
+     */
+    private static boolean isSelfNode(final Step step) {
+        final Expression[] predicates = step.getPredicates();
+        return step.getAxis() == Compiler.AXIS_SELF && step.getNodeTest() instanceof NodeTypeTest
+                && ((NodeTypeTest) step.getNodeTest()).getNodeType() == Compiler.NODE_TYPE_NODE && (predicates == null || predicates.length == 0);
+    }
+
+    /**
+     * Creates a call to true() or false().
+     *
+     * @param value boolean
+     * @return Expression
+     */
+    private static Expression newBoolean(final boolean value) {
+        return new CoreFunction(value ? Compiler.FUNCTION_TRUE : Compiler.FUNCTION_FALSE, null);
+    }
+
+    /**
+     * Drops predicates that are constantly true, keeping at least one.
+     *
+     * @param predicates Expression[], may be null
+     * @return Expression[]
+     */
+    private static Expression[] removeDeadPredicates(final Expression[] predicates) {
+        if (predicates == null || predicates.length < 2) {
+            return predicates;
+        }
+        final List<Expression> live = new ArrayList<>(predicates.length);
+        for (final Expression predicate : predicates) {
+            // A constant number is a position, not a truth value
+            if (!(predicate instanceof Constant && ((Constant) predicate).isNumberValued()) && Boolean.TRUE.equals(booleanConstant(predicate))) {
+                continue;
+            }
+            live.add(predicate);
+        }
+        if (live.size() == predicates.length) {
+            return predicates;
+        }
+        return live.isEmpty() ? new Expression[] { predicates[0] } : live.toArray(new Expression[0]);
+    }
+
+    /**
+     * Simplifies the steps of a path.
+     *
+     * @param steps Step[], may be null
+     * @return Step[]
+     */
+    private static Step[] simplify(final Step[] steps) {
+        if (steps == null) {
+            return null;
+        }
+        final List<Step> result = new ArrayList<>(steps.length);
+        for (int i = 0; i < steps.length; i++) {
+            final Step step = steps[i];
+            if (i < steps.length - 1 && isSelfNode(step)) {
+                continue;
+            }
+            final Expression[] predicates = removeDeadPredicates(step.getPredicates());
+            result.add(predicates == step.getPredicates() ? step : new Step(step.getAxis(), step.getNodeTest(), predicates));
+        }
+        return result.toArray(new Step[0]);
+    }
+
+    /**
+     * Constructs a new instance.
+     */
+    public OptimizingTreeCompiler() {
+        // empty
+    }
+
+    @Override
+    public Object and(final Object[] arguments) {
+        return logical(arguments, false);
+    }
+
+    @Override
+    public Object divide(final Object left, final Object right) {
+        return fold((Operation) super.divide(left, right));
+    }
+
+    @Override
+    public Object equal(final Object left, final Object right) {
+        return fold((Operation) super.equal(left, right));
+    }
+
+    @Override
+    public Object expressionPath(final Object expression, final Object[] predicates, final Object[] steps) {
+        final ExpressionPath path = (ExpressionPath) super.expressionPath(expression, predicates, steps);
+        // The predicates are kept: an expression path applies the ones after the first differently from a step, so dropping one may change the result
+        return new ExpressionPath(path.getExpression(), path.getPredicates(), simplify(path.getSteps()));
+    }
+
+    @Override
+    public Object function(final int code, final Object[] args) {
+        final CoreFunction function = (CoreFunction) super.function(code, args);
+        return function.getArgumentCount() > 0 && isPure(code) ? fold(function) : function;
+    }
+
+    @Override
+    public Object greaterThan(final Object left, final Object right) {
+        return fold((Operation) super.greaterThan(left, right));
+    }
+
+    @Override
+    public Object greaterThanOrEqual(final Object left, final Object right) {
+        return fold((Operation) super.greaterThanOrEqual(left, right));
+    }
+
+    @Override
+    public Object lessThan(final Object left, final Object right) {
+        return fold((Operation) super.lessThan(left, right));
+    }
+
+    @Override
+    public Object lessThanOrEqual(final Object left, final Object right) {
+        return fold((Operation) super.lessThanOrEqual(left, right));
+    }
+
+    @Override
+    public Object locationPath(final boolean absolute, final Object[] steps) {
+        final LocationPath path = (LocationPath) super.locationPath(absolute, steps);
+        return new LocationPath(absolute, simplify(path.getSteps()));
+    }
+
+    /**
+     * Simplifies "and" or "or": arguments equal to the identity of the operation are dropped, and an argument equal to its absorbing value ends it.
+     *
+     * @param arguments Expression arguments
+     * @param or        whether the operation is "or"
+     * @return Expression
+     */
+    private Expression logical(final Object[] arguments, final boolean or) {
+        final List<Expression> args = new ArrayList<>(arguments.length);
+        for (final Object argument : arguments) {
+            final Expression arg = (Expression) argument;
+            final Boolean value = booleanConstant(arg);
+            if (value == null) {
+                args.add(arg);
+            } else if (value.booleanValue() == or) {
+                if (args.isEmpty()) {
+                    return newBoolean(or);
+                }
+                // The arguments before still run, as they would without optimization
+                args.add(newBoolean(or));
+                break;
+            }
+        }
+        if (args.isEmpty()) {
+            return newBoolean(!or);
+        }
+        if (args.size() == 1) {
+            final Expression arg = args.get(0);
+            return arg instanceof CoreOperationCompare || arg instanceof CoreOperationRelationalExpression ? arg
+                    : new CoreFunction(Compiler.FUNCTION_BOOLEAN, new Expression[] { arg });
+        }
+        final Expression[] array = args.toArray(new Expression[0]);
+        return or ? new CoreOperationOr(array) : new CoreOperationAnd(array);
+    }
+
+    @Override
+    public Object minus(final Object argument) {
+        return fold((Operation) super.minus(argument));
+    }
+
+    @Override
+    public Object minus(final Object left, final Object right) {
+        return fold((Operation) super.minus(left, right));
+    }
+
+    @Override
+    public Object mod(final Object left, final Object right) {
+        return fold((Operation) super.mod(left, right));
+    }
+
+    @Override
+    public Object multiply(final Object left, final Object right) {
+        return fold((Operation) super.multiply(left, right));
+    }
+
+    @Override
+    public Object notEqual(final Object left, final Object right) {
+        return fold((Operation) super.notEqual(left, right));
+    }
+
+    @Override
+    public Object or(final Object[] arguments) {
+        return logical(arguments, true);
+    }
+
+    @Override
+    public Object sum(final Object[] arguments) {
+        return fold((Operation) super.sum(arguments));
+    }
+
+    @Override
+    public Object union(final Object[] arguments) {
+        final List<Expression> args = new ArrayList<>(arguments.length);
+        for (final Object argument : arguments) {
+            if (argument instanceof CoreOperationUnion) {
+                for (final Expression arg : ((CoreOperationUnion) argument).getArguments()) {
+                    args.add(arg);
+                }
+            } else {
+                args.add((Expression) argument);
+            }
+        }
+        return super.union(args.toArray());
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.commons.jxpath.ri.compiler;
 
+import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.EvalContext;
@@ -40,9 +41,140 @@ import org.apache.commons.jxpath.ri.model.NodePointer;
  */
 public abstract class Path extends Expression {
 
+    /**
+     * Gets the name of the attribute selected by an expression if it is a path to an indexed attribute without namespace, as in "@number".
+     *
+     * @param expression to test
+     * @param context    declares the indexed attributes
+     * @return attribute name or null
+     */
+    private static String getIndexedAttribute(final Expression expression, final JXPathContext context) {
+        if (!(expression instanceof LocationPath) || ((LocationPath) expression).isAbsolute()) {
+            return null;
+        }
+        final Step[] steps = ((LocationPath) expression).getSteps();
+        if (steps.length != 1 || steps[0].getAxis() != Compiler.AXIS_ATTRIBUTE || steps[0].getPredicates() != null && steps[0].getPredicates().length != 0
+                || !(steps[0].getNodeTest() instanceof NodeNameTest)) {
+            return null;
+        }
+        final QName name = ((NodeNameTest) steps[0].getNodeTest()).getNodeName();
+        return name.getPrefix() == null && context.isAttributeIndexed(name.getName()) ? name.getName() : null;
+    }
+
+    /**
+     * Gets the first predicate of a step if it compares an indexed attribute with a literal or a variable, as in "[@number = $n]".
+     *
+     * @param step    to test
+     * @param context declares the indexed attributes
+     * @return the comparison or null
+     */
+    private static CoreOperationEqual getIndexedPredicate(final Step step, final JXPathContext context) {
+        final Expression[] predicates = step.getPredicates();
+        if (predicates == null || predicates.length == 0 || !(predicates[0] instanceof CoreOperationEqual) || !(step.getNodeTest() instanceof NodeNameTest)
+                || ((NodeNameTest) step.getNodeTest()).isWildcard()) {
+            return null;
+        }
+        final Expression[] arguments = ((CoreOperationEqual) predicates[0]).getArguments();
+        for (int i = 0; i < 2; i++) {
+            final Expression value = arguments[1 - i];
+            if (getIndexedAttribute(arguments[i], context) != null && (value instanceof Constant || value instanceof VariableReference)) {
+                return (CoreOperationEqual) predicates[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tests whether two steps are the abbreviation "//name", descendant-or-self::node()/child::name, whose predicates select the same nodes as they
+     * would following descendant::name.
+     *
+     * @param step1 first step
+     * @param step2 second step
+     * @return boolean
+     */
+    private static boolean isDescendantNameStep(final Step step1, final Step step2) {
+        if (step1.getAxis() != Compiler.AXIS_DESCENDANT_OR_SELF || step1.getPredicates() != null && step1.getPredicates().length != 0
+                || !(step1.getNodeTest() instanceof NodeTypeTest) || ((NodeTypeTest) step1.getNodeTest()).getNodeType() != Compiler.NODE_TYPE_NODE) {
+            return false;
+        }
+        if (step2.getAxis() != Compiler.AXIS_CHILD || !(step2.getNodeTest() instanceof NodeNameTest) || ((NodeNameTest) step2.getNodeTest()).isWildcard()) {
+            return false;
+        }
+        final Expression[] predicates = step2.getPredicates();
+        if (predicates != null) {
+            for (final Expression predicate : predicates) {
+                if (!isPositionIndependent(predicate)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether a predicate selects the same nodes whatever their positions: its value must be a boolean or a node set, not a number, and it must not
+     * call position(), last() or extension functions outside of nested paths.
+     *
+     * @param predicate to test
+     * @return boolean
+     */
+    private static boolean isPositionIndependent(final Expression predicate) {
+        if (predicate instanceof LocationPath) {
+            return true;
+        }
+        if (predicate instanceof CoreFunction) {
+            switch (((CoreFunction) predicate).getFunctionCode()) {
+            case Compiler.FUNCTION_BOOLEAN:
+            case Compiler.FUNCTION_NOT:
+            case Compiler.FUNCTION_TRUE:
+            case Compiler.FUNCTION_FALSE:
+            case Compiler.FUNCTION_STARTS_WITH:
+            case Compiler.FUNCTION_ENDS_WITH:
+            case Compiler.FUNCTION_CONTAINS:
+            case Compiler.FUNCTION_LANG:
+                return !usesPosition(predicate);
+            default:
+                return false;
+            }
+        }
+        return (predicate instanceof CoreOperationCompare || predicate instanceof CoreOperationRelationalExpression || predicate instanceof CoreOperationAnd
+                || predicate instanceof CoreOperationOr) && !usesPosition(predicate);
+    }
+
+    /**
+     * Tests whether an expression may depend on the position of the context node.
+     *
+     * @param expression to test
+     * @return boolean
+     */
+    private static boolean usesPosition(final Expression expression) {
+        if (expression instanceof ExtensionFunction) {
+            return true;
+        }
+        if (expression instanceof CoreFunction) {
+            final int code = ((CoreFunction) expression).getFunctionCode();
+            if (code == Compiler.FUNCTION_POSITION || code == Compiler.FUNCTION_LAST) {
+                return true;
+            }
+        }
+        if (expression instanceof Operation) {
+            final Expression[] arguments = ((Operation) expression).getArguments();
+            if (arguments != null) {
+                for (final Expression argument : arguments) {
+                    if (usesPosition(argument)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     private final Step[] steps;
-    private boolean basicKnown;
-    private boolean basic;
+    /**
+     * Cached {@link #isSimplePath()}, see {@link Expression#isContextDependent()}.
+     */
+    private byte basic;
 
     /**
      * Constructs a new Path.
@@ -95,8 +227,27 @@ public abstract class Path extends Expression {
         if (steps.length == 0) {
             return context;
         }
+        final JXPathContext jxpathContext = context.getJXPathContext();
+        final boolean indexed = jxpathContext.isElementNameIndexEnabled();
         for (int i = 0; i < stepCount; i++) {
-            context = createContextForStep(context, steps[i].getAxis(), steps[i].getNodeTest());
+            int axis = steps[i].getAxis();
+            if (i + 1 < stepCount && isDescendantNameStep(steps[i], steps[i + 1]) && (indexed || getIndexedPredicate(steps[i + 1], jxpathContext) != null)) {
+                // "//name" selects the nodes of descendant::name, which an index can answer
+                i++;
+                axis = Compiler.AXIS_DESCENDANT;
+            }
+            final CoreOperationEqual equal = axis == Compiler.AXIS_DESCENDANT || axis == Compiler.AXIS_DESCENDANT_OR_SELF
+                    ? getIndexedPredicate(steps[i], jxpathContext)
+                    : null;
+            if (equal != null) {
+                // The predicate still filters the nodes, which the index only narrows down
+                final Expression[] arguments = equal.getArguments();
+                final int attribute = getIndexedAttribute(arguments[0], jxpathContext) != null ? 0 : 1;
+                context = new DescendantContext(context, axis == Compiler.AXIS_DESCENDANT_OR_SELF, resolveNodeTest(context, steps[i].getNodeTest()),
+                        getIndexedAttribute(arguments[attribute], jxpathContext), arguments[1 - attribute]);
+            } else {
+                context = createContextForStep(context, axis, steps[i].getNodeTest());
+            }
             final Expression[] predicates = steps[i].getPredicates();
             if (predicates != null) {
                 for (int j = 0; j < predicates.length; j++) {
@@ -131,14 +282,7 @@ public abstract class Path extends Expression {
      * @return EvalContext
      */
     protected EvalContext createContextForStep(final EvalContext context, final int axis, NodeTest nodeTest) {
-        if (nodeTest instanceof NodeNameTest) {
-            final QName qname = ((NodeNameTest) nodeTest).getNodeName();
-            final String prefix = qname.getPrefix();
-            if (prefix != null) {
-                final String namespaceURI = context.getJXPathContext().getNamespaceURI(prefix);
-                nodeTest = new NodeNameTest(qname, namespaceURI);
-            }
-        }
+        nodeTest = resolveNodeTest(context, nodeTest);
         switch (axis) {
         case Compiler.AXIS_ANCESTOR:
             return new AncestorContext(context, false, nodeTest);
@@ -212,19 +356,20 @@ public abstract class Path extends Expression {
      *
      * @return {@code true} if this path is simple
      */
-    public synchronized boolean isSimplePath() {
-        if (!basicKnown) {
-            basicKnown = true;
-            basic = true;
+    public boolean isSimplePath() {
+        byte known = basic;
+        if (known == 0) {
+            known = KNOWN_TRUE;
             final Step[] steps = getSteps();
             for (final Step step : steps) {
                 if (!isSimpleStep(step)) {
-                    basic = false;
+                    known = KNOWN_FALSE;
                     break;
                 }
             }
+            basic = known;
         }
-        return basic;
+        return known == KNOWN_TRUE;
     }
 
     /**
@@ -259,6 +404,24 @@ public abstract class Path extends Expression {
         return false;
     }
 
+    /**
+     * Resolves the namespace prefix of a name test.
+     *
+     * @param context  evaluation context
+     * @param nodeTest node test
+     * @return a name test with the namespace URI of its prefix, or the node test
+     */
+    private NodeTest resolveNodeTest(final EvalContext context, final NodeTest nodeTest) {
+        if (nodeTest instanceof NodeNameTest) {
+            final QName qname = ((NodeNameTest) nodeTest).getNodeName();
+            final String prefix = qname.getPrefix();
+            if (prefix != null) {
+                return new NodeNameTest(qname, context.getJXPathContext().getNamespaceURI(prefix));
+            }
+        }
+        return nodeTest;
+    }
+
     /**
      * The idea here is to return a NullPointer rather than null if that's at all possible. Take for example this path: "//map/key". Let's say, "map" is an
      * existing node, but "key" is not there. We will create a NullPointer that can be used to set/create the "key" property.
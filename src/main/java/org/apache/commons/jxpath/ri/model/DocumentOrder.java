@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sorts node pointers in document order using precomputed keys. The key of a pointer lists the positions of the pointer and of its ancestors among their
+ * siblings, as reported by {@link NodePointer#getChildPosition(NodePointer, DocumentOrder)}, so that ordering two pointers compares two int arrays and
+ * allocates nothing.
+ * <p>
+ * Sibling positions are computed once per parent node and kept for the lifetime of the DocumentOrder, which serves a single sort. Keys are only comparable
+ * between pointers whose numbered ancestry starts at the same pointer; lists of other pointers are left to {@link NodePointer#compareTo(Object)}.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public final class DocumentOrder {
+
+    /**
+     * The document order key of a pointer in the list being sorted.
+     */
+    private static final class Keyed {
+
+        /**
+         * The position of the pointer in the list.
+         */
+        private final int position;
+
+        /**
+         * The pointer at which numbering stops: the root, or the first ancestor whose parent does not number its children.
+         */
+        private final NodePointer anchor;
+
+        /**
+         * Sibling positions from the anchor down to the pointer.
+         */
+        private final int[] key;
+
+        Keyed(final int position, final NodePointer anchor, final int[] key) {
+            this.position = position;
+            this.anchor = anchor;
+            this.key = key;
+        }
+    }
+
+    private static final Comparator<Keyed> ASCENDING = (k1, k2) -> compare(k1.key, k2.key);
+
+    private static final Comparator<Keyed> DESCENDING = ASCENDING.reversed();
+
+    /**
+     * Compares two keys; a key that is a prefix of another belongs to an ancestor and sorts first.
+     *
+     * @param key1 first key
+     * @param key2 second key
+     * @return negative, zero or positive
+     */
+    private static int compare(final int[] key1, final int[] key2) {
+        final int length = Math.min(key1.length, key2.length);
+        for (int i = 0; i < length; i++) {
+            if (key1[i] != key2[i]) {
+                return key1[i] < key2[i] ? -1 : 1;
+            }
+        }
+        return Integer.compare(key1.length, key2.length);
+    }
+
+    /**
+     * Puts the elements of a list in the order of their keys.
+     *
+     * @param <T>   element type
+     * @param list  to reorder
+     * @param keyed the keys of the elements, sorted
+     */
+    private static <T> void reorder(final List<T> list, final Keyed[] keyed) {
+        final List<T> elements = new ArrayList<>(list);
+        final ListIterator<T> it = list.listIterator();
+        for (final Keyed k : keyed) {
+            it.next();
+            it.set(elements.get(k.position));
+        }
+    }
+
+    /**
+     * Sorts a list of node pointers in document order if all of them have comparable keys.
+     *
+     * @param pointers list of {@link NodePointer}s, sorted in place
+     * @param reverse  whether to sort in reverse document order
+     * @return whether the list was sorted; {@code false} leaves it unchanged
+     */
+    public static boolean sort(final List<?> pointers, final boolean reverse) {
+        final int size = pointers.size();
+        if (size < 2) {
+            return true;
+        }
+        final DocumentOrder order = new DocumentOrder();
+        final Keyed[] keyed = new Keyed[size];
+        NodePointer anchor = null;
+        for (int i = 0; i < size; i++) {
+            final Object object = pointers.get(i);
+            if (!(object instanceof NodePointer)) {
+                return false;
+            }
+            final Keyed k = order.keyed((NodePointer) object, i);
+            if (anchor == null) {
+                anchor = k.anchor;
+            } else if (k.anchor != anchor && !anchor.equals(k.anchor)) {
+                return false;
+            }
+            keyed[i] = k;
+        }
+        Arrays.sort(keyed, reverse ? DESCENDING : ASCENDING);
+        reorder(pointers, keyed);
+        return true;
+    }
+
+    /**
+     * Sibling positions by parent node, then by child node.
+     */
+    private final Map<Object, Map<Object, Integer>> positions = new IdentityHashMap<>();
+
+    private DocumentOrder() {
+        // one instance per sort
+    }
+
+    /**
+     * Gets the position of a node among its parent's nodes, numbering all of them on first use.
+     *
+     * @param parent   the parent node
+     * @param child    the child node
+     * @param siblings lists the nodes of a parent in document order, attributes first
+     * @return position or -1 if the child is not listed
+     */
+    public int getPosition(final Object parent, final Object child, final Function<Object, List<?>> siblings) {
+        final Integer position = positions.computeIfAbsent(parent, p -> {
+            final List<?> nodes = siblings.apply(p);
+            final Map<Object, Integer> map = new IdentityHashMap<>(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                map.put(nodes.get(i), Integer.valueOf(i));
+            }
+            return map;
+        }).get(child);
+        return position == null ? -1 : position.intValue();
+    }
+
+    /**
+     * Computes the key of a pointer.
+     *
+     * @param pointer to key
+     * @param index   of the pointer in the list being sorted
+     * @return Keyed
+     */
+    private Keyed keyed(final NodePointer pointer, final int index) {
+        int[] path = new int[8];
+        int depth = 0;
+        NodePointer current = pointer;
+        while (current.parent != null) {
+            final int position = current.parent.getChildPosition(current, this);
+            if (position < 0) {
+                break;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = position;
+            current = current.parent;
+        }
+        final int[] key = new int[depth];
+        for (int i = 0; i < depth; i++) {
+            key[i] = path[depth - 1 - i];
+        }
+        return new Keyed(index, current, key);
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
+
+/**
+ * An index of the elements of a document by local name, used to answer descendant name tests without walking the tree. Elements are numbered in document
+ * order and the index keeps the sorted numbers of the elements of each local name, so the descendants of an element that have a given local name are a
+ * contiguous run of one array.
+ * <p>
+ * The index also maps the values of an attribute to the sorted numbers of the elements that have them, for the attribute names it is asked about. These
+ * tables are built on first use.
+ * </p>
+ * <p>
+ * An index can be shared between threads: only its attribute tables are added after it is built, in a concurrent map. It describes the document as it was
+ * when built: models keep it with their document and drop it when JXPath modifies the document, but changes made to the document by other means are not
+ * tracked.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public final class ElementNameIndex {
+
+    /**
+     * Iterates the indexed descendants of a pointer that pass a name test. Pointers are created for the matching elements only, with parent pointers for
+     * their ancestors down from the base pointer; the ancestors are kept by depth and shared by consecutive matches.
+     */
+    private final class DescendantIterator implements NodeIterator {
+
+        private final NodePointer base;
+        private final int baseNumber;
+        private final NodeNameTest nodeTest;
+        private final BiFunction<NodePointer, Object, NodePointer> pointerFactory;
+        private final int[] numbers;
+        private final int from;
+        private final int to;
+
+        /**
+         * Numbers of the ancestors with pointers, by depth below the base.
+         */
+        private int[] ancestors = new int[16];
+
+        /**
+         * Pointers of the ancestors, by depth below the base.
+         */
+        private NodePointer[] ancestorPointers = new NodePointer[16];
+
+        /**
+         * Numbers of the elements whose pointers {@link #getPointer(int)} is about to create, from the bottom up.
+         */
+        private int[] pending = new int[16];
+        private int cursor;
+        private NodePointer current;
+        private int position;
+
+        DescendantIterator(final NodePointer base, final int baseNumber, final NodeNameTest nodeTest,
+                final BiFunction<NodePointer, Object, NodePointer> pointerFactory, final int[] numbers, final int from, final int to) {
+            this.base = base;
+            this.baseNumber = baseNumber;
+            this.nodeTest = nodeTest;
+            this.pointerFactory = pointerFactory;
+            this.numbers = numbers;
+            this.from = from;
+            this.to = to;
+            Arrays.fill(ancestors, -1);
+            rewind();
+        }
+
+        @Override
+        public NodePointer getNodePointer() {
+            if (position == 0) {
+                setPosition(1);
+            }
+            return current;
+        }
+
+        /**
+         * Gets the depth of an element below the base.
+         *
+         * @param number element number
+         * @return int
+         */
+        private int getLevel(final int number) {
+            return depths[number] - (baseNumber < 0 ? -1 : depths[baseNumber]);
+        }
+
+        /**
+         * Gets the pointer of an element, creating the pointers of its ancestors as needed. Ancestors are walked up with a loop, so that deep documents do
+         * not exhaust the stack.
+         *
+         * @param number element number
+         * @return NodePointer
+         */
+        private NodePointer getPointer(final int number) {
+            int size = 0;
+            int n = number;
+            NodePointer pointer;
+            while (true) {
+                if (n == baseNumber) {
+                    pointer = base;
+                    break;
+                }
+                final int level = getLevel(n);
+                if (level < ancestors.length && ancestors[level] == n) {
+                    pointer = ancestorPointers[level];
+                    break;
+                }
+                if (size == pending.length) {
+                    pending = Arrays.copyOf(pending, size * 2);
+                }
+                pending[size++] = n;
+                n = parents[n];
+            }
+            while (size > 0) {
+                n = pending[--size];
+                pointer = pointerFactory.apply(pointer, elements[n]);
+                final int level = getLevel(n);
+                if (level >= ancestors.length) {
+                    final int length = ancestors.length;
+                    ancestors = Arrays.copyOf(ancestors, Math.max(level + 1, length * 2));
+                    Arrays.fill(ancestors, length, ancestors.length, -1);
+                    ancestorPointers = Arrays.copyOf(ancestorPointers, ancestors.length);
+                }
+                ancestors[level] = n;
+                ancestorPointers[level] = pointer;
+            }
+            return pointer;
+        }
+
+        @Override
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Moves to the next matching element.
+         *
+         * @return whether there is one
+         */
+        private boolean next() {
+            position++;
+            while (cursor < to) {
+                final NodePointer pointer = getPointer(numbers[cursor++]);
+                if (pointer.testNode(nodeTest)) {
+                    current = pointer;
+                    return true;
+                }
+            }
+            current = null;
+            return false;
+        }
+
+        private void rewind() {
+            position = 0;
+            current = null;
+            cursor = from;
+        }
+
+        @Override
+        public boolean setPosition(final int position) {
+            if (position < this.position) {
+                rewind();
+            }
+            while (this.position < position) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Holds the index of one document. A model keeps one holder with its document for good and remembers it in its pointers, so that they read the index
+     * without locking; the holder is only locked to build the index.
+     */
+    public static final class Holder {
+
+        private volatile ElementNameIndex index;
+
+        /**
+         * Drops the index before the document is modified.
+         */
+        public void clear() {
+            index = null;
+        }
+
+        /**
+         * Gets the index, building it on first use.
+         *
+         * @param builder builds the index
+         * @return ElementNameIndex
+         */
+        public ElementNameIndex get(final Supplier<ElementNameIndex> builder) {
+            ElementNameIndex current = index;
+            if (current == null) {
+                synchronized (this) {
+                    current = index;
+                    if (current == null) {
+                        current = builder.get();
+                        index = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+
+    private static final int[] EMPTY = {};
+
+    /**
+     * Groups element numbers by key.
+     *
+     * @param keys  key by element number, null for elements to leave out
+     * @param count number of elements
+     * @return sorted element numbers by key
+     */
+    private static Map<String, int[]> group(final String[] keys, final int count) {
+        final Map<String, int[]> sizes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (keys[i] != null) {
+                sizes.computeIfAbsent(keys[i], k -> new int[1])[0]++;
+            }
+        }
+        final Map<String, int[]> groups = new HashMap<>(sizes.size() * 2);
+        sizes.forEach((key, size) -> groups.put(key, new int[size[0]]));
+        // Filling backwards leaves each array sorted
+        for (int i = count; --i >= 0;) {
+            if (keys[i] != null) {
+                groups.get(keys[i])[--sizes.get(keys[i])[0]] = i;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Finds the first value of a sorted array that is greater than a key.
+     *
+     * @param values sorted values
+     * @param key    the key
+     * @return index of the value, or the length of the array
+     */
+    private static int indexAfter(final int[] values, final int key) {
+        final int index = Arrays.binarySearch(values, key);
+        return index < 0 ? -index - 1 : index + 1;
+    }
+
+    private final Object root;
+
+    /**
+     * Elements by number.
+     */
+    private Object[] elements = new Object[64];
+
+    /**
+     * Number of the parent element of each element, -1 for children of the root.
+     */
+    private int[] parents = new int[64];
+
+    /**
+     * Depth of each element, 0 for children of the root.
+     */
+    private int[] depths = new int[64];
+
+    /**
+     * Number following the subtree of each element.
+     */
+    private int[] ends = new int[64];
+    private int count;
+
+    /**
+     * Element numbers by element.
+     */
+    private final Map<Object, Integer> numbers = new IdentityHashMap<>();
+
+    /**
+     * Sorted element numbers by local name.
+     */
+    private final Map<String, int[]> names;
+
+    /**
+     * Gets the value of an attribute without namespace of an element.
+     */
+    private final BiFunction<Object, String, String> attributeValue;
+
+    /**
+     * Sorted element numbers by attribute value, by attribute name.
+     */
+    private final Map<String, Map<String, int[]>> attributes = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the index of a document.
+     *
+     * @param root           the document, or the root of a tree of elements
+     * @param children       lists the child nodes of the root or of an element in document order
+     * @param localName      gets the local name of a node that is an element, or null for other nodes
+     * @param attributeValue gets the value of the attribute without namespace of an element that has the given name, or null if there is none
+     */
+    public ElementNameIndex(final Object root, final Function<Object, List<?>> children, final Function<Object, String> localName,
+            final BiFunction<Object, String, String> attributeValue) {
+        this.root = root;
+        this.attributeValue = attributeValue;
+        final String[] elementNames = index(root, children, localName, new String[64]);
+        elements = Arrays.copyOf(elements, count);
+        parents = Arrays.copyOf(parents, count);
+        depths = Arrays.copyOf(depths, count);
+        ends = Arrays.copyOf(ends, count);
+        names = group(elementNames, count);
+    }
+
+    /**
+     * Returns a NodeIterator over the elements below a pointer that pass a name test, in document order.
+     *
+     * @param pointer        points to the root or to an element of this index
+     * @param test           a name test that is not a wildcard
+     * @param pointerFactory creates the pointer of an element given the pointer of its parent
+     * @return NodeIterator, or null if the node of the pointer is not in this index
+     */
+    public NodeIterator descendantIterator(final NodePointer pointer, final NodeNameTest test,
+            final BiFunction<NodePointer, Object, NodePointer> pointerFactory) {
+        return descendantIterator(pointer, test, names.getOrDefault(test.getNodeName().getName(), EMPTY), pointerFactory);
+    }
+
+    /**
+     * Returns a NodeIterator over the elements below a pointer that pass a name test and have an attribute without namespace with the given value, in
+     * document order.
+     *
+     * @param pointer        points to the root or to an element of this index
+     * @param test           a name test that is not a wildcard
+     * @param attributeName  local name of the attribute
+     * @param value          value of the attribute
+     * @param pointerFactory creates the pointer of an element given the pointer of its parent
+     * @return NodeIterator, or null if the node of the pointer is not in this index
+     */
+    public NodeIterator descendantIterator(final NodePointer pointer, final NodeNameTest test, final String attributeName, final String value,
+            final BiFunction<NodePointer, Object, NodePointer> pointerFactory) {
+        return descendantIterator(pointer, test, getAttributeTable(attributeName).getOrDefault(value, EMPTY), pointerFactory);
+    }
+
+    /**
+     * Returns a NodeIterator over the elements below a pointer that are listed in an array and pass a name test.
+     *
+     * @param pointer        points to the root or to an element of this index
+     * @param test           a name test
+     * @param candidates     sorted element numbers
+     * @param pointerFactory creates the pointer of an element given the pointer of its parent
+     * @return NodeIterator, or null if the node of the pointer is not in this index
+     */
+    private NodeIterator descendantIterator(final NodePointer pointer, final NodeNameTest test, final int[] candidates,
+            final BiFunction<NodePointer, Object, NodePointer> pointerFactory) {
+        final Object node = pointer.getNode();
+        final int number;
+        final int end;
+        if (node == root) {
+            number = -1;
+            end = count;
+        } else {
+            final Integer n = numbers.get(node);
+            if (n == null) {
+                return null;
+            }
+            number = n.intValue();
+            end = ends[number];
+        }
+        // Descendants of the node are numbered from number + 1 to end - 1
+        return new DescendantIterator(pointer, number, test, pointerFactory, candidates, indexAfter(candidates, number), indexAfter(candidates, end - 1));
+    }
+
+    /**
+     * Gets the element numbers by value of an attribute without namespace, building the table on first use.
+     *
+     * @param attributeName local name of the attribute
+     * @return sorted element numbers by attribute value
+     */
+    private Map<String, int[]> getAttributeTable(final String attributeName) {
+        return attributes.computeIfAbsent(attributeName, name -> {
+            final String[] keys = new String[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = attributeValue.apply(elements[i], name);
+            }
+            return group(keys, count);
+        });
+    }
+
+    /**
+     * Gets the first element in document order that has an attribute without namespace with the given value.
+     *
+     * @param attributeName local name of the attribute
+     * @param value         value of the attribute
+     * @return element node or null
+     */
+    public Object getElement(final String attributeName, final String value) {
+        final int[] candidates = getAttributeTable(attributeName).get(value);
+        return candidates == null ? null : elements[candidates[0]];
+    }
+
+    /**
+     * Gets the number of elements in this index.
+     *
+     * @return int
+     */
+    public int getElementCount() {
+        return count;
+    }
+
+    /**
+     * Numbers the elements below the root in document order. The tree is walked with an explicit stack of child iterators, so that deep documents do not
+     * exhaust the call stack.
+     *
+     * @param root         the document, or the root of a tree of elements
+     * @param children     lists the children of a node
+     * @param localName    gets the local name of an element
+     * @param elementNames local names by element number
+     * @return elementNames, reallocated if it grew
+     */
+    private String[] index(final Object root, final Function<Object, List<?>> children, final Function<Object, String> localName,
+            String[] elementNames) {
+        final Deque<Iterator<?>> stack = new ArrayDeque<>();
+        stack.push(children.apply(root).iterator());
+        // Number of the element whose children are on top of the stack, -1 for the root
+        int parent = -1;
+        while (!stack.isEmpty()) {
+            final Iterator<?> it = stack.peek();
+            if (!it.hasNext()) {
+                stack.pop();
+                if (parent >= 0) {
+                    ends[parent] = count;
+                    parent = parents[parent];
+                }
+                continue;
+            }
+            final Object child = it.next();
+            final String name = localName.apply(child);
+            if (name == null) {
+                continue;
+            }
+            final int number = count++;
+            if (number == elements.length) {
+                final int length = number * 2;
+                elements = Arrays.copyOf(elements, length);
+                parents = Arrays.copyOf(parents, length);
+                depths = Arrays.copyOf(depths, length);
+                ends = Arrays.copyOf(ends, length);
+                elementNames = Arrays.copyOf(elementNames, length);
+            }
+            elements[number] = child;
+            parents[number] = parent;
+            depths[number] = stack.size() - 1;
+            elementNames[number] = name;
+            numbers.put(child, Integer.valueOf(number));
+            stack.push(children.apply(child).iterator());
+            parent = number;
+        }
+        return elementNames;
+    }
+}
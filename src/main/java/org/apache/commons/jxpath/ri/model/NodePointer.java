@@ -18,12 +18,15 @@
 package org.apache.commons.jxpath.ri.model;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 
 import org.apache.commons.jxpath.AbstractFactory;
 import org.apache.commons.jxpath.ExceptionHandler;
+import org.apache.commons.jxpath.JXPathBeanInfo;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.JXPathIntrospector;
 import org.apache.commons.jxpath.JXPathNotFoundException;
 import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.Pointer;
@@ -34,6 +37,7 @@ import org.apache.commons.jxpath.ri.QName;
 import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
+import org.apache.commons.jxpath.ri.model.beans.BeanPointerFactory;
 import org.apache.commons.jxpath.ri.model.beans.NullPointer;
 
 /**
@@ -42,6 +46,127 @@ import org.apache.commons.jxpath.ri.model.beans.NullPointer;
  */
 public abstract class NodePointer implements Pointer {
 
+    /**
+     * Remembers, for each class of object, the position of the first NodePointerFactory that created a pointer for an object of that class, so that later
+     * objects of the class are dispatched to that factory directly. Bound to one array of factories: adding or removing a factory creates a new array and
+     * thereby a new Dispatch.
+     */
+    private static final class Dispatch extends ClassValue<Dispatch.Choice> {
+
+        /**
+         * The factory chosen for a class.
+         */
+        private static final class Choice {
+
+            /**
+             * Position of the factory, or -1 if none has been chosen yet.
+             */
+            private volatile int position = -1;
+
+            /**
+             * The bean info of the class when a {@link BeanPointerFactory} was chosen, or null. The factories before it, like the
+             * {@link org.apache.commons.jxpath.ri.model.dynamic.DynamicPointerFactory}, decide on the bean info, which
+             * {@link JXPathIntrospector#registerDynamicClass(Class, Class)} may replace.
+             */
+            private volatile JXPathBeanInfo beanInfo;
+        }
+
+        private final NodePointerFactory[] factories;
+
+        Dispatch(final NodePointerFactory[] factories) {
+            this.factories = factories;
+        }
+
+        /**
+         * Remembers the factory that created a pointer.
+         *
+         * @param choice   for the class
+         * @param position of the factory
+         * @param type     the class
+         */
+        private void choose(final Choice choice, final int position, final Class<?> type) {
+            choice.beanInfo = factories[position] instanceof BeanPointerFactory ? JXPathIntrospector.getBeanInfo(type) : null;
+            choice.position = position;
+        }
+
+        @Override
+        protected Choice computeValue(final Class<?> type) {
+            return new Choice();
+        }
+
+        /**
+         * Creates a child pointer with the remembered factory, or else with the first factory that can.
+         *
+         * @param parent pointer
+         * @param qName  QName
+         * @param bean   Object
+         * @return NodePointer or null
+         */
+        NodePointer createNodePointer(final NodePointer parent, final QName qName, final Object bean) {
+            final Choice choice = bean == null ? null : get(bean.getClass());
+            final int position = getPosition(choice, bean);
+            if (position >= 0) {
+                final NodePointer pointer = factories[position].createNodePointer(parent, qName, bean);
+                if (pointer != null) {
+                    return pointer;
+                }
+            }
+            for (int i = 0; i < factories.length; i++) {
+                final NodePointer pointer = factories[i].createNodePointer(parent, qName, bean);
+                if (pointer != null) {
+                    if (choice != null) {
+                        choose(choice, i, bean.getClass());
+                    }
+                    return pointer;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Creates a root pointer with the remembered factory, or else with the first factory that can.
+         *
+         * @param qName  QName
+         * @param bean   Object, not null
+         * @param locale Locale
+         * @return NodePointer or null
+         */
+        NodePointer createNodePointer(final QName qName, final Object bean, final Locale locale) {
+            final Choice choice = get(bean.getClass());
+            final int position = getPosition(choice, bean);
+            if (position >= 0) {
+                final NodePointer pointer = factories[position].createNodePointer(qName, bean, locale);
+                if (pointer != null) {
+                    return pointer;
+                }
+            }
+            for (int i = 0; i < factories.length; i++) {
+                final NodePointer pointer = factories[i].createNodePointer(qName, bean, locale);
+                if (pointer != null) {
+                    choose(choice, i, bean.getClass());
+                    return pointer;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the position of the remembered factory, unless the bean info it was chosen for has been replaced since.
+         *
+         * @param choice for the class of the bean, or null
+         * @param bean   Object
+         * @return position or -1
+         */
+        private int getPosition(final Choice choice, final Object bean) {
+            if (choice == null) {
+                return -1;
+            }
+            final int position = choice.position;
+            final JXPathBeanInfo beanInfo = choice.beanInfo;
+            return beanInfo == null || beanInfo == JXPathIntrospector.getBeanInfo(bean.getClass()) ? position : -1;
+        }
+    }
+
     /** Serialization version */
     private static final long serialVersionUID = 8117201322861007777L;
 
@@ -52,7 +177,28 @@ public abstract class NodePointer implements Pointer {
     public static final String UNKNOWN_NAMESPACE = "<<unknown namespace>>";
 
     /**
-     * Allocates an new child NodePointer by iterating through all installed NodePointerFactories until it finds one that can create a pointer.
+     * Factory dispatch for the current array of NodePointerFactories.
+     */
+    private static volatile Dispatch dispatch;
+
+    /**
+     * Gets the factory dispatch for the installed NodePointerFactories, replacing it when they have changed.
+     *
+     * @return Dispatch
+     */
+    private static Dispatch getDispatch() {
+        final NodePointerFactory[] factories = JXPathContextReferenceImpl.getNodePointerFactories();
+        Dispatch current = dispatch;
+        if (current == null || current.factories != factories) {
+            current = new Dispatch(factories);
+            dispatch = current;
+        }
+        return current;
+    }
+
+    /**
+     * Allocates an new child NodePointer by iterating through all installed NodePointerFactories until it finds one that can create a pointer. The factory is
+     * remembered for the class of the bean and asked first for later beans of that class.
      *
      * @param parent pointer
      * @param qName   QName
@@ -60,18 +206,16 @@ public abstract class NodePointer implements Pointer {
      * @return NodePointer
      */
     public static NodePointer newChildNodePointer(final NodePointer parent, final QName qName, final Object bean) {
-        final NodePointerFactory[] factories = JXPathContextReferenceImpl.getNodePointerFactories();
-        for (final NodePointerFactory element : factories) {
-            final NodePointer pointer = element.createNodePointer(parent, qName, bean);
-            if (pointer != null) {
-                return pointer;
-            }
+        final NodePointer pointer = getDispatch().createNodePointer(parent, qName, bean);
+        if (pointer != null) {
+            return pointer;
         }
         throw new JXPathException("Could not allocate a NodePointer for object of " + bean.getClass());
     }
 
     /**
-     * Allocates an entirely new NodePointer by iterating through all installed NodePointerFactories until it finds one that can create a pointer.
+     * Allocates an entirely new NodePointer by iterating through all installed NodePointerFactories until it finds one that can create a pointer. The factory
+     * is remembered for the class of the bean and asked first for later beans of that class.
      *
      * @param qName   QName
      * @param bean   Object
@@ -79,17 +223,12 @@ public abstract class NodePointer implements Pointer {
      * @return NodePointer
      */
     public static NodePointer newNodePointer(final QName qName, final Object bean, final Locale locale) {
-        NodePointer pointer;
         if (bean == null) {
-            pointer = new NullPointer(qName, locale);
-            return pointer;
+            return new NullPointer(qName, locale);
         }
-        final NodePointerFactory[] factories = JXPathContextReferenceImpl.getNodePointerFactories();
-        for (final NodePointerFactory element : factories) {
-            pointer = element.createNodePointer(qName, bean, locale);
-            if (pointer != null) {
-                return pointer;
-            }
+        final NodePointer pointer = getDispatch().createNodePointer(qName, bean, locale);
+        if (pointer != null) {
+            return pointer;
         }
         throw new JXPathException("Could not allocate a NodePointer for object of " + bean.getClass());
     }
@@ -397,6 +536,19 @@ public abstract class NodePointer implements Pointer {
         return this;
     }
 
+    /**
+     * Returns a NodeIterator over the descendants of this node that pass the given test, in document order, for models that can enumerate descendants without
+     * walking child iterators. Returns null otherwise, which is the default for models other than containers of such models.
+     *
+     * @param test NodeTest to filter descendants
+     * @return NodeIterator or null
+     * @since 1.4.1
+     */
+    public NodeIterator descendantIterator(final NodeTest test) {
+        final NodePointer valuePointer = getValuePointer();
+        return valuePointer == null || valuePointer == this ? null : valuePointer.descendantIterator(test);
+    }
+
     /**
      * Return a string escaping single and double quotes.
      *
@@ -454,6 +606,19 @@ public abstract class NodePointer implements Pointer {
      */
     public abstract Object getBaseValue();
 
+    /**
+     * Gets the position of a child of this node in document order, for {@link DocumentOrder} keys. Positions must order children the same way as
+     * {@link #compareChildNodePointers(NodePointer, NodePointer)}.
+     *
+     * @param child a pointer whose parent is this pointer
+     * @param order the sort in progress, which caches positions
+     * @return position, or -1 if this pointer does not number its children
+     * @since 1.4.1
+     */
+    protected int getChildPosition(final NodePointer child, final DocumentOrder order) {
+        return -1;
+    }
+
     /**
      * Gets the default ns uri
      *
@@ -613,6 +778,19 @@ public abstract class NodePointer implements Pointer {
         return context.getPointerByID(id);
     }
 
+    /**
+     * Locates an element by the value of one of the attributes named by {@link JXPathContext#getIDAttributeNames()}. Models of indexable documents override
+     * this method; the default does not support it.
+     *
+     * @param context JXPathContext owning context
+     * @param id      String id
+     * @return Pointer found, a null pointer if there is no such element, or null if this model does not look up ID attributes
+     * @since 1.4.1
+     */
+    public Pointer getPointerByIDAttribute(final JXPathContext context, final String id) {
+        return null;
+    }
+
     /**
      * Locates a node by key and value.
      *
@@ -631,11 +809,14 @@ public abstract class NodePointer implements Pointer {
      * @return Object value of this pointer's root (top parent).
      */
     @Override
-    public synchronized Object getRootNode() {
-        if (rootNode == null) {
-            rootNode = parent == null ? getImmediateNode() : parent.getRootNode();
+    public Object getRootNode() {
+        // Racing threads find the same node
+        Object root = rootNode;
+        if (root == null) {
+            root = parent == null ? getImmediateNode() : parent.getRootNode();
+            rootNode = root;
         }
-        return rootNode;
+        return root;
     }
 
     /**
@@ -695,6 +876,36 @@ public abstract class NodePointer implements Pointer {
         }
     }
 
+    /**
+     * Returns a NodeIterator over the descendant elements of this node that pass the given name test, in document order, looked up in an
+     * {@link ElementNameIndex} of the document. The index is built on first use and dropped when JXPath modifies the document. Returns null for models
+     * without such an index, which is the default for models other than containers of such models.
+     *
+     * @param test NodeNameTest that is not a wildcard
+     * @return NodeIterator or null
+     * @since 1.4.1
+     */
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test) {
+        final NodePointer valuePointer = getValuePointer();
+        return valuePointer == null || valuePointer == this ? null : valuePointer.indexedDescendantIterator(test);
+    }
+
+    /**
+     * Returns a NodeIterator over the descendant elements of this node that pass the given name test and have an attribute without namespace with the
+     * given value, in document order, looked up in an {@link ElementNameIndex} of the document. Returns null for models without such an index, which is the
+     * default for models other than containers of such models.
+     *
+     * @param test          NodeNameTest that is not a wildcard
+     * @param attributeName local name of the attribute
+     * @param value         value of the attribute
+     * @return NodeIterator or null
+     * @since 1.4.1
+     */
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test, final String attributeName, final String value) {
+        final NodePointer valuePointer = getValuePointer();
+        return valuePointer == null || valuePointer == this ? null : valuePointer.indexedDescendantIterator(test, attributeName, value);
+    }
+
     /**
      * An actual pointer points to an existing part of an object graph, even if it is null. A non-actual pointer represents a part that does not exist at all.
      * For instance consider the pointer "/address/street". If both <em>address</em> and <em>street</em> are not null, the pointer is actual. If
@@ -800,6 +1011,29 @@ public abstract class NodePointer implements Pointer {
         return parent == null;
     }
 
+    /**
+     * Tests whether this pointer and the specified one point to children of the same node, or elements of the same collection, that
+     * {@link #removeSiblings(List)} can remove together.
+     *
+     * @param pointer another pointer
+     * @return boolean
+     * @since 1.4.1
+     */
+    public boolean isSiblingOf(final NodePointer pointer) {
+        return false;
+    }
+
+    /**
+     * Tests whether this pointer keeps pointing to its node after other nodes of the same document are removed. Pointers that locate their node by position,
+     * or cache the collection holding it, are not stable and are located again from their path before being removed in bulk.
+     *
+     * @return boolean
+     * @since 1.4.1
+     */
+    public boolean isStableOnRemove() {
+        return false;
+    }
+
     /**
      * Returns a NodeIterator that iterates over all namespaces of the value currently pointed at. May return null if the object does not support the
      * namespaces.
@@ -821,6 +1055,19 @@ public abstract class NodePointer implements Pointer {
         return null;
     }
 
+    /**
+     * Returns a NodeIterator over the nodes that precede or follow this node and pass the given test, in reverse document order for the preceding axis and in
+     * document order for the following axis, for models that can enumerate them without walking child iterators. Returns null otherwise, which is the default.
+     *
+     * @param test    NodeTest to filter nodes
+     * @param reverse true for the preceding axis, false for the following axis
+     * @return NodeIterator or null
+     * @since 1.4.1
+     */
+    public NodeIterator precedingOrFollowingIterator(final NodeTest test, final boolean reverse) {
+        return null;
+    }
+
     /**
      * Print internal structure of a pointer for debugging
      */
@@ -837,6 +1084,20 @@ public abstract class NodePointer implements Pointer {
 //        printPointerChain();
     }
 
+    /**
+     * Removes the nodes of this pointer and of its siblings in one operation. The default implementation removes them one by one.
+     *
+     * @param siblings this pointer followed by pointers for which {@link #isSiblingOf(NodePointer)} is true, in reverse document order
+     * @return the number of nodes removed
+     * @since 1.4.1
+     */
+    public int removeSiblings(final List<NodePointer> siblings) {
+        for (final NodePointer sibling : siblings) {
+            sibling.remove();
+        }
+        return siblings.size();
+    }
+
     /**
      * Sets to true if the pointer represents the "attribute::" axis.
      *
@@ -24,6 +24,12 @@ import org.apache.commons.jxpath.ri.QName;
 /**
  * Creates NodePointers for objects of a certain type. NodePointerFactories are ordered according to the values returned by the "getOrder" method and always
  * queried in that order.
+ * <p>
+ * Once a factory has created a pointer for an object, it is asked first for later objects of the same class, and the factories before it are only queried if
+ * it returns null. A factory should therefore accept or decline objects based on their class alone, or else be followed by no factory that accepts objects
+ * of the classes it sometimes declines. The built-in factories also decide on the {@link org.apache.commons.jxpath.JXPathBeanInfo} of the class; all
+ * factories are queried again for a class whose bean info {@link org.apache.commons.jxpath.JXPathIntrospector} has replaced.
+ * </p>
  */
 public interface NodePointerFactory {
 
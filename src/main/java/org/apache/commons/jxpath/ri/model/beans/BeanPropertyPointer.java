@@ -19,11 +19,14 @@ package org.apache.commons.jxpath.ri.model.beans;
 
 import java.beans.IndexedPropertyDescriptor;
 import java.beans.PropertyDescriptor;
+import java.util.List;
 
+import org.apache.commons.jxpath.JXPathBasicBeanInfo;
 import org.apache.commons.jxpath.JXPathBeanInfo;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.JXPathInvalidAccessException;
 import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.util.PropertyAccessor;
 import org.apache.commons.jxpath.util.ValueUtils;
 
 /**
@@ -67,7 +70,7 @@ public class BeanPropertyPointer extends PropertyPointer {
     /**
      * All PropertyDescriptors.
      */
-    private transient PropertyDescriptor[] propertyDescriptors;
+    private transient volatile PropertyDescriptor[] propertyDescriptors;
 
     /**
      * The property descriptor corresponding to the current property index.
@@ -107,7 +110,8 @@ public class BeanPropertyPointer extends PropertyPointer {
             if (pd == null) {
                 return null;
             }
-            baseValue = ValueUtils.getValue(getBean(), pd);
+            final PropertyAccessor accessor = getPropertyAccessor(pd);
+            baseValue = accessor != null ? accessor.getValue(getBean()) : ValueUtils.getValue(getBean(), pd);
         }
         return baseValue;
     }
@@ -128,7 +132,8 @@ public class BeanPropertyPointer extends PropertyPointer {
                 if (pd == null) {
                     value = null;
                 } else {
-                    value = ValueUtils.getValue(getBean(), pd, index);
+                    final PropertyAccessor accessor = getPropertyAccessor(pd);
+                    value = accessor != null ? accessor.getValue(getBean(), index) : ValueUtils.getValue(getBean(), pd, index);
                 }
             }
         }
@@ -147,7 +152,8 @@ public class BeanPropertyPointer extends PropertyPointer {
             return 1;
         }
         if (pd instanceof IndexedPropertyDescriptor) {
-            return ValueUtils.getIndexedPropertyLength(getBean(), (IndexedPropertyDescriptor) pd);
+            final PropertyAccessor accessor = getPropertyAccessor(pd);
+            return accessor != null ? accessor.getLength(getBean()) : ValueUtils.getIndexedPropertyLength(getBean(), (IndexedPropertyDescriptor) pd);
         }
         final int hint = ValueUtils.getCollectionHint(pd.getPropertyType());
         if (hint == -1) {
@@ -161,9 +167,22 @@ public class BeanPropertyPointer extends PropertyPointer {
         if (beanInfo.isAtomic()) {
             return 0;
         }
+        if (beanInfo instanceof JXPathBasicBeanInfo) {
+            return ((JXPathBasicBeanInfo) beanInfo).getPropertyCount();
+        }
         return getPropertyDescriptors().length;
     }
 
+    /**
+     * Gets the accessor that the bean info caches for a property, which saves looking up the bean info of the bean's class on every access.
+     *
+     * @param pd one of the bean info's property descriptors
+     * @return PropertyAccessor or {@code null} to access the property through {@link ValueUtils}
+     */
+    private PropertyAccessor getPropertyAccessor(final PropertyDescriptor pd) {
+        return beanInfo instanceof JXPathBasicBeanInfo && getBean() != null ? ((JXPathBasicBeanInfo) beanInfo).getPropertyAccessor(pd) : null;
+    }
+
     /**
      * Gets the property descriptor corresponding to the current property index.
      *
@@ -174,6 +193,9 @@ public class BeanPropertyPointer extends PropertyPointer {
             final int inx = getPropertyIndex();
             if (inx == UNSPECIFIED_PROPERTY) {
                 propertyDescriptor = beanInfo.getPropertyDescriptor(propertyName);
+            } else if (beanInfo instanceof JXPathBasicBeanInfo) {
+                final JXPathBasicBeanInfo basicBeanInfo = (JXPathBasicBeanInfo) beanInfo;
+                propertyDescriptor = inx >= 0 && inx < basicBeanInfo.getPropertyCount() ? basicBeanInfo.getPropertyDescriptor(inx) : null;
             } else {
                 final PropertyDescriptor[] propertyDescriptors = getPropertyDescriptors();
                 if (inx >= 0 && inx < propertyDescriptors.length) {
@@ -191,11 +213,14 @@ public class BeanPropertyPointer extends PropertyPointer {
      *
      * @return PropertyDescriptor[]
      */
-    protected synchronized PropertyDescriptor[] getPropertyDescriptors() {
-        if (propertyDescriptors == null) {
-            propertyDescriptors = beanInfo.getPropertyDescriptors();
+    protected PropertyDescriptor[] getPropertyDescriptors() {
+        // Racing threads ask the bean info more than once at worst
+        PropertyDescriptor[] descriptors = propertyDescriptors;
+        if (descriptors == null) {
+            descriptors = beanInfo.getPropertyDescriptors();
+            propertyDescriptors = descriptors;
         }
-        return propertyDescriptors;
+        return descriptors;
     }
 
     /**
@@ -266,6 +291,11 @@ public class BeanPropertyPointer extends PropertyPointer {
         return true;
     }
 
+    @Override
+    public boolean isSiblingOf(final NodePointer pointer) {
+        return isSameCollection(pointer);
+    }
+
     @Override
     public void remove() {
         if (index == WHOLE_COLLECTION) {
@@ -274,7 +304,7 @@ public class BeanPropertyPointer extends PropertyPointer {
             final Object o = getBaseValue();
             final Object collection = ValueUtils.remove(getBaseValue(), index);
             if (collection != o) {
-                ValueUtils.setValue(getBean(), getPropertyDescriptor(), collection);
+                setPropertyValue(getPropertyDescriptor(), collection);
             }
         } else if (index == 0) {
             index = WHOLE_COLLECTION;
@@ -282,6 +312,23 @@ public class BeanPropertyPointer extends PropertyPointer {
         }
     }
 
+    @Override
+    public int removeSiblings(final List<NodePointer> siblings) {
+        if (siblings.size() < 2 || !isCollection()) {
+            return super.removeSiblings(siblings);
+        }
+        final int[] indexes = new int[siblings.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = siblings.get(i).getIndex();
+        }
+        final Object o = getBaseValue();
+        final Object collection = ValueUtils.remove(o, indexes);
+        if (collection != o) {
+            setPropertyValue(getPropertyDescriptor(), collection);
+        }
+        return indexes.length;
+    }
+
     @Override
     public void setIndex(final int index) {
         if (this.index == index) {
@@ -311,6 +358,21 @@ public class BeanPropertyPointer extends PropertyPointer {
         }
     }
 
+    /**
+     * Sets the value of a property of the bean.
+     *
+     * @param pd    the property
+     * @param value to set
+     */
+    private void setPropertyValue(final PropertyDescriptor pd, final Object value) {
+        final PropertyAccessor accessor = getPropertyAccessor(pd);
+        if (accessor != null) {
+            accessor.setValue(getBean(), value);
+        } else {
+            ValueUtils.setValue(getBean(), pd, value);
+        }
+    }
+
     /**
      * Select a property by name.
      *
@@ -335,9 +397,14 @@ public class BeanPropertyPointer extends PropertyPointer {
             throw new JXPathInvalidAccessException("Cannot set property: " + asPath() + " - no such property");
         }
         if (index == WHOLE_COLLECTION) {
-            ValueUtils.setValue(getBean(), pd, value);
+            setPropertyValue(pd, value);
         } else {
-            ValueUtils.setValue(getBean(), pd, index, value);
+            final PropertyAccessor accessor = getPropertyAccessor(pd);
+            if (accessor != null) {
+                accessor.setValue(getBean(), index, value);
+            } else {
+                ValueUtils.setValue(getBean(), pd, index, value);
+            }
         }
         this.value = value;
     }
@@ -36,6 +36,13 @@ public class PropertyIterator implements NodeIterator {
     private final PropertyPointer propertyNodePointer;
     private int startPropertyIndex;
     private boolean includeStart;
+    private final boolean fromStart;
+
+    /**
+     * Lengths of the properties measured so far, by property index, or with a single element for an individual property; 0 if not measured, length + 1
+     * otherwise. An iterator serves a single evaluation, during which the lengths are assumed not to change.
+     */
+    private int[] lengths;
 
     /**
      * Constructs a new PropertyIterator.
@@ -50,6 +57,7 @@ public class PropertyIterator implements NodeIterator {
         this.name = name;
         this.reverse = reverse;
         this.includeStart = true;
+        this.fromStart = startWith == null;
         if (reverse) {
             this.startPropertyIndex = PropertyPointer.UNSPECIFIED_PROPERTY;
             this.startIndex = -1;
@@ -81,7 +89,7 @@ public class PropertyIterator implements NodeIterator {
     private int getLength() {
         int length;
         try {
-            length = propertyNodePointer.getLength(); // TBD: cache length
+            length = propertyNodePointer.getLength();
         } catch (final Throwable t) {
             propertyNodePointer.handle(t);
             length = 0;
@@ -89,6 +97,23 @@ public class PropertyIterator implements NodeIterator {
         return length;
     }
 
+    /**
+     * Gets the length of the current pointer, measuring it once per property.
+     *
+     * @param slot property index, or 0 for the individual property
+     * @param slots number of properties, or 1 for the individual property
+     * @return length
+     */
+    private int getLength(final int slot, final int slots) {
+        if (lengths == null || lengths.length < slots) {
+            lengths = new int[slots];
+        }
+        if (lengths[slot] == 0) {
+            lengths[slot] = getLength() + 1;
+        }
+        return lengths[slot] - 1;
+    }
+
     @Override
     public NodePointer getNodePointer() {
         if (position == 0) {
@@ -140,6 +165,11 @@ public class PropertyIterator implements NodeIterator {
     protected void prepareForIndividualProperty(final String name) {
         targetReady = true;
         empty = true;
+        if (!reverse && fromStart) {
+            // Nothing to skip: select the property without searching the names
+            empty = !propertyNodePointer.selectProperty(name);
+            return;
+        }
         final String[] names = propertyNodePointer.getPropertyNames();
         if (!reverse) {
             if (startPropertyIndex == PropertyPointer.UNSPECIFIED_PROPERTY) {
@@ -210,7 +240,7 @@ public class PropertyIterator implements NodeIterator {
             int index = 1;
             for (int i = startPropertyIndex; i < count; i++) {
                 propertyNodePointer.setPropertyIndex(i);
-                int length = getLength();
+                int length = getLength(i, count);
                 if (i == startPropertyIndex) {
                     length -= startIndex;
                     if (!includeStart) {
@@ -237,7 +267,7 @@ public class PropertyIterator implements NodeIterator {
             }
             for (int i = start; i >= 0; i--) {
                 propertyNodePointer.setPropertyIndex(i);
-                int length = getLength();
+                int length = getLength(i, count);
                 if (i == startPropertyIndex) {
                     int end = startIndex;
                     if (end == -1) {
@@ -279,7 +309,7 @@ public class PropertyIterator implements NodeIterator {
         if (empty) {
             return false;
         }
-        final int length = getLength();
+        final int length = getLength(0, 1);
         int index;
         if (!reverse) {
             index = position + startIndex;
@@ -234,6 +234,41 @@ public abstract class PropertyPointer extends NodePointer {
         return value == null || JXPathIntrospector.getBeanInfo(value.getClass()).isAtomic();
     }
 
+    /**
+     * Tests whether the specified pointer selects another element of the collection held by the same property of the same bean.
+     *
+     * @param pointer another pointer
+     * @return boolean
+     * @since 1.4.1
+     */
+    protected boolean isSameCollection(final NodePointer pointer) {
+        if (pointer == null || pointer.getClass() != getClass()) {
+            return false;
+        }
+        final PropertyPointer other = (PropertyPointer) pointer;
+        return index != WHOLE_COLLECTION && other.index != WHOLE_COLLECTION && getBean() == other.getBean() && getPropertyName().equals(other.getPropertyName())
+                && isCollection();
+    }
+
+    /**
+     * Selects the first property with the specified name if the bean has one. Unlike {@link #setPropertyName(String)}, does not select a property the bean
+     * does not have. This implementation searches {@link #getPropertyNames()}; subclasses that can test a name directly override it.
+     *
+     * @param propertyName property name
+     * @return whether the bean has the property
+     * @since 1.4.1
+     */
+    public boolean selectProperty(final String propertyName) {
+        final String[] names = getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(propertyName)) {
+                setPropertyIndex(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Sets the property index.
      *
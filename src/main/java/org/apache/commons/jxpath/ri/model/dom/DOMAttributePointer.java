@@ -128,8 +128,14 @@ public class DOMAttributePointer extends NodePointer {
         return true;
     }
 
+    @Override
+    public boolean isStableOnRemove() {
+        return true;
+    }
+
     @Override
     public void remove() {
+        DOMNodePointer.invalidateElementNameIndex(attr);
         attr.getOwnerElement().removeAttributeNode(attr);
     }
 
@@ -140,6 +146,7 @@ public class DOMAttributePointer extends NodePointer {
      */
     @Override
     public void setValue(final Object value) {
+        DOMNodePointer.invalidateElementNameIndex(attr);
         attr.setValue((String) TypeUtils.convert(value, String.class));
     }
 
@@ -17,7 +17,9 @@
 
 package org.apache.commons.jxpath.ri.model.dom;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -32,6 +34,8 @@ import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
 import org.apache.commons.jxpath.ri.compiler.ProcessingInstructionTest;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
+import org.apache.commons.jxpath.ri.model.ElementNameIndex;
 import org.apache.commons.jxpath.ri.model.NodeIterator;
 import org.apache.commons.jxpath.ri.model.NodePointer;
 import org.apache.commons.jxpath.ri.model.beans.NullPointer;
@@ -59,6 +63,9 @@ public class DOMNodePointer extends NodePointer {
     /** XMLNS namespace URI */
     public static final String XMLNS_NAMESPACE_URI = "http://www.w3.org/2000/xmlns/";
 
+    /** Key of the element name index in the user data of a document */
+    private static final String ELEMENT_NAME_INDEX = ElementNameIndex.class.getName();
+
     /**
      * Test string equality.
      *
@@ -96,6 +103,55 @@ public class DOMNodePointer extends NodePointer {
         return null;
     }
 
+    /**
+     * Lists the attributes and children of a node in document order.
+     *
+     * @param parent Node
+     * @return List
+     */
+    private static List<Node> getChildNodes(final Object parent) {
+        final Node node = (Node) parent;
+        final List<Node> nodes = new ArrayList<>();
+        final NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            final int length = attributes.getLength();
+            for (int i = 0; i < length; i++) {
+                nodes.add(attributes.item(i));
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            nodes.add(child);
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the document of a node.
+     *
+     * @param node Node
+     * @return Document, or null for a document type that is not in a document
+     */
+    private static Document getDocument(final Node node) {
+        return node.getNodeType() == Node.DOCUMENT_NODE ? (Document) node : node.getOwnerDocument();
+    }
+
+    /**
+     * Gets the holder of the element name index of a document, adding it to the document on first use.
+     *
+     * @param document Document
+     * @return ElementNameIndex.Holder
+     */
+    private static ElementNameIndex.Holder getIndexHolder(final Document document) {
+        synchronized (document) {
+            ElementNameIndex.Holder holder = (ElementNameIndex.Holder) document.getUserData(ELEMENT_NAME_INDEX);
+            if (holder == null) {
+                holder = new ElementNameIndex.Holder();
+                document.setUserData(ELEMENT_NAME_INDEX, holder, null);
+            }
+            return holder;
+        }
+    }
+
     /**
      * Gets the local name of the specified node.
      *
@@ -158,6 +214,23 @@ public class DOMNodePointer extends NodePointer {
         return index < 0 ? null : name.substring(0, index);
     }
 
+    /**
+     * Drops the element name index of the document of a node before the document is modified.
+     *
+     * @param node Node
+     */
+    static void invalidateElementNameIndex(final Node node) {
+        final Document document = getDocument(node);
+        if (document != null) {
+            synchronized (document) {
+                final ElementNameIndex.Holder holder = (ElementNameIndex.Holder) document.getUserData(ELEMENT_NAME_INDEX);
+                if (holder != null) {
+                    holder.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Test a Node.
      *
@@ -233,7 +306,12 @@ public class DOMNodePointer extends NodePointer {
     /**
      * Supports {@link #getNamespaceResolver()}.
      */
-    private NamespaceResolver localNamespaceResolver;
+    private volatile NamespaceResolver localNamespaceResolver;
+
+    /**
+     * The holder of the element name index of the document, shared with child pointers once known.
+     */
+    private transient ElementNameIndex.Holder indexHolder;
 
     /**
      * Constructs a new DOMNodePointer.
@@ -268,6 +346,9 @@ public class DOMNodePointer extends NodePointer {
         super(parent);
         this.node = node;
         this.id = null;
+        if (parent instanceof DOMNodePointer) {
+            this.indexHolder = ((DOMNodePointer) parent).indexHolder;
+        }
     }
 
     @Override
@@ -389,6 +470,7 @@ public class DOMNodePointer extends NodePointer {
         if (!(node instanceof Element)) {
             return super.createAttribute(context, qName);
         }
+        invalidateElementNameIndex(node);
         final Element element = (Element) node;
         final String prefix = qName.getPrefix();
         if (prefix != null) {
@@ -414,6 +496,7 @@ public class DOMNodePointer extends NodePointer {
         if (index == WHOLE_COLLECTION) {
             index = 0;
         }
+        invalidateElementNameIndex(node);
         final boolean success = getAbstractFactory(context).createObject(context, this, node, qName.toString(), index);
         if (success) {
             NodeTest nodeTest;
@@ -445,6 +528,17 @@ public class DOMNodePointer extends NodePointer {
         return node;
     }
 
+    @Override
+    protected int getChildPosition(final NodePointer child, final DocumentOrder order) {
+        final Object value = child.getBaseValue();
+        if (!(value instanceof Node)) {
+            return -1;
+        }
+        final Node childNode = (Node) value;
+        final Node parentNode = childNode.getNodeType() == Node.ATTRIBUTE_NODE ? ((Attr) childNode).getOwnerElement() : childNode.getParentNode();
+        return parentNode == node ? order.getPosition(node, childNode, DOMNodePointer::getChildNodes) : -1;
+    }
+
     @Override
     public String getDefaultNamespaceURI() {
         if (defaultNamespace == null) {
@@ -470,6 +564,25 @@ public class DOMNodePointer extends NodePointer {
         return defaultNamespace.isEmpty() ? null : defaultNamespace;
     }
 
+    /**
+     * Gets the element name index of the document, building it on first use. A pointer that knows the holder of the index reads it without locking.
+     *
+     * @param document the document of the node
+     * @return ElementNameIndex
+     */
+    private ElementNameIndex getElementNameIndex(final Document document) {
+        ElementNameIndex.Holder holder = indexHolder;
+        if (holder == null) {
+            holder = getIndexHolder(document);
+            indexHolder = holder;
+        }
+        return holder.get(() -> new ElementNameIndex(document, DOMNodePointer::getChildNodes,
+                child -> ((Node) child).getNodeType() == Node.ELEMENT_NODE ? getLocalName((Node) child) : null, (element, name) -> {
+                    final Attr attr = ((Element) element).getAttributeNode(name);
+                    return attr == null ? null : attr.getValue();
+                }));
+    }
+
     @Override
     public Object getImmediateNode() {
         return node;
@@ -504,12 +617,19 @@ public class DOMNodePointer extends NodePointer {
     }
 
     @Override
-    public synchronized NamespaceResolver getNamespaceResolver() {
-        if (localNamespaceResolver == null) {
-            localNamespaceResolver = new NamespaceResolver(super.getNamespaceResolver());
-            localNamespaceResolver.setNamespaceContextPointer(this);
+    public NamespaceResolver getNamespaceResolver() {
+        NamespaceResolver resolver = localNamespaceResolver;
+        if (resolver == null) {
+            synchronized (this) {
+                resolver = localNamespaceResolver;
+                if (resolver == null) {
+                    resolver = new NamespaceResolver(super.getNamespaceResolver());
+                    resolver.setNamespaceContextPointer(this);
+                    localNamespaceResolver = resolver;
+                }
+            }
         }
-        return localNamespaceResolver;
+        return resolver;
     }
 
     @Override
@@ -563,7 +683,7 @@ public class DOMNodePointer extends NodePointer {
     }
 
     /**
-     * Locates a node by ID.
+     * Locates a node by ID. IDs registered by the parser take precedence over the ID attributes of the context.
      *
      * @param context starting context
      * @param id      to find
@@ -571,9 +691,29 @@ public class DOMNodePointer extends NodePointer {
      */
     @Override
     public Pointer getPointerByID(final JXPathContext context, final String id) {
-        final Document document = node.getNodeType() == Node.DOCUMENT_NODE ? (Document) node : node.getOwnerDocument();
-        final Element element = document.getElementById(id);
-        return element == null ? (Pointer) new NullPointer(getLocale(), id) : new DOMNodePointer(element, getLocale(), id);
+        final Element element = getDocument(node).getElementById(id);
+        if (element != null) {
+            return new DOMNodePointer(element, getLocale(), id);
+        }
+        final Pointer pointer = getPointerByIDAttribute(context, id);
+        return pointer == null ? new NullPointer(getLocale(), id) : pointer;
+    }
+
+    @Override
+    public Pointer getPointerByIDAttribute(final JXPathContext context, final String id) {
+        final String[] names = context.getIDAttributeNames();
+        final Document document = getDocument(node);
+        if (names.length == 0 || document == null) {
+            return null;
+        }
+        final ElementNameIndex index = getElementNameIndex(document);
+        for (final String name : names) {
+            final Object element = index.getElement(name, id);
+            if (element != null) {
+                return new DOMNodePointer((Node) element, getLocale(), id);
+            }
+        }
+        return new NullPointer(getLocale(), id);
     }
 
     /**
@@ -659,6 +799,25 @@ public class DOMNodePointer extends NodePointer {
         return node.hashCode();
     }
 
+    @Override
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test) {
+        final Document document = getDocument(node);
+        if (document == null) {
+            return null;
+        }
+        return getElementNameIndex(document).descendantIterator(this, test, (parent, child) -> new DOMNodePointer(parent, (Node) child));
+    }
+
+    @Override
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test, final String attributeName, final String value) {
+        final Document document = getDocument(node);
+        if (document == null) {
+            return null;
+        }
+        return getElementNameIndex(document).descendantIterator(this, test, attributeName, value,
+                (parent, child) -> new DOMNodePointer(parent, (Node) child));
+    }
+
     @Override
     public boolean isActual() {
         return true;
@@ -704,12 +863,18 @@ public class DOMNodePointer extends NodePointer {
         return new NamespacePointer(this, prefix);
     }
 
+    @Override
+    public boolean isStableOnRemove() {
+        return true;
+    }
+
     @Override
     public void remove() {
         final Node parent = node.getParentNode();
         if (parent == null) {
             throw new JXPathException("Cannot remove root DOM node");
         }
+        invalidateElementNameIndex(node);
         parent.removeChild(node);
     }
 
@@ -721,6 +886,7 @@ public class DOMNodePointer extends NodePointer {
      */
     @Override
     public void setValue(final Object value) {
+        invalidateElementNameIndex(node);
         if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) {
             final String string = (String) TypeUtils.convert(value, String.class);
             if (string != null && !string.isEmpty()) {
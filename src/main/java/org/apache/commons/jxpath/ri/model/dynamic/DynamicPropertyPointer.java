@@ -18,10 +18,12 @@
 package org.apache.commons.jxpath.ri.model.dynamic;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.jxpath.AbstractFactory;
 import org.apache.commons.jxpath.DynamicPropertyHandler;
+import org.apache.commons.jxpath.ExtendedDynamicPropertyHandler;
 import org.apache.commons.jxpath.JXPathAbstractFactoryException;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.JXPathInvalidAccessException;
@@ -150,6 +152,12 @@ public class DynamicPropertyPointer extends PropertyPointer {
      */
     @Override
     public int getPropertyCount() {
+        if (names == null && handler instanceof ExtendedDynamicPropertyHandler) {
+            final ExtendedDynamicPropertyHandler extended = (ExtendedDynamicPropertyHandler) handler;
+            final Object bean = getBean();
+            final int count = extended.getPropertyCount(bean);
+            return requiredPropertyName == null || extended.hasProperty(bean, requiredPropertyName) ? count : count + 1;
+        }
         return getPropertyNames().length;
     }
 
@@ -162,11 +170,12 @@ public class DynamicPropertyPointer extends PropertyPointer {
     public int getPropertyIndex() {
         if (propertyIndex == UNSPECIFIED_PROPERTY) {
             final String[] names = getPropertyNames();
-            for (int i = 0; i < names.length; i++) {
-                if (names[i].equals(name)) {
-                    setPropertyIndex(i);
-                    break;
+            int i = Arrays.binarySearch(names, name);
+            if (i >= 0) {
+                while (i > 0 && names[i - 1].equals(name)) {
+                    i--;
                 }
+                setPropertyIndex(i);
             }
         }
         return super.getPropertyIndex();
@@ -194,10 +203,15 @@ public class DynamicPropertyPointer extends PropertyPointer {
     @Override
     public String[] getPropertyNames() {
         if (names == null) {
-            String[] allNames = handler.getPropertyNames(getBean());
-            names = new String[allNames.length];
-            System.arraycopy(allNames, 0, names, 0, names.length);
-            Arrays.sort(names);
+            String[] allNames;
+            if (handler instanceof ExtendedDynamicPropertyHandler) {
+                names = ((ExtendedDynamicPropertyHandler) handler).getSortedPropertyNames(getBean());
+            } else {
+                allNames = handler.getPropertyNames(getBean());
+                names = new String[allNames.length];
+                System.arraycopy(allNames, 0, names, 0, names.length);
+                Arrays.sort(names);
+            }
             if (requiredPropertyName != null) {
                 final int inx = Arrays.binarySearch(names, requiredPropertyName);
                 if (inx < 0) {
@@ -232,6 +246,11 @@ public class DynamicPropertyPointer extends PropertyPointer {
         return true;
     }
 
+    @Override
+    public boolean isSiblingOf(final NodePointer pointer) {
+        return isSameCollection(pointer);
+    }
+
     @Override
     public void remove() {
         if (index == WHOLE_COLLECTION) {
@@ -256,6 +275,37 @@ public class DynamicPropertyPointer extends PropertyPointer {
         }
     }
 
+    @Override
+    public int removeSiblings(final List<NodePointer> siblings) {
+        if (siblings.size() < 2 || !isCollection()) {
+            return super.removeSiblings(siblings);
+        }
+        final int[] indexes = new int[siblings.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = siblings.get(i).getIndex();
+        }
+        handler.setProperty(getBean(), getPropertyName(), ValueUtils.remove(getBaseValue(), indexes));
+        return indexes.length;
+    }
+
+    /**
+     * Selects a property by name if the object has it. Asks an {@link ExtendedDynamicPropertyHandler} directly rather than listing all property names.
+     *
+     * @param propertyName property name
+     * @return whether the object has the property
+     */
+    @Override
+    public boolean selectProperty(final String propertyName) {
+        if (!(handler instanceof ExtendedDynamicPropertyHandler)) {
+            return super.selectProperty(propertyName);
+        }
+        if (!((ExtendedDynamicPropertyHandler) handler).hasProperty(getBean(), propertyName)) {
+            return false;
+        }
+        setPropertyName(propertyName);
+        return true;
+    }
+
     /**
      * Index a property by its index in the list of all properties sorted alphabetically.
      *
@@ -122,13 +122,20 @@ public class JDOMAttributePointer extends NodePointer {
         return true;
     }
 
+    @Override
+    public boolean isStableOnRemove() {
+        return true;
+    }
+
     @Override
     public void remove() {
+        JDOMNodePointer.invalidateElementNameIndex(attribute.getParent());
         attribute.getParent().removeAttribute(attribute);
     }
 
     @Override
     public void setValue(final Object value) {
+        JDOMNodePointer.invalidateElementNameIndex(attribute.getParent());
         attribute.setValue((String) TypeUtils.convert(value, String.class));
     }
 }
@@ -17,12 +17,18 @@
 
 package org.apache.commons.jxpath.ri.model.jdom;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
+import org.apache.commons.jxpath.IdentityManager;
 import org.apache.commons.jxpath.JXPathAbstractFactoryException;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.ri.Compiler;
 import org.apache.commons.jxpath.ri.NamespaceResolver;
 import org.apache.commons.jxpath.ri.QName;
@@ -30,12 +36,16 @@ import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTest;
 import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
 import org.apache.commons.jxpath.ri.compiler.ProcessingInstructionTest;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
+import org.apache.commons.jxpath.ri.model.ElementNameIndex;
 import org.apache.commons.jxpath.ri.model.NodeIterator;
 import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.beans.NullPointer;
 import org.apache.commons.jxpath.util.TypeUtils;
 import org.jdom.Attribute;
 import org.jdom.CDATA;
 import org.jdom.Comment;
+import org.jdom.Content;
 import org.jdom.Document;
 import org.jdom.Element;
 import org.jdom.Namespace;
@@ -55,6 +65,9 @@ public class JDOMNodePointer extends NodePointer {
     /** XMLNS ns uri */
     public static final String XMLNS_NAMESPACE_URI = "http://www.w3.org/2000/xmlns/";
 
+    /** Key of the element name index in the properties of a document */
+    private static final String ELEMENT_NAME_INDEX = ElementNameIndex.class.getName();
+
     /**
      * Tests whether two strings are == or .equals()
      *
@@ -93,6 +106,49 @@ public class JDOMNodePointer extends NodePointer {
         return null;
     }
 
+    /**
+     * Gets the document of a node.
+     *
+     * @param node Document or Content
+     * @return Document, or null for a node that is not in a document
+     */
+    private static Document getDocument(final Object node) {
+        return node instanceof Document ? (Document) node : node instanceof Content ? ((Content) node).getDocument() : null;
+    }
+
+    /**
+     * Gets the holder of the element name index of a document, adding it to the document on first use.
+     *
+     * @param document Document
+     * @return ElementNameIndex.Holder
+     */
+    private static ElementNameIndex.Holder getIndexHolder(final Document document) {
+        synchronized (document) {
+            ElementNameIndex.Holder holder = (ElementNameIndex.Holder) document.getProperty(ELEMENT_NAME_INDEX);
+            if (holder == null) {
+                holder = new ElementNameIndex.Holder();
+                document.setProperty(ELEMENT_NAME_INDEX, holder);
+            }
+            return holder;
+        }
+    }
+
+    /**
+     * Lists the attributes and content of an element or document in document order.
+     *
+     * @param parent Element or Document
+     * @return List
+     */
+    private static List<?> getChildNodes(final Object parent) {
+        if (parent instanceof Document) {
+            return ((Document) parent).getContent();
+        }
+        final Element element = (Element) parent;
+        final List<Object> nodes = new ArrayList<>((List<?>) element.getAttributes());
+        nodes.addAll((List<?>) element.getContent());
+        return nodes;
+    }
+
     /**
      * Gets the local name of the specified node.
      *
@@ -145,6 +201,23 @@ public class JDOMNodePointer extends NodePointer {
         return null;
     }
 
+    /**
+     * Drops the element name index of the document of a node before the document is modified.
+     *
+     * @param node Document or Content
+     */
+    static void invalidateElementNameIndex(final Object node) {
+        final Document document = getDocument(node);
+        if (document != null) {
+            synchronized (document) {
+                final ElementNameIndex.Holder holder = (ElementNameIndex.Holder) document.getProperty(ELEMENT_NAME_INDEX);
+                if (holder != null) {
+                    holder.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Gets the parent of the specified node.
      *
@@ -230,7 +303,12 @@ public class JDOMNodePointer extends NodePointer {
     private final String id;
 
     /** Local namespace resolver. */
-    private NamespaceResolver localNamespaceResolver;
+    private volatile NamespaceResolver localNamespaceResolver;
+
+    /**
+     * The holder of the element name index of the document, shared with child pointers once known.
+     */
+    private transient ElementNameIndex.Holder indexHolder;
 
     /**
      * Constructs a new JDOMNodePointer.
@@ -242,6 +320,9 @@ public class JDOMNodePointer extends NodePointer {
         super(parent);
         this.node = node;
         this.id = null;
+        if (parent instanceof JDOMNodePointer) {
+            this.indexHolder = ((JDOMNodePointer) parent).indexHolder;
+        }
     }
 
     /**
@@ -406,6 +487,7 @@ public class JDOMNodePointer extends NodePointer {
         if (!(node instanceof Element)) {
             return super.createAttribute(context, qName);
         }
+        invalidateElementNameIndex(node);
         final Element element = (Element) node;
         final String prefix = qName.getPrefix();
         if (prefix != null) {
@@ -434,6 +516,7 @@ public class JDOMNodePointer extends NodePointer {
         if (index == WHOLE_COLLECTION) {
             index = 0;
         }
+        invalidateElementNameIndex(node);
         final boolean success = getAbstractFactory(context).createObject(context, this, node, qName.toString(), index);
         if (success) {
             NodeTest nodeTest;
@@ -472,6 +555,39 @@ public class JDOMNodePointer extends NodePointer {
         return node;
     }
 
+    @Override
+    protected int getChildPosition(final NodePointer child, final DocumentOrder order) {
+        if (!(node instanceof Element || node instanceof Document)) {
+            return -1;
+        }
+        final Object childNode = child.getBaseValue();
+        final Object parentNode;
+        if (childNode instanceof Attribute) {
+            parentNode = ((Attribute) childNode).getParent();
+        } else if (childNode instanceof Content) {
+            parentNode = ((Content) childNode).getParent();
+        } else {
+            return -1;
+        }
+        return parentNode == node ? order.getPosition(node, childNode, JDOMNodePointer::getChildNodes) : -1;
+    }
+
+    /**
+     * Gets the element name index of the document, building it on first use. A pointer that knows the holder of the index reads it without locking.
+     *
+     * @param document the document of the node
+     * @return ElementNameIndex
+     */
+    private ElementNameIndex getElementNameIndex(final Document document) {
+        ElementNameIndex.Holder holder = indexHolder;
+        if (holder == null) {
+            holder = getIndexHolder(document);
+            indexHolder = holder;
+        }
+        return holder.get(() -> new ElementNameIndex(document, JDOMNodePointer::getChildNodes,
+                child -> child instanceof Element ? ((Element) child).getName() : null, (element, name) -> ((Element) element).getAttributeValue(name)));
+    }
+
     @Override
     public Object getImmediateNode() {
         return node;
@@ -508,12 +624,19 @@ public class JDOMNodePointer extends NodePointer {
     }
 
     @Override
-    public synchronized NamespaceResolver getNamespaceResolver() {
-        if (localNamespaceResolver == null) {
-            localNamespaceResolver = new NamespaceResolver(super.getNamespaceResolver());
-            localNamespaceResolver.setNamespaceContextPointer(this);
+    public NamespaceResolver getNamespaceResolver() {
+        NamespaceResolver resolver = localNamespaceResolver;
+        if (resolver == null) {
+            synchronized (this) {
+                resolver = localNamespaceResolver;
+                if (resolver == null) {
+                    resolver = new NamespaceResolver(super.getNamespaceResolver());
+                    resolver.setNamespaceContextPointer(this);
+                    localNamespaceResolver = resolver;
+                }
+            }
         }
-        return localNamespaceResolver;
+        return resolver;
     }
 
     @Override
@@ -540,6 +663,44 @@ public class JDOMNodePointer extends NodePointer {
         return ns == null ? null : ns.getURI();
     }
 
+    /**
+     * Locates an element by the value of one of the ID attributes of the context, or else through its IdentityManager.
+     *
+     * @param context starting context
+     * @param id      to find
+     * @return Pointer
+     */
+    @Override
+    public Pointer getPointerByID(final JXPathContext context, final String id) {
+        final Pointer pointer = getPointerByIDAttribute(context, id);
+        if (pointer != null) {
+            return pointer;
+        }
+        // Without ID attribute names, only an IdentityManager can find the element
+        final IdentityManager manager = context.getIdentityManager();
+        if (manager == null) {
+            throw new JXPathException("Cannot find an element by ID - no IdentityManager has been specified");
+        }
+        return manager.getPointerByID(context, id);
+    }
+
+    @Override
+    public Pointer getPointerByIDAttribute(final JXPathContext context, final String id) {
+        final String[] names = context.getIDAttributeNames();
+        final Document document = getDocument(node);
+        if (names.length == 0 || document == null) {
+            return null;
+        }
+        final ElementNameIndex index = getElementNameIndex(document);
+        for (final String name : names) {
+            final Object element = index.getElement(name, id);
+            if (element != null) {
+                return new JDOMNodePointer(element, getLocale(), id);
+            }
+        }
+        return new NullPointer(getLocale(), id);
+    }
+
     /**
      * Gets relative position of this among like-named siblings.
      *
@@ -681,6 +842,24 @@ public class JDOMNodePointer extends NodePointer {
         return node.hashCode();
     }
 
+    @Override
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test) {
+        final Document document = getDocument(node);
+        if (document == null) {
+            return null;
+        }
+        return getElementNameIndex(document).descendantIterator(this, test, (parent, child) -> new JDOMNodePointer(parent, child));
+    }
+
+    @Override
+    public NodeIterator indexedDescendantIterator(final NodeNameTest test, final String attributeName, final String value) {
+        final Document document = getDocument(node);
+        if (document == null) {
+            return null;
+        }
+        return getElementNameIndex(document).descendantIterator(this, test, attributeName, value, (parent, child) -> new JDOMNodePointer(parent, child));
+    }
+
     @Override
     public boolean isCollection() {
         return false;
@@ -730,17 +909,57 @@ public class JDOMNodePointer extends NodePointer {
         return new JDOMNamespacePointer(this, prefix);
     }
 
+    @Override
+    public boolean isSiblingOf(final NodePointer pointer) {
+        if (!(pointer instanceof JDOMNodePointer)) {
+            return false;
+        }
+        final Element parent = nodeParent(node);
+        return parent != null && parent == nodeParent(((JDOMNodePointer) pointer).node);
+    }
+
+    @Override
+    public boolean isStableOnRemove() {
+        return true;
+    }
+
     @Override
     public void remove() {
         final Element parent = nodeParent(node);
         if (parent == null) {
             throw new JXPathException("Cannot remove root JDOM node");
         }
+        invalidateElementNameIndex(node);
         parent.getContent().remove(node);
     }
 
+    @Override
+    public int removeSiblings(final List<NodePointer> siblings) {
+        final Element parent = nodeParent(node);
+        if (parent == null) {
+            throw new JXPathException("Cannot remove root JDOM node");
+        }
+        invalidateElementNameIndex(parent);
+        final Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final NodePointer sibling : siblings) {
+            removed.add(((JDOMNodePointer) sibling).node);
+        }
+        // Removing nodes one by one would search and shift the content list for each of them
+        final List<Object> retained = new ArrayList<>();
+        for (final Object child : parent.getContent()) {
+            if (!removed.contains(child)) {
+                retained.add(child);
+            }
+        }
+        final int count = parent.getContentSize() - retained.size();
+        parent.removeContent();
+        parent.setContent(retained);
+        return count;
+    }
+
     @Override
     public void setValue(final Object value) {
+        invalidateElementNameIndex(node);
         if (node instanceof Text) {
             final String string = (String) TypeUtils.convert(value, String.class);
             if (string != null && !string.isEmpty()) {
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.jxpath.ri.QName;
+import org.apache.commons.jxpath.ri.model.NodeIterator;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+
+/**
+ * An iterator of attributes of a {@link TinyDocument} element.
+ *
+ * @since 1.4.1
+ */
+public class TinyAttributeIterator implements NodeIterator {
+
+    private final TinyNodePointer parent;
+    private final TinyDocument document;
+    private final QName qName;
+    private final int[] attributes;
+    private int position;
+
+    /**
+     * Constructs a new TinyAttributeIterator.
+     *
+     * @param parent pointer
+     * @param qName  to test
+     */
+    public TinyAttributeIterator(final TinyNodePointer parent, final QName qName) {
+        this.parent = parent;
+        this.document = parent.getDocument();
+        this.qName = qName;
+        final int element = parent.getNodeNumber();
+        int[] list = new int[4];
+        int size = 0;
+        if (document.getKind(element) == TinyDocument.ELEMENT) {
+            final boolean wildcard = qName.getName().equals("*");
+            final String testPrefix = qName.getPrefix();
+            final String testNS = wildcard || testPrefix == null ? null : parent.getNamespaceResolver().getNamespaceURI(testPrefix);
+            for (int attribute = element + 1; attribute < document.getNodeCount() && document.getParent(attribute) == element; attribute++) {
+                if (document.getKind(attribute) == TinyDocument.ATTRIBUTE && (wildcard ? testAttr(attribute) : testName(attribute, testNS))) {
+                    if (size == list.length) {
+                        list = Arrays.copyOf(list, size * 2);
+                    }
+                    list[size++] = attribute;
+                    if (!wildcard) {
+                        break;
+                    }
+                }
+            }
+        }
+        attributes = Arrays.copyOf(list, size);
+    }
+
+    @Override
+    public NodePointer getNodePointer() {
+        if (position == 0) {
+            if (!setPosition(1)) {
+                return null;
+            }
+            position = 0;
+        }
+        int index = position - 1;
+        if (index < 0) {
+            index = 0;
+        }
+        return new TinyNodePointer(parent, document, attributes[index]);
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean setPosition(final int position) {
+        this.position = position;
+        return position >= 1 && position <= attributes.length;
+    }
+
+    /**
+     * Tests an attribute against a wildcard.
+     *
+     * @param attribute to test
+     * @return whether test succeeded
+     */
+    private boolean testAttr(final int attribute) {
+        final String testPrefix = qName.getPrefix();
+        final String nodePrefix = document.getPrefix(attribute);
+        if (testPrefix == null || Objects.equals(testPrefix, nodePrefix)) {
+            return true;
+        }
+        if (nodePrefix == null) {
+            return false;
+        }
+        return Objects.equals(parent.getNamespaceURI(testPrefix), parent.getNamespaceURI(nodePrefix));
+    }
+
+    /**
+     * Tests an attribute against a name: a qualified name is matched by namespace URI, an unqualified one by name.
+     *
+     * @param attribute to test
+     * @param testNS    namespace URI of the name, or null
+     * @return whether test succeeded
+     */
+    private boolean testName(final int attribute, final String testNS) {
+        if (!qName.getName().equals(document.getLocalName(attribute))) {
+            return false;
+        }
+        return testNS == null ? document.getPrefix(attribute) == null : testNS.equals(document.getNamespaceURI(attribute));
+    }
+}
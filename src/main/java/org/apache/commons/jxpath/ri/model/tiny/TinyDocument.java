@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * An immutable XML document stored in parallel arrays rather than in node objects. Every node, including attributes and namespace declarations, is identified
+ * by its number, which is its position in document order: an element is followed by its namespace declarations, then by its attributes, then by its
+ * descendants. The descendants of a node therefore occupy a contiguous range of numbers, and the descendant, following and preceding axes are range scans.
+ * <p>
+ * Adjacent character data is coalesced into one text node, and character data outside the document element is dropped, as DOM parsers do. A TinyDocument
+ * cannot be modified, so it may be shared by threads.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public final class TinyDocument implements Serializable {
+
+    /**
+     * Reads StAX events into growing arrays.
+     */
+    private static final class Builder {
+
+        private byte[] kinds = new byte[64];
+        private int[] names = new int[64];
+        private int[] parents = new int[64];
+        private int[] nextSiblings = new int[64];
+        private int[] depths = new int[64];
+        private int[] offsets = new int[65];
+        private int count;
+        private final StringBuilder values = new StringBuilder();
+        private final StringBuilder text = new StringBuilder();
+        private final List<String> namespaceURIs = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<String> localNames = new ArrayList<>();
+        private final Map<String, Integer> nameCodes = new HashMap<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        /**
+         * Open nodes, the document first.
+         */
+        private int[] open = new int[16];
+
+        /**
+         * Last child added to each open node.
+         */
+        private int[] lastChild = new int[16];
+
+        /**
+         * Whether each open node is within xml:space="preserve".
+         */
+        private boolean[] preserve = new boolean[16];
+
+        /**
+         * Index of the innermost open node.
+         */
+        private int top = -1;
+
+        private int add(final int kind, final int name, final int parent, final String value) {
+            if (count == kinds.length) {
+                final int capacity = count * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+            }
+            kinds[count] = (byte) kind;
+            names[count] = name;
+            parents[count] = parent;
+            nextSiblings[count] = -1;
+            depths[count] = parent < 0 ? 0 : depths[parent] + 1;
+            offsets[count] = values.length();
+            if (value != null) {
+                values.append(value);
+            }
+            return count++;
+        }
+
+        private int addChild(final int kind, final int name, final String value) {
+            final int node = add(kind, name, open[top], value);
+            if (lastChild[top] >= 0) {
+                nextSiblings[lastChild[top]] = node;
+            }
+            lastChild[top] = node;
+            return node;
+        }
+
+        private TinyDocument build(final XMLStreamReader reader) throws XMLStreamException {
+            push(add(DOCUMENT, -1, -1, null), false);
+            final boolean fragment = reader.getEventType() == XMLStreamConstants.START_ELEMENT;
+            for (int event = reader.getEventType();; event = reader.next()) {
+                switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    flushText();
+                    top--;
+                    if (fragment && top == 0) {
+                        return new TinyDocument(this);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (top > 0) {
+                        text.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    flushText();
+                    addChild(COMMENT, -1, reader.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    flushText();
+                    addChild(preserve[top] ? PROCESSING_INSTRUCTION | PRESERVE_SPACE : PROCESSING_INSTRUCTION, nameCode(null, null, reader.getPITarget()),
+                            reader.getPIData());
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    return new TinyDocument(this);
+                default:
+                    break;
+                }
+            }
+        }
+
+        private void flushText() {
+            if (text.length() > 0) {
+                addChild(preserve[top] ? TEXT | PRESERVE_SPACE : TEXT, -1, text.toString());
+                text.setLength(0);
+            }
+        }
+
+        private int nameCode(final String namespaceURI, final String prefix, final String localName) {
+            final String uri = namespaceURI == null ? "" : namespaceURI;
+            final String key = (prefix == null ? "" : prefix) + '\u0000' + localName + '\u0000' + uri;
+            return nameCodes.computeIfAbsent(key, k -> {
+                namespaceURIs.add(uri);
+                prefixes.add(prefix == null || prefix.isEmpty() ? null : prefix);
+                localNames.add(localName);
+                return Integer.valueOf(localNames.size() - 1);
+            }).intValue();
+        }
+
+        private void push(final int node, final boolean preserveSpace) {
+            if (++top == open.length) {
+                open = Arrays.copyOf(open, top * 2);
+                lastChild = Arrays.copyOf(lastChild, top * 2);
+                preserve = Arrays.copyOf(preserve, top * 2);
+            }
+            open[top] = node;
+            lastChild[top] = -1;
+            preserve[top] = preserveSpace;
+        }
+
+        private void startElement(final XMLStreamReader reader) {
+            flushText();
+            final int element = addChild(ELEMENT, nameCode(reader.getNamespaceURI(), reader.getPrefix(), reader.getLocalName()), null);
+            push(element, preserve[top]);
+            final int namespaceCount = reader.getNamespaceCount();
+            for (int i = 0; i < namespaceCount; i++) {
+                final String prefix = reader.getNamespacePrefix(i);
+                add(NAMESPACE, nameCode(reader.getNamespaceURI(i), null, prefix == null ? "" : prefix), element, null);
+            }
+            final int attributeCount = reader.getAttributeCount();
+            for (int i = 0; i < attributeCount; i++) {
+                final String prefix = reader.getAttributePrefix(i);
+                final String localName = reader.getAttributeLocalName(i);
+                final String value = reader.getAttributeValue(i);
+                add(ATTRIBUTE, nameCode(reader.getAttributeNamespace(i), prefix, localName), element, value);
+                if (isXMLAttribute(prefix, localName, "space")) {
+                    preserve[top] = "preserve".equals(value);
+                }
+                if ("ID".equals(reader.getAttributeType(i))) {
+                    ids.putIfAbsent(value, Integer.valueOf(element));
+                }
+            }
+        }
+    }
+
+    private static final long serialVersionUID = 4503729816023817541L;
+
+    /** Kind of the document node. */
+    static final int DOCUMENT = 0;
+
+    /** Kind of element nodes. */
+    static final int ELEMENT = 1;
+
+    /** Kind of attribute nodes. */
+    static final int ATTRIBUTE = 2;
+
+    /** Kind of namespace declarations. */
+    static final int NAMESPACE = 3;
+
+    /** Kind of text nodes. */
+    static final int TEXT = 4;
+
+    /** Kind of comment nodes. */
+    static final int COMMENT = 5;
+
+    /** Kind of processing instruction nodes. */
+    static final int PROCESSING_INSTRUCTION = 6;
+
+    /**
+     * Flags text and processing instructions within xml:space="preserve".
+     */
+    private static final int PRESERVE_SPACE = 0x40;
+
+    /**
+     * Builds a TinyDocument from a StAX reader. If the reader is positioned on a start element, the document holds that element and the reader stops on its
+     * end element; otherwise the reader is read to the end of the document.
+     *
+     * @param reader StAX reader
+     * @return TinyDocument
+     * @throws XMLStreamException if the XML cannot be read
+     */
+    public static TinyDocument build(final XMLStreamReader reader) throws XMLStreamException {
+        return new Builder().build(reader);
+    }
+
+    /**
+     * Tests whether an attribute is the built-in {@code xml:name} attribute.
+     *
+     * @param prefix    attribute prefix
+     * @param localName attribute local name
+     * @param name      name without the xml prefix
+     * @return boolean
+     */
+    static boolean isXMLAttribute(final String prefix, final String localName, final String name) {
+        return prefix == null ? localName.equals("xml:" + name) : prefix.equals("xml") && localName.equals(name);
+    }
+
+    /**
+     * Node kinds, with the {@link #PRESERVE_SPACE} flag.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Name codes, -1 for unnamed nodes.
+     */
+    private final int[] names;
+
+    /**
+     * Parent numbers, -1 for the document node.
+     */
+    private final int[] parents;
+
+    /**
+     * Next sibling numbers, -1 for the last child and for attributes and namespaces.
+     */
+    private final int[] nextSiblings;
+
+    /**
+     * Depths, 0 for the document node.
+     */
+    private final int[] depths;
+
+    /**
+     * Start offsets of the node values in {@link #values}, the value of node n ending where the value of node n + 1 starts.
+     */
+    private final int[] offsets;
+
+    /**
+     * Values of attributes, text, comments and processing instructions.
+     */
+    private final char[] values;
+
+    /**
+     * Namespace URIs by name code, "" for none.
+     */
+    private final String[] namespaceURIs;
+
+    /**
+     * Prefixes by name code.
+     */
+    private final String[] prefixes;
+
+    /**
+     * Local names by name code.
+     */
+    private final String[] localNames;
+
+    /**
+     * Element numbers by the value of their ID-typed attribute.
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * Element numbers by the local name of an attribute without namespace, then by its value, each table built on first lookup.
+     */
+    private transient volatile Map<String, Map<String, Integer>> attributeIds;
+
+    private TinyDocument(final Builder builder) {
+        final int count = builder.count;
+        kinds = Arrays.copyOf(builder.kinds, count);
+        names = Arrays.copyOf(builder.names, count);
+        parents = Arrays.copyOf(builder.parents, count);
+        nextSiblings = Arrays.copyOf(builder.nextSiblings, count);
+        depths = Arrays.copyOf(builder.depths, count);
+        offsets = Arrays.copyOf(builder.offsets, count + 1);
+        offsets[count] = builder.values.length();
+        values = new char[builder.values.length()];
+        builder.values.getChars(0, values.length, values, 0);
+        namespaceURIs = builder.namespaceURIs.toArray(new String[0]);
+        prefixes = builder.prefixes.toArray(new String[0]);
+        localNames = builder.localNames.toArray(new String[0]);
+        ids = builder.ids;
+    }
+
+    int getDepth(final int node) {
+        return depths[node];
+    }
+
+    /**
+     * Gets the document element.
+     *
+     * @return node number or -1
+     */
+    int getDocumentElement() {
+        for (int node = getFirstChild(0); node >= 0; node = nextSiblings[node]) {
+            if (getKind(node) == ELEMENT) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the first element in document order that has an attribute without namespace with the specified value.
+     *
+     * @param localName local name of the attribute
+     * @param value     value of the attribute
+     * @return node number or -1
+     */
+    int getElementByAttribute(final String localName, final String value) {
+        Map<String, Map<String, Integer>> tables = attributeIds;
+        if (tables == null) {
+            // Racing threads may each create a map; the tables they build are equal
+            tables = new ConcurrentHashMap<>();
+            attributeIds = tables;
+        }
+        final Integer node = tables.computeIfAbsent(localName, name -> {
+            final Map<String, Integer> table = new HashMap<>();
+            for (int i = 0; i < kinds.length; i++) {
+                if (getKind(i) == ATTRIBUTE && name.equals(getLocalName(i)) && getNamespaceURI(i).isEmpty()) {
+                    table.putIfAbsent(getText(i), Integer.valueOf(parents[i]));
+                }
+            }
+            return table;
+        }).get(value);
+        return node == null ? -1 : node.intValue();
+    }
+
+    /**
+     * Gets the element with the specified ID.
+     *
+     * @param id ID
+     * @return node number or -1
+     */
+    int getElementById(final String id) {
+        final Integer node = ids.get(id);
+        return node == null ? -1 : node.intValue();
+    }
+
+    /**
+     * Gets the first child of a node, which is never an attribute or a namespace.
+     *
+     * @param node node number
+     * @return node number or -1
+     */
+    int getFirstChild(final int node) {
+        for (int child = node + 1; child < kinds.length && parents[child] == node; child++) {
+            final int kind = getKind(child);
+            if (kind != ATTRIBUTE && kind != NAMESPACE) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    int getKind(final int node) {
+        return kinds[node] & ~PRESERVE_SPACE;
+    }
+
+    /**
+     * Gets the local name of an element or attribute, the target of a processing instruction or the prefix declared by a namespace.
+     *
+     * @param node node number
+     * @return String or null
+     */
+    String getLocalName(final int node) {
+        return names[node] < 0 ? null : localNames[names[node]];
+    }
+
+    int getNameCode(final int node) {
+        return names[node];
+    }
+
+    int getNameCount() {
+        return localNames.length;
+    }
+
+    /**
+     * Gets the local name for a name code.
+     *
+     * @param nameCode name code
+     * @return String
+     */
+    String getNameLocalName(final int nameCode) {
+        return localNames[nameCode];
+    }
+
+    /**
+     * Gets the namespace URI for a name code.
+     *
+     * @param nameCode name code
+     * @return String, "" for none
+     */
+    String getNameNamespaceURI(final int nameCode) {
+        return namespaceURIs[nameCode];
+    }
+
+    /**
+     * Gets the prefix for a name code.
+     *
+     * @param nameCode name code
+     * @return String or null
+     */
+    String getNamePrefix(final int nameCode) {
+        return prefixes[nameCode];
+    }
+
+    /**
+     * Gets the namespace URI of an element or attribute, or the URI declared by a namespace.
+     *
+     * @param node node number
+     * @return String, "" for none
+     */
+    String getNamespaceURI(final int node) {
+        return names[node] < 0 ? "" : namespaceURIs[names[node]];
+    }
+
+    int getNextSibling(final int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return int
+     */
+    int getNodeCount() {
+        return kinds.length;
+    }
+
+    int getParent(final int node) {
+        return parents[node];
+    }
+
+    String getPrefix(final int node) {
+        return names[node] < 0 ? null : prefixes[names[node]];
+    }
+
+    /**
+     * Gets the end of the range of the descendants of a node.
+     *
+     * @param node node number
+     * @return the number following the last descendant
+     */
+    int getSubtreeEnd(final int node) {
+        final int kind = getKind(node);
+        if (kind == ATTRIBUTE || kind == NAMESPACE) {
+            return node + 1;
+        }
+        for (int ancestor = node; ancestor >= 0; ancestor = parents[ancestor]) {
+            if (nextSiblings[ancestor] >= 0) {
+                return nextSiblings[ancestor];
+            }
+        }
+        return kinds.length;
+    }
+
+    /**
+     * Gets the value of an attribute, text, comment or processing instruction as parsed.
+     *
+     * @param node node number
+     * @return String
+     */
+    String getText(final int node) {
+        return new String(values, offsets[node], offsets[node + 1] - offsets[node]);
+    }
+
+    /**
+     * Tests whether a text or processing instruction node is within xml:space="preserve".
+     *
+     * @param node node number
+     * @return boolean
+     */
+    boolean isPreserveSpace(final int node) {
+        return (kinds[node] & PRESERVE_SPACE) != 0;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.Arrays;
+
+import org.apache.commons.jxpath.ri.model.NodeIterator;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.dom.NamespacePointer;
+
+/**
+ * An iterator of namespaces of a {@link TinyDocument} node: the namespace declarations of the node and of its ancestors, outermost first.
+ *
+ * @since 1.4.1
+ */
+public class TinyNamespaceIterator implements NodeIterator {
+
+    private final TinyNodePointer parent;
+    private final TinyDocument document;
+    private final int[] namespaces;
+    private int position;
+
+    /**
+     * Constructs a new TinyNamespaceIterator.
+     *
+     * @param parent parent pointer
+     */
+    public TinyNamespaceIterator(final TinyNodePointer parent) {
+        this.parent = parent;
+        this.document = parent.getDocument();
+        final int node = parent.getNodeNumber();
+        int[] list = new int[4];
+        int size = 0;
+        if (!parent.isAttribute()) {
+            final int[] elements = new int[document.getDepth(node) + 1];
+            int depth = 0;
+            for (int ancestor = node; ancestor >= 0; ancestor = document.getParent(ancestor)) {
+                // The document contributes the declarations of the document element, as in DOM
+                elements[depth++] = document.getKind(ancestor) == TinyDocument.DOCUMENT ? document.getDocumentElement() : ancestor;
+            }
+            while (--depth >= 0) {
+                final int element = elements[depth];
+                if (element < 0 || document.getKind(element) != TinyDocument.ELEMENT) {
+                    continue;
+                }
+                for (int namespace = element + 1; namespace < document.getNodeCount() && document.getParent(namespace) == element; namespace++) {
+                    if (document.getKind(namespace) == TinyDocument.NAMESPACE) {
+                        if (size == list.length) {
+                            list = Arrays.copyOf(list, size * 2);
+                        }
+                        list[size++] = namespace;
+                    }
+                }
+            }
+        }
+        namespaces = Arrays.copyOf(list, size);
+    }
+
+    @Override
+    public NodePointer getNodePointer() {
+        if (position == 0) {
+            if (!setPosition(1)) {
+                return null;
+            }
+            position = 0;
+        }
+        int index = position - 1;
+        if (index < 0) {
+            index = 0;
+        }
+        final int namespace = namespaces[index];
+        return new NamespacePointer(parent, document.getLocalName(namespace), document.getNamespaceURI(namespace));
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean setPosition(final int position) {
+        this.position = position;
+        return position >= 1 && position <= namespaces.length;
+    }
+}
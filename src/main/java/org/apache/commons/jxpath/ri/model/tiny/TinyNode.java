@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.io.Serializable;
+
+/**
+ * A node of a {@link TinyDocument}: the document and the number of the node. TinyNodes are created on demand, so two TinyNodes for the same node are equal
+ * but not identical.
+ *
+ * @since 1.4.1
+ */
+public final class TinyNode implements Serializable {
+
+    private static final long serialVersionUID = -2719378862540118806L;
+
+    private final TinyDocument document;
+
+    private final int number;
+
+    /**
+     * Constructs a new TinyNode.
+     *
+     * @param document document
+     * @param number   node number
+     */
+    TinyNode(final TinyDocument document, final int number) {
+        this.document = document;
+        this.number = number;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof TinyNode)) {
+            return false;
+        }
+        final TinyNode other = (TinyNode) object;
+        return document == other.document && number == other.number;
+    }
+
+    /**
+     * Gets the document of this node.
+     *
+     * @return TinyDocument
+     */
+    public TinyDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Gets the number of this node, which is its position in document order.
+     *
+     * @return int
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(document) + number;
+    }
+}
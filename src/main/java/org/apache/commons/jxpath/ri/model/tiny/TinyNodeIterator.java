@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.Arrays;
+
+import org.apache.commons.jxpath.ri.compiler.NodeTest;
+import org.apache.commons.jxpath.ri.model.NodeIterator;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+
+/**
+ * An iterator of children of a {@link TinyDocument} node.
+ *
+ * @since 1.4.1
+ */
+public class TinyNodeIterator implements NodeIterator {
+
+    private final TinyNodePointer parent;
+    private final TinyDocument document;
+    private final NodeTest nodeTest;
+    private final boolean reverse;
+
+    /**
+     * First child to test when iterating forward.
+     */
+    private final int first;
+
+    /**
+     * Children to test when iterating in reverse, in document order.
+     */
+    private final int[] children;
+
+    /**
+     * Next child to test, or index of the next one in {@link #children} when iterating in reverse.
+     */
+    private int cursor;
+    private int child;
+    private int position;
+
+    /**
+     * Constructs a new TinyNodeIterator.
+     *
+     * @param parent    parent pointer
+     * @param nodeTest  test
+     * @param reverse   whether to iterate in reverse
+     * @param startWith starting pointer
+     */
+    public TinyNodeIterator(final TinyNodePointer parent, final NodeTest nodeTest, final boolean reverse, final NodePointer startWith) {
+        this.parent = parent;
+        this.document = parent.getDocument();
+        this.nodeTest = nodeTest;
+        this.reverse = reverse;
+        final int parentNumber = parent.getNodeNumber();
+        int start = -1;
+        boolean empty = false;
+        if (startWith != null) {
+            start = startWith instanceof TinyNodePointer ? ((TinyNodePointer) startWith).getNodeNumber() : -1;
+            // Only a child of the parent has siblings to iterate
+            empty = start < 0 || ((TinyNodePointer) startWith).getDocument() != document || document.getParent(start) != parentNumber
+                    || ((TinyNodePointer) startWith).isAttribute();
+        }
+        if (reverse) {
+            int[] list = new int[8];
+            int size = 0;
+            if (!empty) {
+                for (int node = document.getFirstChild(parentNumber); node >= 0 && node != start; node = document.getNextSibling(node)) {
+                    if (size == list.length) {
+                        list = Arrays.copyOf(list, size * 2);
+                    }
+                    list[size++] = node;
+                }
+            }
+            children = Arrays.copyOf(list, size);
+            first = -1;
+        } else {
+            children = null;
+            first = empty ? -1 : start >= 0 ? document.getNextSibling(start) : document.getFirstChild(parentNumber);
+        }
+        rewind();
+    }
+
+    @Override
+    public NodePointer getNodePointer() {
+        if (position == 0) {
+            setPosition(1);
+        }
+        return child < 0 ? null : new TinyNodePointer(parent, document, child);
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Sets the next position.
+     *
+     * @return whether valid
+     */
+    private boolean next() {
+        position++;
+        while (true) {
+            if (reverse) {
+                child = cursor >= 0 ? children[cursor--] : -1;
+            } else {
+                child = cursor;
+                if (cursor >= 0) {
+                    cursor = document.getNextSibling(cursor);
+                }
+            }
+            if (child < 0 || TinyNodePointer.testNode(document, child, nodeTest)) {
+                return child >= 0;
+            }
+        }
+    }
+
+    private void rewind() {
+        position = 0;
+        child = -1;
+        cursor = reverse ? children.length - 1 : first;
+    }
+
+    @Override
+    public boolean setPosition(final int position) {
+        if (position < this.position) {
+            rewind();
+        }
+        while (this.position < position) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,688 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.ri.Compiler;
+import org.apache.commons.jxpath.ri.NamespaceResolver;
+import org.apache.commons.jxpath.ri.QName;
+import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
+import org.apache.commons.jxpath.ri.compiler.NodeTest;
+import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
+import org.apache.commons.jxpath.ri.compiler.ProcessingInstructionTest;
+import org.apache.commons.jxpath.ri.model.DocumentOrder;
+import org.apache.commons.jxpath.ri.model.NodeIterator;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.beans.NullPointer;
+import org.apache.commons.jxpath.ri.model.dom.DOMNodePointer;
+import org.apache.commons.jxpath.ri.model.dom.NamespacePointer;
+
+/**
+ * A Pointer that points to a node of a {@link TinyDocument}: an element, attribute, text, comment, processing instruction or the document itself. Names,
+ * string values and paths follow {@link DOMNodePointer}. The document is read-only, so modifications throw UnsupportedOperationException.
+ *
+ * @since 1.4.1
+ */
+public class TinyNodePointer extends NodePointer {
+
+    private static final long serialVersionUID = 3314126650863374027L;
+
+    /**
+     * Test string equality.
+     *
+     * @param s1 String 1
+     * @param s2 String 2
+     * @return true if == or .equals()
+     */
+    private static boolean equalStrings(String s1, String s2) {
+        if (s1 == s2) {
+            return true;
+        }
+        s1 = s1 == null ? "" : s1.trim();
+        s2 = s2 == null ? "" : s2.trim();
+        return s1.equals(s2);
+    }
+
+    /**
+     * Converts "" to null.
+     *
+     * @param uri namespace URI
+     * @return String or null
+     */
+    private static String nullIfEmpty(final String uri) {
+        return uri == null || uri.isEmpty() ? null : uri;
+    }
+
+    /**
+     * Tests an element name.
+     *
+     * @param document document
+     * @param nameCode name code of the element
+     * @param test     to execute
+     * @return true if the name passes the test
+     */
+    static boolean testName(final TinyDocument document, final int nameCode, final NodeNameTest test) {
+        final QName testName = test.getNodeName();
+        final String testPrefix = testName.getPrefix();
+        final boolean wildcard = test.isWildcard();
+        if (wildcard && testPrefix == null) {
+            return true;
+        }
+        if (wildcard || testName.getName().equals(document.getNameLocalName(nameCode))) {
+            final String nodeNS = nullIfEmpty(document.getNameNamespaceURI(nameCode));
+            return equalStrings(test.getNamespaceURI(), nodeNS) || nodeNS == null && equalStrings(testPrefix, document.getNamePrefix(nameCode));
+        }
+        return false;
+    }
+
+    /**
+     * Tests a node that is not an attribute or a namespace.
+     *
+     * @param document document
+     * @param node     node number
+     * @param test     to execute
+     * @return true if node passes test
+     */
+    static boolean testNode(final TinyDocument document, final int node, final NodeTest test) {
+        if (test == null) {
+            return true;
+        }
+        final int kind = document.getKind(node);
+        if (test instanceof NodeNameTest) {
+            return kind == TinyDocument.ELEMENT && testName(document, document.getNameCode(node), (NodeNameTest) test);
+        }
+        if (test instanceof NodeTypeTest) {
+            switch (((NodeTypeTest) test).getNodeType()) {
+            case Compiler.NODE_TYPE_NODE:
+                return true;
+            case Compiler.NODE_TYPE_TEXT:
+                return kind == TinyDocument.TEXT;
+            case Compiler.NODE_TYPE_COMMENT:
+                return kind == TinyDocument.COMMENT;
+            case Compiler.NODE_TYPE_PI:
+                return kind == TinyDocument.PROCESSING_INSTRUCTION;
+            default:
+                return false;
+            }
+        }
+        if (test instanceof ProcessingInstructionTest && kind == TinyDocument.PROCESSING_INSTRUCTION) {
+            return ((ProcessingInstructionTest) test).getTarget().equals(document.getLocalName(node));
+        }
+        return false;
+    }
+
+    /**
+     * The document.
+     */
+    private final TinyDocument document;
+
+    /**
+     * The number of the node in the document.
+     */
+    private final int node;
+
+    /**
+     * Supports {@link #getNamespaceURI(String)}.
+     */
+    private Map<String, String> namespaces;
+
+    /**
+     * Supports {@link #getDefaultNamespaceURI()}.
+     */
+    private String defaultNamespace;
+
+    /**
+     * Optional ID.
+     */
+    private final String id;
+
+    /**
+     * Supports {@link #getNamespaceResolver()}.
+     */
+    private volatile NamespaceResolver localNamespaceResolver;
+
+    /**
+     * Constructs a new TinyNodePointer.
+     *
+     * @param parent   pointer
+     * @param document document
+     * @param node     node number
+     */
+    public TinyNodePointer(final NodePointer parent, final TinyDocument document, final int node) {
+        super(parent);
+        this.document = document;
+        this.node = node;
+        this.id = null;
+    }
+
+    /**
+     * Constructs a new TinyNodePointer.
+     *
+     * @param document document
+     * @param node     node number
+     * @param locale   Locale
+     */
+    public TinyNodePointer(final TinyDocument document, final int node, final Locale locale) {
+        this(document, node, locale, null);
+    }
+
+    /**
+     * Constructs a new TinyNodePointer.
+     *
+     * @param document document
+     * @param node     node number
+     * @param locale   Locale
+     * @param id       String ID
+     */
+    public TinyNodePointer(final TinyDocument document, final int node, final Locale locale, final String id) {
+        super(null, locale);
+        this.document = document;
+        this.node = node;
+        this.id = id;
+    }
+
+    @Override
+    public String asPath() {
+        if (id != null) {
+            return "id('" + escape(id) + "')";
+        }
+        final StringBuilder buffer = new StringBuilder();
+        if (parent != null) {
+            buffer.append(parent.asPath());
+        }
+        switch (document.getKind(node)) {
+        case TinyDocument.ELEMENT:
+            // If the parent pointer is not a TinyNodePointer, it is
+            // the parent's responsibility to produce the node test part
+            // of the path
+            if (parent instanceof TinyNodePointer) {
+                if (buffer.length() == 0 || buffer.charAt(buffer.length() - 1) != '/') {
+                    buffer.append('/');
+                }
+                final String ln = document.getLocalName(node);
+                final String nsURI = getNamespaceURI();
+                if (nsURI == null) {
+                    buffer.append(ln);
+                    buffer.append('[');
+                    buffer.append(getRelativePosition(this::matchesQName)).append(']');
+                } else {
+                    final String prefix = getNamespaceResolver().getPrefix(nsURI);
+                    if (prefix != null) {
+                        buffer.append(prefix);
+                        buffer.append(':');
+                        buffer.append(ln);
+                        buffer.append('[');
+                        buffer.append(getRelativePosition(this::matchesQName));
+                    } else {
+                        buffer.append("node()");
+                        buffer.append('[');
+                        buffer.append(getRelativePosition(n -> document.getKind(n) == TinyDocument.ELEMENT));
+                    }
+                    buffer.append(']');
+                }
+            }
+            break;
+        case TinyDocument.ATTRIBUTE:
+            if (parent != null && (buffer.length() == 0 || buffer.charAt(buffer.length() - 1) != '/')) {
+                buffer.append('/');
+            }
+            buffer.append('@');
+            buffer.append(getName());
+            break;
+        case TinyDocument.TEXT:
+            buffer.append("/text()");
+            buffer.append('[');
+            buffer.append(getRelativePosition(n -> document.getKind(n) == TinyDocument.TEXT)).append(']');
+            break;
+        case TinyDocument.PROCESSING_INSTRUCTION:
+            final String target = document.getLocalName(node);
+            buffer.append("/processing-instruction(\'");
+            buffer.append(target).append("')");
+            buffer.append('[');
+            buffer.append(getRelativePosition(n -> document.getKind(n) == TinyDocument.PROCESSING_INSTRUCTION && target.equals(document.getLocalName(n))))
+                    .append(']');
+            break;
+        default:
+            break;
+        }
+        return buffer.toString();
+    }
+
+    @Override
+    public NodeIterator attributeIterator(final QName qName) {
+        return new TinyAttributeIterator(this, qName);
+    }
+
+    @Override
+    public NodeIterator childIterator(final NodeTest test, final boolean reverse, final NodePointer startWith) {
+        return new TinyNodeIterator(this, test, reverse, startWith);
+    }
+
+    @Override
+    public int compareChildNodePointers(final NodePointer pointer1, final NodePointer pointer2) {
+        if (pointer1 instanceof TinyNodePointer && pointer2 instanceof TinyNodePointer) {
+            return Integer.compare(((TinyNodePointer) pointer1).node, ((TinyNodePointer) pointer2).node);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the descendants of this node as a scan of the range of numbers that follows it.
+     *
+     * @param test NodeTest to filter descendants
+     * @return NodeIterator
+     */
+    @Override
+    public NodeIterator descendantIterator(final NodeTest test) {
+        return new TinyRangeIterator(this, test, node + 1, document.getSubtreeEnd(node), false);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof TinyNodePointer)) {
+            return false;
+        }
+        final TinyNodePointer other = (TinyNodePointer) object;
+        return document == other.document && node == other.node;
+    }
+
+    /**
+     * Finds the nearest occurrence of the specified xml: attribute on this and enclosing elements.
+     *
+     * @param name attribute name without the xml prefix
+     * @return attribute value
+     */
+    private String findEnclosingXMLAttribute(final String name) {
+        for (int element = node; element >= 0; element = document.getParent(element)) {
+            if (document.getKind(element) == TinyDocument.ELEMENT) {
+                for (int attribute = element + 1; attribute < document.getNodeCount() && document.getParent(attribute) == element; attribute++) {
+                    if (document.getKind(attribute) == TinyDocument.ATTRIBUTE
+                            && TinyDocument.isXMLAttribute(document.getPrefix(attribute), document.getLocalName(attribute), name)) {
+                        final String value = document.getText(attribute);
+                        if (!value.isEmpty()) {
+                            return value;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the namespace declared for a prefix on the nearest element.
+     *
+     * @param prefix prefix, "" for the default namespace
+     * @return namespace URI or null if not declared
+     */
+    private String findNamespace(final String prefix) {
+        int element = node;
+        if (document.getKind(element) == TinyDocument.DOCUMENT) {
+            element = document.getDocumentElement();
+        }
+        for (; element > 0; element = document.getParent(element)) {
+            if (document.getKind(element) == TinyDocument.ELEMENT) {
+                for (int namespace = element + 1; namespace < document.getNodeCount() && document.getParent(namespace) == element; namespace++) {
+                    if (document.getKind(namespace) == TinyDocument.NAMESPACE && prefix.equals(document.getLocalName(namespace))) {
+                        return document.getNamespaceURI(namespace);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object getBaseValue() {
+        return new TinyNode(document, node);
+    }
+
+    @Override
+    protected int getChildPosition(final NodePointer child, final DocumentOrder order) {
+        if (child instanceof TinyNodePointer) {
+            final TinyNodePointer pointer = (TinyNodePointer) child;
+            if (pointer.document == document && document.getParent(pointer.node) == node) {
+                return pointer.node;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getDefaultNamespaceURI() {
+        if (defaultNamespace == null) {
+            defaultNamespace = findNamespace("");
+        }
+        if (defaultNamespace == null) {
+            defaultNamespace = "";
+        }
+        return defaultNamespace.isEmpty() ? null : defaultNamespace;
+    }
+
+    /**
+     * Gets the document of this pointer.
+     *
+     * @return TinyDocument
+     */
+    TinyDocument getDocument() {
+        return document;
+    }
+
+    @Override
+    public Object getImmediateNode() {
+        return new TinyNode(document, node);
+    }
+
+    /**
+     * Gets the language attribute for this node.
+     *
+     * @return String language name
+     */
+    protected String getLanguage() {
+        return findEnclosingXMLAttribute("lang");
+    }
+
+    @Override
+    public int getLength() {
+        return 1;
+    }
+
+    @Override
+    public QName getName() {
+        switch (document.getKind(node)) {
+        case TinyDocument.ELEMENT:
+        case TinyDocument.ATTRIBUTE:
+            return new QName(document.getPrefix(node), document.getLocalName(node));
+        case TinyDocument.PROCESSING_INSTRUCTION:
+            return new QName(null, document.getLocalName(node));
+        default:
+            return new QName(null, null);
+        }
+    }
+
+    @Override
+    public NamespaceResolver getNamespaceResolver() {
+        NamespaceResolver resolver = localNamespaceResolver;
+        if (resolver == null) {
+            synchronized (this) {
+                resolver = localNamespaceResolver;
+                if (resolver == null) {
+                    resolver = new NamespaceResolver(super.getNamespaceResolver());
+                    resolver.setNamespaceContextPointer(this);
+                    localNamespaceResolver = resolver;
+                }
+            }
+        }
+        return resolver;
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        switch (document.getKind(node)) {
+        case TinyDocument.DOCUMENT:
+            final int element = document.getDocumentElement();
+            return element < 0 ? null : nullIfEmpty(document.getNamespaceURI(element));
+        case TinyDocument.ELEMENT:
+        case TinyDocument.ATTRIBUTE:
+            return nullIfEmpty(document.getNamespaceURI(node));
+        default:
+            return null;
+        }
+    }
+
+    @Override
+    public String getNamespaceURI(final String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return getDefaultNamespaceURI();
+        }
+        if (prefix.equals("xml")) {
+            return DOMNodePointer.XML_NAMESPACE_URI;
+        }
+        if (prefix.equals("xmlns")) {
+            return DOMNodePointer.XMLNS_NAMESPACE_URI;
+        }
+        String namespace = null;
+        if (namespaces == null) {
+            namespaces = new HashMap<>();
+        } else {
+            namespace = namespaces.get(prefix);
+        }
+        if (namespace == null) {
+            namespace = findNamespace(prefix);
+            if (namespace == null || namespace.isEmpty()) {
+                namespace = UNKNOWN_NAMESPACE;
+            }
+        }
+        namespaces.put(prefix, namespace);
+        if (namespace == UNKNOWN_NAMESPACE) {
+            return null;
+        }
+        return namespace;
+    }
+
+    /**
+     * Gets the number of the node.
+     *
+     * @return int
+     */
+    int getNodeNumber() {
+        return node;
+    }
+
+    /**
+     * Locates an element by the value of its ID-typed attribute, as declared by the DTD, or else by the value of one of the ID attributes of the context.
+     *
+     * @param context starting context
+     * @param id      to find
+     * @return Pointer
+     */
+    @Override
+    public Pointer getPointerByID(final JXPathContext context, final String id) {
+        final int element = document.getElementById(id);
+        if (element >= 0) {
+            return new TinyNodePointer(document, element, getLocale(), id);
+        }
+        final Pointer pointer = getPointerByIDAttribute(context, id);
+        return pointer == null ? new NullPointer(getLocale(), id) : pointer;
+    }
+
+    @Override
+    public Pointer getPointerByIDAttribute(final JXPathContext context, final String id) {
+        final String[] names = context.getIDAttributeNames();
+        if (names.length == 0) {
+            return null;
+        }
+        for (final String name : names) {
+            final int element = document.getElementByAttribute(name, id);
+            if (element >= 0) {
+                return new TinyNodePointer(document, element, getLocale(), id);
+            }
+        }
+        return new NullPointer(getLocale(), id);
+    }
+
+    /**
+     * Gets the relative position of this among the preceding siblings that pass a test.
+     *
+     * @param test sibling test
+     * @return 1..n
+     */
+    private int getRelativePosition(final IntPredicate test) {
+        int count = 1;
+        for (int sibling = document.getFirstChild(document.getParent(node)); sibling >= 0 && sibling != node; sibling = document.getNextSibling(sibling)) {
+            if (test.test(sibling)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Object getValue() {
+        switch (document.getKind(node)) {
+        case TinyDocument.DOCUMENT:
+        case TinyDocument.ELEMENT:
+            final StringBuilder buffer = new StringBuilder();
+            final int end = document.getSubtreeEnd(node);
+            for (int descendant = node + 1; descendant < end; descendant++) {
+                final int kind = document.getKind(descendant);
+                if (kind == TinyDocument.TEXT || kind == TinyDocument.PROCESSING_INSTRUCTION) {
+                    buffer.append(getText(descendant));
+                }
+            }
+            return buffer.toString();
+        case TinyDocument.COMMENT:
+            return document.getText(node).trim();
+        case TinyDocument.ATTRIBUTE:
+            return document.getText(node);
+        default:
+            return getText(node);
+        }
+    }
+
+    /**
+     * Gets the text of a text or processing instruction node, trimmed unless within xml:space="preserve".
+     *
+     * @param textNode node number
+     * @return String
+     */
+    private String getText(final int textNode) {
+        final String text = document.getText(textNode);
+        return document.isPreserveSpace(textNode) ? text : text.trim();
+    }
+
+    @Override
+    public int hashCode() {
+        return node;
+    }
+
+    @Override
+    public boolean isActual() {
+        return true;
+    }
+
+    @Override
+    public boolean isAttribute() {
+        return document.getKind(node) == TinyDocument.ATTRIBUTE;
+    }
+
+    @Override
+    public boolean isCollection() {
+        return false;
+    }
+
+    /**
+     * Returns true if the xml:lang attribute for the current node or its parent has the specified prefix <em>lang</em>. If no node has this prefix, calls
+     * {@code super.isLanguage(lang)}.
+     *
+     * @param lang ns to test
+     * @return boolean
+     */
+    @Override
+    public boolean isLanguage(final String lang) {
+        final String current = getLanguage();
+        return current == null ? super.isLanguage(lang) : isLanguage(current, lang);
+    }
+
+    @Override
+    public boolean isLeaf() {
+        final int kind = document.getKind(node);
+        return kind != TinyDocument.DOCUMENT && kind != TinyDocument.ELEMENT || document.getFirstChild(node) < 0;
+    }
+
+    private boolean matchesQName(final int sibling) {
+        if (document.getKind(sibling) != TinyDocument.ELEMENT) {
+            return false;
+        }
+        if (getNamespaceURI() != null) {
+            return equalStrings(nullIfEmpty(document.getNamespaceURI(sibling)), getNamespaceURI())
+                    && equalStrings(document.getLocalName(node), document.getLocalName(sibling));
+        }
+        return equalStrings(document.getPrefix(node), document.getPrefix(sibling)) && equalStrings(document.getLocalName(node), document.getLocalName(sibling));
+    }
+
+    @Override
+    public NodeIterator namespaceIterator() {
+        return new TinyNamespaceIterator(this);
+    }
+
+    @Override
+    public NodePointer namespacePointer(final String prefix) {
+        return new NamespacePointer(this, prefix);
+    }
+
+    /**
+     * Returns the preceding or following nodes as a scan of the range of numbers before or after this node. The scan is only used when this pointer descends
+     * from a pointer to the document node, which makes it return the same nodes as a walk of the child iterators of the ancestors.
+     *
+     * @param test    NodeTest to filter nodes
+     * @param reverse true for the preceding axis, false for the following axis
+     * @return NodeIterator or null
+     */
+    @Override
+    public NodeIterator precedingOrFollowingIterator(final NodeTest test, final boolean reverse) {
+        if (isAttribute()) {
+            return null;
+        }
+        NodePointer top = this;
+        while (top.getImmediateParentPointer() instanceof TinyNodePointer) {
+            top = top.getImmediateParentPointer();
+        }
+        final TinyNodePointer root = (TinyNodePointer) top;
+        if (root.node != 0 || root.document != document) {
+            return null;
+        }
+        return reverse ? new TinyRangeIterator(root, test, node - 1, 0, true)
+                : new TinyRangeIterator(root, test, document.getSubtreeEnd(node), document.getNodeCount(), false);
+    }
+
+    /**
+     * Throws UnsupportedOperationException.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Cannot modify a TinyDocument");
+    }
+
+    /**
+     * Throws UnsupportedOperationException.
+     *
+     * @param value Object
+     */
+    @Override
+    public void setValue(final Object value) {
+        throw new UnsupportedOperationException("Cannot modify a TinyDocument");
+    }
+
+    @Override
+    public boolean testNode(final NodeTest test) {
+        if (isAttribute()) {
+            return test == null || test instanceof NodeTypeTest && ((NodeTypeTest) test).getNodeType() == Compiler.NODE_TYPE_NODE;
+        }
+        return testNode(document, node, test);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.Locale;
+
+import org.apache.commons.jxpath.ri.QName;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.NodePointerFactory;
+
+/**
+ * Implements NodePointerFactory for {@link TinyDocument}s and {@link TinyNode}s.
+ *
+ * @since 1.4.1
+ */
+public class TinyPointerFactory implements NodePointerFactory {
+
+    /** Factory order */
+    public static final int TINY_POINTER_FACTORY_ORDER = 120;
+
+    /**
+     * Constructs a new instance.
+     */
+    public TinyPointerFactory() {
+        // empty
+    }
+
+    @Override
+    public NodePointer createNodePointer(final NodePointer parent, final QName qName, final Object bean) {
+        if (bean instanceof TinyDocument) {
+            return new TinyNodePointer(parent, (TinyDocument) bean, 0);
+        }
+        if (bean instanceof TinyNode) {
+            final TinyNode node = (TinyNode) bean;
+            return new TinyNodePointer(parent, node.getDocument(), node.getNumber());
+        }
+        return null;
+    }
+
+    @Override
+    public NodePointer createNodePointer(final QName qName, final Object bean, final Locale locale) {
+        if (bean instanceof TinyDocument) {
+            return new TinyNodePointer((TinyDocument) bean, 0, locale);
+        }
+        if (bean instanceof TinyNode) {
+            final TinyNode node = (TinyNode) bean;
+            return new TinyNodePointer(node.getDocument(), node.getNumber(), locale);
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return TINY_POINTER_FACTORY_ORDER;
+    }
+}
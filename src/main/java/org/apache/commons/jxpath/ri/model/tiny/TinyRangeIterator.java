@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import java.util.Arrays;
+
+import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
+import org.apache.commons.jxpath.ri.compiler.NodeTest;
+import org.apache.commons.jxpath.ri.model.NodeIterator;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+
+/**
+ * An iterator over a range of node numbers of a {@link TinyDocument}, skipping attributes and namespaces. Pointers are created for the matching nodes only,
+ * with parent pointers for their ancestors down from a base pointer; the ancestors are kept by depth and shared by consecutive matches.
+ */
+class TinyRangeIterator implements NodeIterator {
+
+    private final TinyNodePointer base;
+    private final TinyDocument document;
+    private final NodeTest nodeTest;
+
+    /**
+     * Whether each name code passes the node test, if it is a name test.
+     */
+    private final boolean[] names;
+
+    private final int from;
+    private final int to;
+    private final boolean reverse;
+
+    /**
+     * Numbers of the ancestors with pointers, by depth below the base.
+     */
+    private int[] ancestors = new int[16];
+
+    /**
+     * Pointers of the ancestors, by depth below the base.
+     */
+    private NodePointer[] ancestorPointers = new NodePointer[16];
+
+    /**
+     * Numbers of the nodes still without pointers while walking up to an ancestor that has one.
+     */
+    private int[] pending = new int[16];
+
+    /**
+     * Next number to scan.
+     */
+    private int cursor;
+
+    /**
+     * Next ancestor to skip when scanning in reverse.
+     */
+    private int ancestor;
+    private int current;
+    private int position;
+
+    /**
+     * Constructs a new TinyRangeIterator.
+     *
+     * @param base     pointer to an ancestor of all nodes in the range
+     * @param nodeTest test
+     * @param from     first number to scan
+     * @param to       scanning forward, the number after the last one; in reverse, the number before the last one
+     * @param reverse  whether to scan in reverse, skipping the ancestors of {@code from + 1}
+     */
+    TinyRangeIterator(final TinyNodePointer base, final NodeTest nodeTest, final int from, final int to, final boolean reverse) {
+        this.base = base;
+        this.document = base.getDocument();
+        this.nodeTest = nodeTest;
+        this.from = from;
+        this.to = to;
+        this.reverse = reverse;
+        if (nodeTest instanceof NodeNameTest) {
+            names = new boolean[document.getNameCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = TinyNodePointer.testName(document, i, (NodeNameTest) nodeTest);
+            }
+        } else {
+            names = null;
+        }
+        Arrays.fill(ancestors, -1);
+        rewind();
+    }
+
+    @Override
+    public NodePointer getNodePointer() {
+        if (position == 0) {
+            setPosition(1);
+        }
+        return current < 0 ? null : getPointer(current);
+    }
+
+    /**
+     * Gets the pointer of a node, creating the pointers of its ancestors as needed.
+     *
+     * @param node node number
+     * @return NodePointer
+     */
+    private NodePointer getPointer(final int node) {
+        final int baseNumber = base.getNodeNumber();
+        final int baseDepth = document.getDepth(baseNumber);
+        int size = 0;
+        int n = node;
+        NodePointer pointer;
+        while (true) {
+            if (n == baseNumber) {
+                pointer = base;
+                break;
+            }
+            final int level = document.getDepth(n) - baseDepth;
+            if (level < ancestors.length && ancestors[level] == n) {
+                pointer = ancestorPointers[level];
+                break;
+            }
+            if (size == pending.length) {
+                pending = Arrays.copyOf(pending, size * 2);
+            }
+            pending[size++] = n;
+            n = document.getParent(n);
+        }
+        while (size > 0) {
+            n = pending[--size];
+            pointer = new TinyNodePointer(pointer, document, n);
+            final int level = document.getDepth(n) - baseDepth;
+            if (level >= ancestors.length) {
+                final int length = ancestors.length;
+                ancestors = Arrays.copyOf(ancestors, Math.max(level + 1, length * 2));
+                Arrays.fill(ancestors, length, ancestors.length, -1);
+                ancestorPointers = Arrays.copyOf(ancestorPointers, ancestors.length);
+            }
+            ancestors[level] = n;
+            ancestorPointers[level] = pointer;
+        }
+        return pointer;
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves to the next matching node.
+     *
+     * @return whether there is one
+     */
+    private boolean next() {
+        position++;
+        while (cursor != to) {
+            final int node = cursor;
+            cursor += reverse ? -1 : 1;
+            if (reverse && node == ancestor) {
+                ancestor = document.getParent(node);
+                continue;
+            }
+            if (test(node)) {
+                current = node;
+                return true;
+            }
+        }
+        current = -1;
+        return false;
+    }
+
+    private void rewind() {
+        position = 0;
+        current = -1;
+        cursor = reverse ? Math.max(from, to) : Math.min(from, to);
+        ancestor = reverse ? document.getParent(from + 1) : -1;
+    }
+
+    @Override
+    public boolean setPosition(final int position) {
+        if (position < this.position) {
+            rewind();
+        }
+        while (this.position < position) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests a node of the range.
+     *
+     * @param node node number
+     * @return whether it is a child node that passes the test
+     */
+    private boolean test(final int node) {
+        final int kind = document.getKind(node);
+        if (kind == TinyDocument.ATTRIBUTE || kind == TinyDocument.NAMESPACE) {
+            return false;
+        }
+        if (names != null) {
+            return kind == TinyDocument.ELEMENT && names[document.getNameCode(node)];
+        }
+        return TinyNodePointer.testNode(document, node, nodeTest);
+    }
+}
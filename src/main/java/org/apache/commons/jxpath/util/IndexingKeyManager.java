@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.ExtendedKeyManager;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.NodeSet;
+import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.ri.InfoSetUtil;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+
+/**
+ * An {@link ExtendedKeyManager} that answers {@code key()} from indexes, like {@code xsl:key}. A key is declared with a name, a {@code match} XPath that
+ * selects the keyed nodes from the root of the document, for instance "//account", and a {@code use} XPath evaluated from each keyed node that gives its key
+ * values, for instance "@number". A node whose {@code use} XPath selects several nodes has a key value for each of them.
+ * <p>
+ * The index of a key is built on the first {@code key()} call for each root: the root node of the context pointer, such as a DOM document or a
+ * {@link org.apache.commons.jxpath.xml.DocumentContainer}. It maps the string values of the key to the nodes that have them, in document order. A manager
+ * can be set on any number of contexts and used by several threads; contexts over the same root share its indexes.
+ * </p>
+ * <p>
+ * Indexes are not updated when documents change. Call {@link #invalidateRoot(Object)} after changing a document, or {@link #invalidateKey(String)} after
+ * changing what a key depends on; the dropped indexes are rebuilt on their next use.
+ * </p>
+ * <p>
+ * The indexes hold pointers to the nodes of their root, so they keep the root reachable. The manager therefore keeps the indexes of a bounded number of
+ * roots, 16 unless set with {@link #IndexingKeyManager(int)}, and drops those of the least recently used root when another root is indexed.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public class IndexingKeyManager implements ExtendedKeyManager {
+
+    /**
+     * A declared key.
+     */
+    private static final class Key {
+
+        private final CompiledExpression match;
+        private final CompiledExpression use;
+
+        Key(final CompiledExpression match, final CompiledExpression use) {
+            this.match = match;
+            this.use = use;
+        }
+    }
+
+    /**
+     * An unmodifiable set of nodes with the same key value.
+     */
+    private static final class KeyNodeSet implements NodeSet {
+
+        private final List<Pointer> pointers;
+
+        KeyNodeSet(final List<Pointer> pointers) {
+            this.pointers = Collections.unmodifiableList(pointers);
+        }
+
+        @Override
+        public List<Object> getNodes() {
+            return pointers.stream().map(Pointer::getNode).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Pointer> getPointers() {
+            return pointers;
+        }
+
+        @Override
+        public List<Object> getValues() {
+            return pointers.stream().map(Pointer::getValue).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compares root nodes by identity.
+     */
+    private static final class Root {
+
+        private final Object node;
+
+        Root(final Object node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return object instanceof Root && ((Root) object).node == node;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(node);
+        }
+    }
+
+    private static final NodeSet EMPTY = new KeyNodeSet(Collections.emptyList());
+
+    /**
+     * Default number of roots whose indexes are kept.
+     */
+    private static final int DEFAULT_MAX_ROOTS = 16;
+
+    /**
+     * Gets the root pointer of the context pointer of a context.
+     *
+     * @param context JXPathContext
+     * @return NodePointer
+     */
+    private static NodePointer getRootPointer(final JXPathContext context) {
+        NodePointer pointer = (NodePointer) context.getContextPointer();
+        while (pointer.getImmediateParentPointer() != null) {
+            pointer = pointer.getImmediateParentPointer();
+        }
+        return pointer;
+    }
+
+    /**
+     * Declared keys by name.
+     */
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Node sets by key value, by key name, by root, least recently used root first. Guarded by itself.
+     */
+    private final Map<Root, Map<String, Map<String, NodeSet>>> indexes;
+
+    /**
+     * Constructs a new instance that keeps the indexes of 16 roots.
+     */
+    public IndexingKeyManager() {
+        this(DEFAULT_MAX_ROOTS);
+    }
+
+    /**
+     * Constructs a new instance that keeps the indexes of a number of roots.
+     *
+     * @param maxRoots the number of roots whose indexes are kept
+     * @throws IllegalArgumentException if {@code maxRoots} is not positive
+     */
+    public IndexingKeyManager(final int maxRoots) {
+        if (maxRoots < 1) {
+            throw new IllegalArgumentException("maxRoots must be positive: " + maxRoots);
+        }
+        indexes = new LinkedHashMap<Root, Map<String, Map<String, NodeSet>>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Root, Map<String, Map<String, NodeSet>>> eldest) {
+                return size() > maxRoots;
+            }
+        };
+    }
+
+    /**
+     * Builds the index of a key for a root.
+     *
+     * @param context context of the key() call
+     * @param root    root pointer
+     * @param key     declared key
+     * @return node sets by key value
+     */
+    private Map<String, NodeSet> build(final JXPathContext context, final NodePointer root, final Key key) {
+        final JXPathContext rootContext = context.getRelativeContext(root);
+        final Map<String, List<Pointer>> pointers = new HashMap<>();
+        for (final Iterator<Pointer> it = key.match.iteratePointers(rootContext); it.hasNext();) {
+            final Pointer pointer = it.next();
+            for (final Iterator<?> values = key.use.iterate(rootContext.getRelativeContext(pointer)); values.hasNext();) {
+                final List<Pointer> list = pointers.computeIfAbsent(InfoSetUtil.stringValue(values.next()), k -> new ArrayList<>());
+                // A node with the same value twice is listed once
+                if (list.isEmpty() || list.get(list.size() - 1) != pointer) {
+                    list.add(pointer);
+                }
+            }
+        }
+        final Map<String, NodeSet> index = new HashMap<>(pointers.size() * 2);
+        pointers.forEach((value, list) -> index.put(value, new KeyNodeSet(list)));
+        return index;
+    }
+
+    /**
+     * Declares a key, replacing any key with the same name and dropping its indexes.
+     *
+     * @param name  name of the key, the first argument of {@code key()}
+     * @param match XPath selecting the keyed nodes from the root
+     * @param use   XPath giving the key values of a keyed node
+     * @throws org.apache.commons.jxpath.JXPathInvalidSyntaxException if an XPath is invalid
+     */
+    public void declareKey(final String name, final String match, final String use) {
+        keys.put(name, new Key(JXPathContext.compile(match), JXPathContext.compile(use)));
+        invalidateKey(name);
+    }
+
+    @Override
+    public NodeSet getNodeSetByKey(final JXPathContext context, final String key, final Object value) {
+        final Key declared = keys.get(key);
+        if (declared == null) {
+            throw new JXPathException("Undeclared key: " + key);
+        }
+        final NodePointer root = getRootPointer(context);
+        final Map<String, Map<String, NodeSet>> rootIndexes;
+        synchronized (indexes) {
+            rootIndexes = indexes.computeIfAbsent(new Root(root.getNode()), r -> new ConcurrentHashMap<>());
+        }
+        Map<String, NodeSet> index = rootIndexes.get(key);
+        if (index == null) {
+            // Building evaluates XPaths, which may call key() for other keys of the same root
+            synchronized (rootIndexes) {
+                index = rootIndexes.get(key);
+                if (index == null) {
+                    index = build(context, root, declared);
+                    rootIndexes.put(key, index);
+                }
+            }
+        }
+        return index.getOrDefault(InfoSetUtil.stringValue(value), EMPTY);
+    }
+
+    /**
+     * Gets the first node with a key value in document order.
+     *
+     * @param context  the context of the call
+     * @param keyName  name of a declared key
+     * @param keyValue key value
+     * @return Pointer, or null if no node has the key value
+     */
+    @Override
+    public Pointer getPointerByKey(final JXPathContext context, final String keyName, final String keyValue) {
+        final List<Pointer> pointers = getNodeSetByKey(context, keyName, keyValue).getPointers();
+        return pointers.isEmpty() ? null : pointers.get(0);
+    }
+
+    /**
+     * Drops all indexes.
+     */
+    public void invalidate() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+
+    /**
+     * Drops the indexes of a key for all roots.
+     *
+     * @param name name of the key
+     */
+    public void invalidateKey(final String name) {
+        synchronized (indexes) {
+            indexes.values().forEach(rootIndexes -> rootIndexes.remove(name));
+        }
+    }
+
+    /**
+     * Drops the indexes of all keys for a root.
+     *
+     * @param root the root node, such as a DOM document or the bean of a context
+     */
+    public void invalidateRoot(final Object root) {
+        synchronized (indexes) {
+            indexes.remove(new Root(root));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.util;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.apache.commons.jxpath.JXPathException;
+
+/**
+ * A {@link PropertyAccessor} that invokes the property methods through {@link MethodHandle}s adapted to generic signatures. Compared to
+ * {@link Method#invoke(Object, Object...)} this skips the per-call access checks and argument array, and indexed access passes the index as a primitive
+ * {@code int} instead of boxing it.
+ *
+ * @since 1.4.1
+ */
+public final class MethodHandlePropertyAccessor implements PropertyAccessor {
+
+    /**
+     * The method that returns the length of an indexed property, looked up on a bean class.
+     */
+    private static final class LengthReader {
+
+        private final Class<?> beanClass;
+
+        /**
+         * Reads the length, or null if the bean class has no such method.
+         */
+        private final MethodHandle handle;
+
+        LengthReader(final Class<?> beanClass, final MethodHandle handle) {
+            this.beanClass = beanClass;
+            this.handle = handle;
+        }
+    }
+
+    private static final MethodType READ_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType INDEXED_READ_TYPE = MethodType.methodType(Object.class, Object.class, int.class);
+    private static final MethodType WRITE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INDEXED_WRITE_TYPE = MethodType.methodType(void.class, Object.class, int.class, Object.class);
+    private static final MethodType LENGTH_TYPE = MethodType.methodType(int.class, Object.class);
+    private static final MethodType INDEXED_PROBE_TYPE = MethodType.methodType(void.class, Object.class, int.class);
+
+    /**
+     * Creates an accessor for the given property.
+     *
+     * @param propertyDescriptor the property
+     * @return a new accessor or {@code null} if the property methods cannot be accessed through method handles, in which case callers should use reflection.
+     */
+    public static PropertyAccessor of(final PropertyDescriptor propertyDescriptor) {
+        try {
+            return new MethodHandlePropertyAccessor(propertyDescriptor);
+        } catch (final IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle unreflect(final Method method, final MethodType type) throws IllegalAccessException {
+        final Method accessible = ValueUtils.getAccessibleMethod(method);
+        return accessible == null ? null : MethodHandles.publicLookup().unreflect(accessible).asType(type);
+    }
+
+    private final String name;
+    private final Class<?> propertyType;
+    private final Class<?> indexedPropertyType;
+    private final MethodHandle reader;
+    private final MethodHandle writer;
+    private final MethodHandle indexedReader;
+    private final MethodHandle indexedWriter;
+
+    /**
+     * Reads the length of an indexed property without a plain read method for the class of the last bean, or null before the first such read.
+     */
+    private volatile LengthReader lengthReader;
+
+    private MethodHandlePropertyAccessor(final PropertyDescriptor propertyDescriptor) throws IllegalAccessException {
+        this.name = propertyDescriptor.getName();
+        this.propertyType = propertyDescriptor.getPropertyType();
+        this.reader = unreflect(propertyDescriptor.getReadMethod(), READ_TYPE);
+        this.writer = unreflect(propertyDescriptor.getWriteMethod(), WRITE_TYPE);
+        if (propertyDescriptor instanceof IndexedPropertyDescriptor) {
+            final IndexedPropertyDescriptor ipd = (IndexedPropertyDescriptor) propertyDescriptor;
+            this.indexedPropertyType = ipd.getIndexedPropertyType();
+            // Indexed methods are invoked as declared, like ValueUtils does.
+            final Method indexedReadMethod = ipd.getIndexedReadMethod();
+            final Method indexedWriteMethod = ipd.getIndexedWriteMethod();
+            this.indexedReader = indexedReadMethod == null ? null : MethodHandles.publicLookup().unreflect(indexedReadMethod).asType(INDEXED_READ_TYPE);
+            this.indexedWriter = indexedWriteMethod == null ? null : MethodHandles.publicLookup().unreflect(indexedWriteMethod).asType(INDEXED_WRITE_TYPE);
+        } else {
+            this.indexedPropertyType = null;
+            this.indexedReader = null;
+            this.indexedWriter = null;
+        }
+    }
+
+    @Override
+    public int getLength(final Object bean) {
+        if (reader != null) {
+            return ValueUtils.getLength(getValue(bean));
+        }
+        if (indexedReader == null) {
+            throw new JXPathException("No indexed read method for property " + name);
+        }
+        final MethodHandle length = getLengthReader(bean.getClass());
+        if (length != null) {
+            try {
+                return (int) length.invokeExact(bean);
+            } catch (final Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new JXPathException("Cannot determine the length of the indexed property " + name, t);
+            }
+        }
+        final MethodHandle probe = indexedReader.asType(INDEXED_PROBE_TYPE);
+        return ValueUtils.probeIndexedPropertyLength(i -> {
+            try {
+                probe.invokeExact(bean, i);
+                return true;
+            } catch (final Throwable t) {
+                return false;
+            }
+        }, name);
+    }
+
+    /**
+     * Gets the method that returns the length of this indexed property for beans of the given class, like
+     * {@link ValueUtils#getIndexedPropertyLength(Object, IndexedPropertyDescriptor)} finds it on the bean's runtime class.
+     *
+     * @param beanClass bean class
+     * @return MethodHandle or null
+     */
+    private MethodHandle getLengthReader(final Class<?> beanClass) {
+        LengthReader current = lengthReader;
+        if (current == null || current.beanClass != beanClass) {
+            MethodHandle handle;
+            try {
+                handle = unreflect(ValueUtils.getIndexedPropertyLengthMethod(beanClass, name), LENGTH_TYPE);
+            } catch (final IllegalAccessException e) {
+                handle = null;
+            }
+            current = new LengthReader(beanClass, handle);
+            lengthReader = current;
+        }
+        return current.handle;
+    }
+
+    @Override
+    public Object getValue(final Object bean) {
+        try {
+            if (reader == null) {
+                throw new JXPathException("No read method");
+            }
+            return (Object) reader.invokeExact(bean);
+        } catch (final Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new JXPathException("Cannot access property: " + (bean == null ? "null" : bean.getClass().getName()) + "." + name, t);
+        }
+    }
+
+    @Override
+    public Object getValue(final Object bean, final int index) {
+        if (indexedReader != null) {
+            try {
+                return (Object) indexedReader.invokeExact(bean, index);
+            } catch (final IndexOutOfBoundsException e) {
+                return null;
+            } catch (final Throwable t) {
+                throw new JXPathException("Cannot access property: " + name, t);
+            }
+        }
+        // We will fall through if there is no indexed read
+        return ValueUtils.getValue(getValue(bean), index);
+    }
+
+    @Override
+    public void setValue(final Object bean, final int index, final Object value) {
+        if (indexedWriter != null) {
+            try {
+                indexedWriter.invokeExact(bean, index, ValueUtils.convert(value, indexedPropertyType));
+                return;
+            } catch (final Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new IllegalArgumentException("Cannot access property: " + name + ", " + t.getMessage());
+            }
+        }
+        // We will fall through if there is no indexed write
+        final Object collection = getValue(bean);
+        if (ValueUtils.isCollection(collection)) {
+            ValueUtils.setValue(collection, index, value);
+        } else if (index == 0) {
+            setValue(bean, value);
+        } else {
+            throw new IllegalArgumentException("Not a collection: " + name);
+        }
+    }
+
+    @Override
+    public void setValue(final Object bean, final Object value) {
+        try {
+            if (writer == null) {
+                throw new JXPathException("No write method");
+            }
+            writer.invokeExact(bean, ValueUtils.convert(value, propertyType));
+        } catch (final Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new JXPathException("Cannot modify property: " + (bean == null ? "null" : bean.getClass().getName()) + "." + name, t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MethodHandlePropertyAccessor[" + name + "]";
+    }
+}
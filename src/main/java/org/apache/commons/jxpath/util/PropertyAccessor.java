@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.util;
+
+import java.beans.PropertyDescriptor;
+
+/**
+ * Reads and writes one JavaBean property. An accessor is bound to a single {@link PropertyDescriptor} and behaves exactly like the corresponding
+ * {@link ValueUtils} methods, but resolves the accessor methods once instead of on every call.
+ * <p>
+ * Accessors are created and cached per bean class by {@link org.apache.commons.jxpath.JXPathBasicBeanInfo#getPropertyAccessor(PropertyDescriptor)}.
+ * Implementations must be thread-safe.
+ * </p>
+ *
+ * @see MethodHandlePropertyAccessor
+ * @since 1.4.1
+ */
+public interface PropertyAccessor {
+
+    /**
+     * Gets the length of an indexed property, see {@link ValueUtils#getIndexedPropertyLength(Object, java.beans.IndexedPropertyDescriptor)}.
+     *
+     * @param bean to read
+     * @return int
+     */
+    int getLength(Object bean);
+
+    /**
+     * Gets the property value, see {@link ValueUtils#getValue(Object, PropertyDescriptor)}.
+     *
+     * @param bean to read
+     * @return Object value
+     */
+    Object getValue(Object bean);
+
+    /**
+     * Gets the index'th element of the property value, see {@link ValueUtils#getValue(Object, PropertyDescriptor, int)}.
+     *
+     * @param bean  to read
+     * @param index int
+     * @return Object
+     */
+    Object getValue(Object bean, int index);
+
+    /**
+     * Sets the index'th element of the property value, see {@link ValueUtils#setValue(Object, PropertyDescriptor, int, Object)}.
+     *
+     * @param bean  to edit
+     * @param index int
+     * @param value to set
+     */
+    void setValue(Object bean, int index, Object value);
+
+    /**
+     * Sets the property value, see {@link ValueUtils#setValue(Object, PropertyDescriptor, Object)}.
+     *
+     * @param bean  to edit
+     * @param value to set
+     */
+    void setValue(Object bean, Object value);
+}
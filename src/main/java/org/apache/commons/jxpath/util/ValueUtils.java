@@ -19,17 +19,30 @@ package org.apache.commons.jxpath.util;
 
 import java.beans.IndexedPropertyDescriptor;
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
 
 import org.apache.commons.jxpath.Container;
 import org.apache.commons.jxpath.DynamicPropertyHandler;
@@ -40,8 +53,80 @@ import org.apache.commons.jxpath.JXPathException;
  */
 public class ValueUtils {
 
+    /**
+     * Remembers where the last lookup by index in a collection without random access stopped, so that visiting the elements of such a collection in order
+     * walks it once rather than once per element. Only used for collections whose iterators fail fast, so that a structural change made since the last
+     * lookup is detected rather than read through. The cursor lets go of the collection once its last element has been read, and until then holds it and
+     * its iterator through weak references, so that a partly read collection is not kept reachable by the thread; an iterator collected in between only costs
+     * a walk from the start.
+     */
+    private static final class Cursor {
+
+        private WeakReference<Collection<?>> collection;
+        private WeakReference<Iterator<?>> iterator;
+
+        /**
+         * Index of the element the iterator returns next.
+         */
+        private int next;
+
+        /**
+         * Size of the collection when the iterator was created.
+         */
+        private int size;
+
+        /**
+         * Forgets the collection.
+         */
+        private void clear() {
+            collection = null;
+            iterator = null;
+        }
+
+        /**
+         * Gets an element, continuing from the previous lookup if it was in the same collection at a lower index.
+         *
+         * @param coll  collection
+         * @param index valid index
+         * @return Object
+         */
+        Object get(final Collection<?> coll, final int index) {
+            Iterator<?> it = collection != null && collection.get() == coll && next <= index && size == coll.size() ? iterator.get() : null;
+            try {
+                if (it == null) {
+                    it = coll.iterator();
+                    next = 0;
+                    size = coll.size();
+                    collection = new WeakReference<>(coll);
+                    iterator = new WeakReference<>(it);
+                }
+                for (; next < index; next++) {
+                    it.next();
+                }
+                next++;
+                final Object value = it.next();
+                if (next == size) {
+                    clear();
+                }
+                return value;
+            } catch (final ConcurrentModificationException | NoSuchElementException e) {
+                // Modified since the iterator was created
+                clear();
+                return walk(coll, index);
+            }
+        }
+    }
+
+    /**
+     * Collections whose iterators throw {@link ConcurrentModificationException} after any structural change, which the {@link Cursor} relies on.
+     */
+    private static final Set<Class<?>> FAIL_FAST_COLLECTIONS = new HashSet<>(
+            Arrays.asList(HashSet.class, LinkedHashSet.class, LinkedList.class, PriorityQueue.class, TreeSet.class));
+
+    private static final ThreadLocal<Cursor> CURSOR = ThreadLocal.withInitial(Cursor::new);
     private static Map<Class, DynamicPropertyHandler> dynamicPropertyHandlerMap = new ConcurrentHashMap<>();
     private static final int UNKNOWN_LENGTH_MAX_COUNT = 16000;
+    private static final String[] LENGTH_METHOD_SUFFIXES = { "Count", "Size", "Length" };
 
     /**
      * Convert value to type.
@@ -50,7 +135,7 @@ public class ValueUtils {
      * @param type  destination
      * @return conversion result
      */
-    private static Object convert(final Object value, final Class type) {
+    static Object convert(final Object value, final Class type) {
         try {
             return TypeUtils.convert(value, type);
         } catch (final Exception ex) {
@@ -164,6 +249,29 @@ public class ValueUtils {
         return method;
     }
 
+    /**
+     * Gets an element of an array, without reflection for the common array types.
+     *
+     * @param array an array
+     * @param index valid index
+     * @return Object
+     */
+    private static Object getArrayElement(final Object array, final int index) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array)[index];
+        }
+        if (array instanceof int[]) {
+            return Integer.valueOf(((int[]) array)[index]);
+        }
+        if (array instanceof long[]) {
+            return Long.valueOf(((long[]) array)[index]);
+        }
+        if (array instanceof double[]) {
+            return Double.valueOf(((double[]) array)[index]);
+        }
+        return Array.get(array, index);
+    }
+
     /**
      * Returns 1 if the type is a collection, -1 if it is definitely not and 0 if it may be a collection in some cases.
      *
@@ -206,9 +314,10 @@ public class ValueUtils {
     }
 
     /**
-     * If there is a regular non-indexed read method for this property, uses this method to obtain the collection and then returns its length. Otherwise,
-     * attempts to guess the length of the collection by calling the indexed get method repeatedly. The method is supposed to throw an exception if the index is
-     * out of bounds.
+     * If there is a regular non-indexed read method for this property, uses this method to obtain the collection and then returns its length. Otherwise, if
+     * the bean has a public method named {@code getXxxCount}, {@code getXxxSize} or {@code getXxxLength} for a property named {@code xxx} that takes no
+     * arguments and returns an {@code int}, returns its result. Otherwise, attempts to guess the length of the collection by calling the indexed get method,
+     * which is supposed to throw an exception if the index is out of bounds, at doubling indexes and then bisecting.
      *
      * @param object collection
      * @param pd     IndexedPropertyDescriptor
@@ -222,14 +331,45 @@ public class ValueUtils {
         if (readMethod == null) {
             throw new JXPathException("No indexed read method for property " + pd.getName());
         }
-        for (int i = 0; i < UNKNOWN_LENGTH_MAX_COUNT; i++) {
+        final Method lengthMethod = getIndexedPropertyLengthMethod(object.getClass(), pd.getName());
+        if (lengthMethod != null) {
+            try {
+                return ((Integer) lengthMethod.invoke(object)).intValue();
+            } catch (final Exception ex) {
+                throw new JXPathException("Cannot determine the length of the indexed property " + pd.getName(), ex);
+            }
+        }
+        return probeIndexedPropertyLength(i -> {
             try {
                 readMethod.invoke(object, Integer.valueOf(i));
+                return true;
             } catch (final Throwable t) {
-                return i;
+                return false;
+            }
+        }, pd.getName());
+    }
+
+    /**
+     * Finds the public method that returns the length of an indexed property by convention: {@code getXxxCount}, {@code getXxxSize} or
+     * {@code getXxxLength} for a property named {@code xxx}, taking no arguments and returning an {@code int}.
+     *
+     * @param beanClass    bean class
+     * @param propertyName property name
+     * @return Method or null
+     */
+    static Method getIndexedPropertyLengthMethod(final Class<?> beanClass, final String propertyName) {
+        final String prefix = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        for (final String suffix : LENGTH_METHOD_SUFFIXES) {
+            try {
+                final Method method = getAccessibleMethod(beanClass.getMethod(prefix + suffix));
+                if (method != null && method.getReturnType() == int.class) {
+                    return method;
+                }
+            } catch (final NoSuchMethodException e) {
+                // try the next suffix
             }
         }
-        throw new JXPathException("Cannot determine the length of the indexed property " + pd.getName());
+        return null;
     }
 
     /**
@@ -266,7 +406,9 @@ public class ValueUtils {
     }
 
     /**
-     * Returns the index'th element of the supplied collection.
+     * Returns the index'th element of the supplied collection. Arrays and {@link RandomAccess} lists are indexed directly. Other collections are walked with
+     * an iterator. For the fail-fast {@code java.util} collections, like {@link LinkedHashSet} and {@link LinkedList}, the iterator is kept for the next
+     * call on the same thread: visiting their elements in order walks them once.
      *
      * @param collection to read
      * @param index      int
@@ -280,8 +422,8 @@ public class ValueUtils {
                 if (index < 0 || index >= Array.getLength(collection)) {
                     return null;
                 }
-                value = Array.get(collection, index);
-            } else if (collection instanceof List) {
+                value = getArrayElement(collection, index);
+            } else if (collection instanceof List && (collection instanceof RandomAccess || index == 0)) {
                 if (index < 0 || index >= ((List) collection).size()) {
                     return null;
                 }
@@ -290,16 +432,8 @@ public class ValueUtils {
                 if (index < 0 || index >= ((Collection) collection).size()) {
                     return null;
                 }
-                int i = 0;
-                final Iterator it = ((Collection) collection).iterator();
-                for (; i < index; i++) {
-                    it.next();
-                }
-                if (it.hasNext()) {
-                    value = it.next();
-                } else {
-                    value = null;
-                }
+                value = FAIL_FAST_COLLECTIONS.contains(collection.getClass()) ? CURSOR.get().get((Collection<?>) collection, index)
+                        : walk((Collection<?>) collection, index);
             }
         }
         return value;
@@ -402,6 +536,38 @@ public class ValueUtils {
         return Collections.singletonList(collection).iterator();
     }
 
+    /**
+     * Finds the length of an indexed property by calling its getter at indexes 0, 1, 3, 7... until one fails, then bisecting between the last index that
+     * worked and the first that failed, which takes a number of calls logarithmic in the length.
+     *
+     * @param exists       tests whether the getter succeeds at an index
+     * @param propertyName property name for the error message
+     * @return int
+     */
+    static int probeIndexedPropertyLength(final IntPredicate exists, final String propertyName) {
+        if (!exists.test(0)) {
+            return 0;
+        }
+        int low = 0;
+        int high = 1;
+        while (exists.test(high)) {
+            if (high == UNKNOWN_LENGTH_MAX_COUNT - 1) {
+                throw new JXPathException("Cannot determine the length of the indexed property " + propertyName);
+            }
+            low = high;
+            high = Math.min(high * 2 + 1, UNKNOWN_LENGTH_MAX_COUNT - 1);
+        }
+        while (high - low > 1) {
+            final int middle = low + high >>> 1;
+            if (exists.test(middle)) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
     /**
      * Remove the index'th element from the supplied collection.
      *
@@ -452,6 +618,74 @@ public class ValueUtils {
         throw new JXPathException("Cannot remove " + collection.getClass().getName() + "[" + index + "]");
     }
 
+    /**
+     * Removes several elements from the supplied collection in one pass.
+     *
+     * @param collection to edit
+     * @param indexes    of the elements to remove, in any order
+     * @return The resulting collection
+     * @since 1.4.1
+     */
+    public static Object remove(Object collection, final int[] indexes) {
+        collection = getValue(collection);
+        if (collection == null) {
+            return null;
+        }
+        final int length = getLength(collection);
+        final BitSet removed = new BitSet(length);
+        for (final int index : indexes) {
+            if (index >= length) {
+                throw new JXPathException("No such element at index " + index);
+            }
+            removed.set(index);
+        }
+        if (collection.getClass().isArray()) {
+            final Object smaller = Array.newInstance(collection.getClass().getComponentType(), length - removed.cardinality());
+            int to = 0;
+            for (int from = 0; from < length; from++) {
+                if (!removed.get(from)) {
+                    Array.set(smaller, to++, Array.get(collection, from));
+                }
+            }
+            return smaller;
+        }
+        if (collection instanceof List) {
+            // Shifting the tail of an array-backed list once per element would be quadratic.
+            retain((List<?>) collection, removed);
+            return collection;
+        }
+        if (collection instanceof Collection) {
+            final Iterator<?> it = ((Collection<?>) collection).iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                it.next();
+                if (removed.get(i)) {
+                    it.remove();
+                }
+            }
+            return collection;
+        }
+        throw new JXPathException("Cannot remove " + collection.getClass().getName() + Arrays.toString(indexes));
+    }
+
+    /**
+     * Keeps the elements of a list that are not marked as removed, copying them once.
+     *
+     * @param <T>     element type
+     * @param list    to edit
+     * @param removed the indexes of the elements to remove
+     */
+    private static <T> void retain(final List<T> list, final BitSet removed) {
+        final List<T> retained = new ArrayList<>(list.size() - removed.cardinality());
+        int i = 0;
+        for (final T element : list) {
+            if (!removed.get(i++)) {
+                retained.add(element);
+            }
+        }
+        list.clear();
+        list.addAll(retained);
+    }
+
     /**
      * Modifies the index'th element of the supplied collection. Converts the value to the required type if necessary.
      *
@@ -531,6 +765,21 @@ public class ValueUtils {
         }
     }
 
+    /**
+     * Walks a collection to an element.
+     *
+     * @param collection to walk
+     * @param index      index
+     * @return the element or null if the collection is shorter
+     */
+    private static Object walk(final Collection<?> collection, final int index) {
+        final Iterator<?> it = collection.iterator();
+        for (int i = 0; i < index && it.hasNext(); i++) {
+            it.next();
+        }
+        return it.hasNext() ? it.next() : null;
+    }
+
     /**
      * Constructs a new instance.
      *
@@ -39,12 +39,20 @@ public class DocumentContainer extends XMLParser2 implements Container {
 
     /** JDOM constant */
     public static final String MODEL_JDOM = "JDOM";
+
+    /**
+     * Tiny tree constant, a read-only model stored in arrays.
+     *
+     * @since 1.4.1
+     */
+    public static final String MODEL_TINY = "TINY";
     private static final long serialVersionUID = -8713290334113427066L;
     private static final Map<String, String> parserClasses = new ConcurrentHashMap<>();
 
     static {
         parserClasses.put(MODEL_DOM, "org.apache.commons.jxpath.xml.DOMParser");
         parserClasses.put(MODEL_JDOM, "org.apache.commons.jxpath.xml.JDOMParser");
+        parserClasses.put(MODEL_TINY, "org.apache.commons.jxpath.xml.TinyParser");
     }
 
     private static final Map<String, XMLParser> parsers = new ConcurrentHashMap<>();
@@ -70,7 +78,7 @@ public class DocumentContainer extends XMLParser2 implements Container {
     }
 
     /**
-     * Add a class of a custom XML parser. Parsers for the models "DOM" and "JDOM" are pre-registered.
+     * Add a class of a custom XML parser. Parsers for the models "DOM", "JDOM" and "TINY" are pre-registered.
      *
      * @param model           model name
      * @param parserClassName parser class name
@@ -80,7 +88,7 @@ public class DocumentContainer extends XMLParser2 implements Container {
     }
 
     /**
-     * Add an XML parser. Parsers for the models "DOM" and "JDOM" are pre-registered.
+     * Add an XML parser. Parsers for the models "DOM", "JDOM" and "TINY" are pre-registered.
      *
      * @param model  model name
      * @param parser parser
@@ -100,7 +108,7 @@ public class DocumentContainer extends XMLParser2 implements Container {
     private final URL xmlUrl;
 
     /**
-     * XML model: DOM, JDOM.
+     * XML model: DOM, JDOM, TINY.
      */
     private final String model;
 
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.xml;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.ri.model.tiny.TinyDocument;
+
+/**
+ * An implementation of the XMLParser interface that produces a {@link TinyDocument}.
+ *
+ * @since 1.4.1
+ */
+public class TinyParser extends XMLParser2 {
+
+    /**
+     * Constructs a new instance.
+     */
+    public TinyParser() {
+        // empty
+    }
+
+    @Override
+    public Object parseXML(final InputStream stream) {
+        try {
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.valueOf(isNamespaceAware()));
+            factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.valueOf(isExpandEntityReferences()));
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.valueOf(isCoalescing()));
+            if (isValidating()) {
+                factory.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.TRUE);
+            }
+            XMLStreamReader reader = factory.createXMLStreamReader(stream);
+            if (isIgnoringComments() || isIgnoringElementContentWhitespace()) {
+                reader = factory.createFilteredReader(reader, r -> !(isIgnoringComments() && r.getEventType() == XMLStreamConstants.COMMENT
+                        || isIgnoringElementContentWhitespace() && r.getEventType() == XMLStreamConstants.SPACE));
+            }
+            try {
+                return TinyDocument.build(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (final Exception ex) {
+            throw new JXPathException("Tiny tree parser error", ex);
+        }
+    }
+}
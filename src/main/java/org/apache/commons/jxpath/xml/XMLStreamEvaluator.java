@@ -0,0 +1,621 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.ri.Compiler;
+import org.apache.commons.jxpath.ri.Parser;
+import org.apache.commons.jxpath.ri.QName;
+import org.apache.commons.jxpath.ri.compiler.Constant;
+import org.apache.commons.jxpath.ri.compiler.CoreOperationEqual;
+import org.apache.commons.jxpath.ri.compiler.CoreOperationNotEqual;
+import org.apache.commons.jxpath.ri.compiler.CoreOperationUnion;
+import org.apache.commons.jxpath.ri.compiler.Expression;
+import org.apache.commons.jxpath.ri.compiler.LocationPath;
+import org.apache.commons.jxpath.ri.compiler.NodeNameTest;
+import org.apache.commons.jxpath.ri.compiler.NodeTest;
+import org.apache.commons.jxpath.ri.compiler.NodeTypeTest;
+import org.apache.commons.jxpath.ri.compiler.Operation;
+import org.apache.commons.jxpath.ri.compiler.Step;
+import org.apache.commons.jxpath.ri.compiler.TreeCompiler;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Evaluates XPaths over a StAX stream without building the document. Memory use is bounded by the depth of the document and the size of the matched
+ * subtrees, so this suits documents that are too large for {@link DocumentContainer}.
+ * <p>
+ * Paths are restricted to the forward-only subset that can be decided when a node is read:
+ * </p>
+ * <ul>
+ * <li>absolute or relative location paths, relative paths starting at the document, and unions of them;</li>
+ * <li>element name tests and {@code *} on the child and descendant axes, {@code text()} as the last step, attribute name tests and {@code @*} as the
+ * last step, {@code .} and {@code //};</li>
+ * <li>predicates that are positive integer positions on child steps, attribute tests such as {@code [@id]}, and comparisons of an attribute with a literal
+ * such as {@code [@id = '101']} or {@code [@id != '101']}.</li>
+ * </ul>
+ * <p>
+ * Matches are reported to a handler with the path that selected them: an element as a DOM {@link Element} holding a copy of its subtree, an attribute or a
+ * text node as its string value, which is trimmed as in the DOM model unless {@code xml:space} is {@code preserve}. Attributes are reported when their
+ * element starts, text when the text ends and elements when they end. Adjacent character data, including CDATA sections, is reported as one text node.
+ * </p>
+ * <p>
+ * Namespace prefixes are resolved against the namespaces registered before a path is added. An evaluator is not thread-safe while paths are added; once
+ * configured, it can evaluate several streams concurrently.
+ * </p>
+ *
+ * @since 1.4.1
+ */
+public class XMLStreamEvaluator {
+
+    /**
+     * A predicate of a step.
+     */
+    private static final class Predicate {
+
+        /** Required position among the candidates that pass the preceding predicates, or 0 */
+        private final int position;
+
+        /** The attribute tested unless this is a position */
+        private final NameMatcher attribute;
+
+        /** The value compared with the attribute, or null to test that the attribute exists */
+        private final String value;
+
+        /** Whether the comparison is "!=" */
+        private final boolean notEqual;
+
+        Predicate(final int position, final NameMatcher attribute, final String value, final boolean notEqual) {
+            this.position = position;
+            this.attribute = attribute;
+            this.value = value;
+            this.notEqual = notEqual;
+        }
+
+        boolean matches(final XMLStreamReader reader) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (attribute.matches(reader.getAttributeNamespace(i), reader.getAttributePrefix(i), reader.getAttributeLocalName(i))) {
+                    return value == null || value.equals(reader.getAttributeValue(i)) != notEqual;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Tests element and attribute names like {@link org.apache.commons.jxpath.ri.model.dom.DOMNodePointer#testNode(org.w3c.dom.Node, NodeTest)}.
+     */
+    private static final class NameMatcher {
+
+        private final String prefix;
+
+        /** Null for a wildcard */
+        private final String localName;
+
+        private final String namespaceURI;
+
+        NameMatcher(final String prefix, final String localName, final String namespaceURI) {
+            this.prefix = prefix;
+            this.localName = localName;
+            this.namespaceURI = namespaceURI;
+        }
+
+        boolean matches(final String nodeNamespaceURI, final String nodePrefix, final String nodeLocalName) {
+            if (localName == null && prefix == null) {
+                return true;
+            }
+            if (localName == null || localName.equals(nodeLocalName)) {
+                final String nodeNS = emptyToNull(nodeNamespaceURI);
+                return equalStrings(namespaceURI, nodeNS) || nodeNS == null && equalStrings(prefix, emptyToNull(nodePrefix));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A streamable path.
+     */
+    private static final class StreamPath {
+
+        private final String xpath;
+
+        private final StreamStep[] steps;
+
+        /** One state per step, so that states can be compared by identity */
+        private final State[] states;
+
+        StreamPath(final String xpath, final StreamStep[] steps) {
+            this.xpath = xpath;
+            this.steps = steps;
+            this.states = new State[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                states[i] = new State(this, i);
+            }
+        }
+    }
+
+    /**
+     * A step of a streamable path.
+     */
+    private static final class StreamStep {
+
+        private final int kind;
+
+        /** Whether the step applies at any depth below the context node rather than to its children */
+        private final boolean descendant;
+
+        /** Null for text() */
+        private final NameMatcher name;
+
+        private final Predicate[] predicates;
+
+        StreamStep(final int kind, final boolean descendant, final NameMatcher name, final Predicate[] predicates) {
+            this.kind = kind;
+            this.descendant = descendant;
+            this.name = name;
+            this.predicates = predicates;
+        }
+    }
+
+    /**
+     * A path whose steps before {@link #index} have matched.
+     */
+    private static final class State {
+
+        private final StreamPath path;
+
+        private final int index;
+
+        State(final StreamPath path, final int index) {
+            this.path = path;
+            this.index = index;
+        }
+
+        StreamStep step() {
+            return path.steps[index];
+        }
+    }
+
+    /**
+     * An open element, or the document.
+     */
+    private static final class Frame {
+
+        /** States to apply to the children of this node, and attribute states to apply to this node */
+        private final List<State> states = new ArrayList<>();
+
+        /** Positional predicate counters by state */
+        private Map<State, int[]> counters;
+
+        /** Paths that select this element */
+        private List<String> matches;
+
+        /** The copy of this element, if it is inside a match */
+        private Element element;
+
+        /** Pending text of the children of this node */
+        private StringBuilder text;
+
+        /** Whether xml:space is "preserve" */
+        private boolean preserveSpace;
+
+        void add(final State state) {
+            if (!states.contains(state)) {
+                states.add(state);
+            }
+        }
+
+        int[] counters(final State state) {
+            if (counters == null) {
+                counters = new IdentityHashMap<>();
+            }
+            return counters.computeIfAbsent(state, s -> new int[s.step().predicates.length]);
+        }
+    }
+
+    private static final int ELEMENT = 1;
+    private static final int ATTRIBUTE = 2;
+    private static final int TEXT = 3;
+
+    private static Expression[] alternatives(final Expression expression) {
+        if (expression instanceof CoreOperationUnion) {
+            final List<Expression> list = new ArrayList<>();
+            for (final Expression argument : ((CoreOperationUnion) expression).getArguments()) {
+                for (final Expression alternative : alternatives(argument)) {
+                    list.add(alternative);
+                }
+            }
+            return list.toArray(new Expression[list.size()]);
+        }
+        return new Expression[] { expression };
+    }
+
+    private static String emptyToNull(final String string) {
+        return string == null || string.isEmpty() ? null : string;
+    }
+
+    private static boolean equalStrings(final String s1, final String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+
+    private static boolean isNodeStep(final Step step) {
+        final NodeTest test = step.getNodeTest();
+        return test instanceof NodeTypeTest && ((NodeTypeTest) test).getNodeType() == Compiler.NODE_TYPE_NODE && predicates(step).length == 0;
+    }
+
+    private static JXPathException notStreamable(final String xpath, final Object reason) {
+        return new JXPathException("XPath cannot be evaluated on a stream: '" + xpath + "', " + reason);
+    }
+
+    private static Expression[] predicates(final Step step) {
+        final Expression[] predicates = step.getPredicates();
+        return predicates == null ? new Expression[0] : predicates;
+    }
+
+    private final Map<String, String> namespaces = new HashMap<>();
+
+    private final List<StreamPath> paths = new ArrayList<>();
+
+    /**
+     * Constructs a new instance.
+     */
+    public XMLStreamEvaluator() {
+        // empty
+    }
+
+    /**
+     * Adds a path to evaluate.
+     *
+     * @param xpath a path in the streamable subset
+     * @throws JXPathException if the path is invalid or cannot be evaluated on a stream
+     */
+    public void addPath(final String xpath) {
+        final Expression expression = (Expression) Parser.parseExpression(xpath, new TreeCompiler());
+        final List<StreamPath> list = new ArrayList<>();
+        for (final Expression alternative : alternatives(expression)) {
+            if (!(alternative instanceof LocationPath)) {
+                throw notStreamable(xpath, "unsupported expression " + alternative);
+            }
+            list.add(new StreamPath(xpath, compileSteps(xpath, ((LocationPath) alternative).getSteps())));
+        }
+        paths.addAll(list);
+    }
+
+    private void advance(final State state, final Frame frame) {
+        final StreamPath path = state.path;
+        final int next = state.index + 1;
+        if (next == path.steps.length) {
+            if (frame.matches == null) {
+                frame.matches = new ArrayList<>();
+            }
+            if (!frame.matches.contains(path.xpath)) {
+                frame.matches.add(path.xpath);
+            }
+        } else {
+            frame.add(path.states[next]);
+        }
+    }
+
+    private NameMatcher compileName(final NodeNameTest test) {
+        final QName name = test.getNodeName();
+        final String prefix = name.getPrefix();
+        String namespaceURI = null;
+        if (prefix != null) {
+            namespaceURI = namespaces.get(prefix);
+        }
+        return new NameMatcher(prefix, test.isWildcard() ? null : name.getName(), namespaceURI);
+    }
+
+    private Predicate compilePredicate(final String xpath, final Expression predicate, final boolean positional) {
+        if (predicate instanceof Constant) {
+            final Object value = predicate.computeValue(null);
+            if (positional && value instanceof Number) {
+                final double position = ((Number) value).doubleValue();
+                if (position >= 1 && position <= Integer.MAX_VALUE && position == Math.rint(position)) {
+                    return new Predicate((int) position, null, null, false);
+                }
+            }
+        } else if (predicate instanceof LocationPath) {
+            final NameMatcher attribute = compilePredicateAttribute(predicate);
+            if (attribute != null) {
+                return new Predicate(0, attribute, null, false);
+            }
+        } else if (predicate instanceof CoreOperationEqual || predicate instanceof CoreOperationNotEqual) {
+            final Expression[] args = ((Operation) predicate).getArguments();
+            for (int i = 0; i < 2; i++) {
+                final NameMatcher attribute = compilePredicateAttribute(args[i]);
+                final Expression other = args[1 - i];
+                if (attribute != null && other instanceof Constant && other.computeValue(null) instanceof String) {
+                    return new Predicate(0, attribute, (String) other.computeValue(null), predicate instanceof CoreOperationNotEqual);
+                }
+            }
+        }
+        throw notStreamable(xpath, "unsupported predicate [" + predicate + "]");
+    }
+
+    /**
+     * Compiles a relative path to a named attribute of the context node.
+     */
+    private NameMatcher compilePredicateAttribute(final Expression expression) {
+        if (expression instanceof LocationPath && !((LocationPath) expression).isAbsolute()) {
+            final Step[] steps = ((LocationPath) expression).getSteps();
+            if (steps.length == 1 && steps[0].getAxis() == Compiler.AXIS_ATTRIBUTE && steps[0].getNodeTest() instanceof NodeNameTest
+                    && predicates(steps[0]).length == 0) {
+                final NodeNameTest test = (NodeNameTest) steps[0].getNodeTest();
+                if (!test.isWildcard()) {
+                    return compileName(test);
+                }
+            }
+        }
+        return null;
+    }
+
+    private StreamStep[] compileSteps(final String xpath, final Step[] steps) {
+        final List<StreamStep> list = new ArrayList<>();
+        boolean descendant = false;
+        for (int i = 0; i < steps.length; i++) {
+            final Step step = steps[i];
+            final int axis = step.getAxis();
+            final NodeTest test = step.getNodeTest();
+            final boolean last = i == steps.length - 1;
+            if (axis == Compiler.AXIS_DESCENDANT_OR_SELF && isNodeStep(step) && !last) {
+                descendant = true;
+                continue;
+            }
+            if (axis == Compiler.AXIS_SELF && isNodeStep(step)) {
+                continue;
+            }
+            final Expression[] predicates = predicates(step);
+            if ((axis == Compiler.AXIS_CHILD || axis == Compiler.AXIS_DESCENDANT) && test instanceof NodeNameTest) {
+                final Predicate[] compiled = new Predicate[predicates.length];
+                for (int p = 0; p < predicates.length; p++) {
+                    // A position among the descendants of the context node cannot be decided per parent
+                    compiled[p] = compilePredicate(xpath, predicates[p], axis == Compiler.AXIS_CHILD);
+                }
+                list.add(new StreamStep(ELEMENT, descendant || axis == Compiler.AXIS_DESCENDANT, compileName((NodeNameTest) test), compiled));
+            } else if (last && predicates.length == 0 && axis == Compiler.AXIS_ATTRIBUTE && test instanceof NodeNameTest) {
+                list.add(new StreamStep(ATTRIBUTE, descendant, compileName((NodeNameTest) test), new Predicate[0]));
+            } else if (last && predicates.length == 0 && (axis == Compiler.AXIS_CHILD || axis == Compiler.AXIS_DESCENDANT) && test instanceof NodeTypeTest
+                    && ((NodeTypeTest) test).getNodeType() == Compiler.NODE_TYPE_TEXT) {
+                list.add(new StreamStep(TEXT, descendant || axis == Compiler.AXIS_DESCENDANT, null, new Predicate[0]));
+            } else {
+                throw notStreamable(xpath, "unsupported step " + step);
+            }
+            descendant = false;
+        }
+        if (list.isEmpty()) {
+            throw notStreamable(xpath, "it selects the document");
+        }
+        return list.toArray(new StreamStep[list.size()]);
+    }
+
+    private Element copyElement(final XMLStreamReader reader, final Document document) {
+        final String prefix = emptyToNull(reader.getPrefix());
+        final Element element = document.createElementNS(emptyToNull(reader.getNamespaceURI()),
+                prefix == null ? reader.getLocalName() : prefix + ":" + reader.getLocalName());
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            final String nsPrefix = emptyToNull(reader.getNamespacePrefix(i));
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, nsPrefix == null ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":"
+                    + nsPrefix, reader.getNamespaceURI(i) == null ? "" : reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String attrPrefix = emptyToNull(reader.getAttributePrefix(i));
+            element.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)),
+                    attrPrefix == null ? reader.getAttributeLocalName(i) : attrPrefix + ":" + reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    /**
+     * Evaluates the paths over a stream. The stream is not closed.
+     *
+     * @param stream  XML input
+     * @param handler receives the path and the value of each match
+     * @throws JXPathException if the stream cannot be read
+     */
+    public void evaluate(final InputStream stream, final BiConsumer<String, Object> handler) {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        final XMLStreamReader reader;
+        try {
+            reader = factory.createXMLStreamReader(stream);
+        } catch (final XMLStreamException ex) {
+            throw new JXPathException("StAX parser error", ex);
+        }
+        try {
+            evaluate(reader, handler);
+        } finally {
+            try {
+                reader.close();
+            } catch (final XMLStreamException ignore) {
+                // already reported or irrelevant
+            }
+        }
+    }
+
+    /**
+     * Evaluates the paths over the remaining events of a reader. A reader positioned on an element start is evaluated as if that element were the document
+     * element. The reader is not closed.
+     *
+     * @param reader  XML input
+     * @param handler receives the path and the value of each match
+     * @throws JXPathException if the stream cannot be read
+     */
+    public void evaluate(final XMLStreamReader reader, final BiConsumer<String, Object> handler) {
+        final DocumentBuilder builder;
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            builder = factory.newDocumentBuilder();
+        } catch (final ParserConfigurationException ex) {
+            throw new JXPathException("DOM parser error", ex);
+        }
+        final List<Frame> stack = new ArrayList<>();
+        final Frame root = new Frame();
+        for (final StreamPath path : paths) {
+            root.add(path.states[0]);
+        }
+        stack.add(root);
+        try {
+            int event = reader.getEventType();
+            final boolean fragment = event == XMLStreamConstants.START_ELEMENT;
+            while (true) {
+                final Frame top = stack.get(stack.size() - 1);
+                switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    flushText(top, handler);
+                    stack.add(startElement(reader, top, builder, handler));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    flushText(top, handler);
+                    stack.remove(stack.size() - 1);
+                    if (top.matches != null) {
+                        for (final String xpath : top.matches) {
+                            handler.accept(xpath, top.element);
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (top.text != null) {
+                        top.text.append(reader.getText());
+                    }
+                    if (top.element != null) {
+                        top.element.appendChild(event == XMLStreamConstants.CDATA ? top.element.getOwnerDocument().createCDATASection(reader.getText())
+                                : top.element.getOwnerDocument().createTextNode(reader.getText()));
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    flushText(top, handler);
+                    if (top.element != null) {
+                        top.element.appendChild(top.element.getOwnerDocument().createComment(reader.getText()));
+                    }
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    flushText(top, handler);
+                    if (top.element != null) {
+                        top.element.appendChild(top.element.getOwnerDocument().createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+                    }
+                    break;
+                default:
+                    break;
+                }
+                if (!reader.hasNext() || fragment && stack.size() == 1) {
+                    break;
+                }
+                event = reader.next();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new JXPathException("StAX parser error", ex);
+        }
+    }
+
+    private void flushText(final Frame frame, final BiConsumer<String, Object> handler) {
+        if (frame.text != null && frame.text.length() > 0) {
+            final String text = frame.preserveSpace ? frame.text.toString() : frame.text.toString().trim();
+            frame.text.setLength(0);
+            for (final State state : frame.states) {
+                if (state.step().kind == TEXT) {
+                    handler.accept(state.path.xpath, text);
+                }
+            }
+        }
+    }
+
+    private boolean matchesPredicates(final StreamStep step, final State state, final Frame parent, final XMLStreamReader reader) {
+        final Predicate[] predicates = step.predicates;
+        for (int i = 0; i < predicates.length; i++) {
+            final Predicate predicate = predicates[i];
+            if (predicate.position > 0) {
+                if (++parent.counters(state)[i] != predicate.position) {
+                    return false;
+                }
+            } else if (!predicate.matches(reader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a namespace prefix used by the paths added afterwards.
+     *
+     * @param prefix       A namespace prefix
+     * @param namespaceURI A URI for that prefix
+     */
+    public void registerNamespace(final String prefix, final String namespaceURI) {
+        namespaces.put(prefix, namespaceURI);
+    }
+
+    private Frame startElement(final XMLStreamReader reader, final Frame parent, final DocumentBuilder builder, final BiConsumer<String, Object> handler) {
+        final Frame frame = new Frame();
+        final String space = reader.getAttributeValue(XMLConstants.XML_NS_URI, "space");
+        frame.preserveSpace = space == null ? parent.preserveSpace : "preserve".equals(space);
+        for (final State state : parent.states) {
+            final StreamStep step = state.step();
+            if (step.descendant) {
+                frame.add(state);
+            }
+            if (step.kind == ELEMENT && step.name.matches(reader.getNamespaceURI(), reader.getPrefix(), reader.getLocalName())
+                    && matchesPredicates(step, state, parent, reader)) {
+                advance(state, frame);
+            }
+        }
+        for (final State state : frame.states) {
+            final StreamStep step = state.step();
+            if (step.kind == ATTRIBUTE) {
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    if (step.name.matches(reader.getAttributeNamespace(i), reader.getAttributePrefix(i), reader.getAttributeLocalName(i))) {
+                        handler.accept(state.path.xpath, reader.getAttributeValue(i));
+                    }
+                }
+            } else if (step.kind == TEXT && frame.text == null) {
+                frame.text = new StringBuilder();
+            }
+        }
+        if (parent.element != null) {
+            frame.element = copyElement(reader, parent.element.getOwnerDocument());
+            parent.element.appendChild(frame.element);
+        } else if (frame.matches != null) {
+            final Document document = builder.newDocument();
+            frame.element = copyElement(reader, document);
+            document.appendChild(frame.element);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class JXPathBasicBeanInfoTest {
+
+    @Test
+    void testGetPropertyDescriptorByIndex() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(TestBean.class);
+        final PropertyDescriptor[] pds = beanInfo.getPropertyDescriptors();
+        assertEquals(pds.length, beanInfo.getPropertyCount());
+        for (int i = 0; i < pds.length; i++) {
+            assertSame(pds[i], beanInfo.getPropertyDescriptor(i));
+            assertEquals(i, beanInfo.getPropertyIndex(pds[i].getName()));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> beanInfo.getPropertyDescriptor(pds.length));
+    }
+
+    @Test
+    void testGetPropertyDescriptorByName() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(TestBean.class);
+        for (final PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+            assertSame(pd, beanInfo.getPropertyDescriptor(pd.getName()));
+        }
+        assertNull(beanInfo.getPropertyDescriptor("noSuchProperty"));
+        assertNull(beanInfo.getPropertyDescriptor(null));
+        assertEquals(-1, beanInfo.getPropertyIndex("noSuchProperty"));
+    }
+
+    @Test
+    void testGetPropertyDescriptors() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(TestBean.class);
+        final PropertyDescriptor[] pds = beanInfo.getPropertyDescriptors();
+        assertNotSame(pds, beanInfo.getPropertyDescriptors());
+        for (int i = 1; i < pds.length; i++) {
+            assertEquals(-1, Integer.signum(pds[i - 1].getName().compareTo(pds[i].getName())));
+        }
+        assertEquals(0, new JXPathBasicBeanInfo(Object.class).getPropertyCount());
+    }
+
+    @Test
+    void testIntrospectConcurrently() throws Exception {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(TestBean.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<PropertyDescriptor>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> beanInfo.getPropertyDescriptor("nestedBean")));
+            }
+            final PropertyDescriptor expected = beanInfo.getPropertyDescriptor("nestedBean");
+            for (final Future<PropertyDescriptor> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
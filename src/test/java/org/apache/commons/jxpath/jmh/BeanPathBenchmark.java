@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.ri.JXPathContextReferenceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link CompiledExpression#getValue(JXPathContext)} and {@link CompiledExpression#iterate(JXPathContext)} over a bean graph.
+ * <p>
+ * {@code simplePath} is answered by the {@code SimplePathInterpreter}; {@code contextPath} selects the same node with a context-dependent predicate, which
+ * forces evaluation through the {@code EvalContext} chain. {@code specializedPath} is {@code simplePath} compiled with
+ * {@link JXPathContextReferenceImpl#setSpecializing(boolean)}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BeanPathBenchmark {
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    private JXPathContext context;
+    private CompiledExpression simplePath;
+    private CompiledExpression specializedPath;
+    private CompiledExpression contextPath;
+    private CompiledExpression iteratePath;
+
+    @Benchmark
+    public Object contextPath() {
+        return contextPath.getValue(context);
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole blackhole) {
+        final Iterator<?> it = iteratePath.iterate(context);
+        while (it.hasNext()) {
+            blackhole.consume(it.next());
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = JXPathContext.newContext(Fixtures.newBeans(size));
+        final int middle = size / 2 + 1;
+        simplePath = JXPathContext.compile("/order[" + middle + "]/items[2]/price");
+        contextPath = JXPathContext.compile("/order[position() = " + middle + "]/items[position() = 2]/price");
+        iteratePath = JXPathContext.compile("/order/customer");
+        JXPathContextReferenceImpl.setSpecializing(true);
+        try {
+            specializedPath = JXPathContext.compile("/order[" + middle + "]/items[2]/price");
+        } finally {
+            JXPathContextReferenceImpl.setSpecializing(false);
+        }
+    }
+
+    @Benchmark
+    public Object simplePath() {
+        return simplePath.getValue(context);
+    }
+
+    @Benchmark
+    public Object specializedPath() {
+        return specializedPath.getValue(context);
+    }
+}
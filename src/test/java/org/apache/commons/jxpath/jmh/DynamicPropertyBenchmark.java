@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.MapDynamicPropertyHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Map} access through the {@link MapDynamicPropertyHandler}: direct handler calls, a child step and a {@code [@name = ...]} lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DynamicPropertyBenchmark {
+
+    @Param({ "10", "1000" })
+    private int size;
+
+    private final MapDynamicPropertyHandler handler = new MapDynamicPropertyHandler();
+    private Map<String, Object> map;
+    private String key;
+    private JXPathContext context;
+    private CompiledExpression childStep;
+    private CompiledExpression nameAttribute;
+    private CompiledExpression count;
+
+    @Benchmark
+    public Object childStep() {
+        return childStep.getValue(context);
+    }
+
+    @Benchmark
+    public Object count() {
+        return count.getValue(context);
+    }
+
+    @Benchmark
+    public Object handlerGetProperty() {
+        return handler.getProperty(map, key);
+    }
+
+    @Benchmark
+    public Object handlerGetPropertyNames() {
+        return handler.getPropertyNames(map);
+    }
+
+    @Benchmark
+    public Object nameAttribute() {
+        return nameAttribute.getValue(context);
+    }
+
+    @Setup
+    public void setUp() {
+        map = Fixtures.newMap(size);
+        key = "key" + size / 2;
+        context = JXPathContext.newContext(map);
+        childStep = JXPathContext.compile("/" + key);
+        nameAttribute = JXPathContext.compile("/.[@name = '" + key + "']");
+        count = JXPathContext.compile("count(/*)");
+    }
+}
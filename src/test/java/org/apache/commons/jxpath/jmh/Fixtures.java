@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.commons.jxpath.xml.TinyParser;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Generated, deterministic models shared by the benchmarks, so that they run without external files.
+ * <p>
+ * Every model has the same shape: a root {@code orders} containing {@code size} {@code order} nodes, each with an {@code id} attribute, a {@code customer}
+ * and three {@code item}s with a {@code price} and a {@code qty}.
+ * </p>
+ */
+final class Fixtures {
+
+    /**
+     * An order line.
+     */
+    public static final class Item {
+
+        private final String name;
+        private final double price;
+        private final int qty;
+
+        Item(final String name, final double price, final int qty) {
+            this.name = name;
+            this.price = price;
+            this.qty = qty;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public int getQty() {
+            return qty;
+        }
+    }
+
+    /**
+     * An order.
+     */
+    public static final class Order {
+
+        private final int id;
+        private final String customer;
+        private final List<Item> items = new ArrayList<>();
+
+        Order(final int id, final String customer) {
+            this.id = id;
+            this.customer = customer;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+    }
+
+    /**
+     * The root bean.
+     */
+    public static final class Orders {
+
+        private final List<Order> order = new ArrayList<>();
+
+        public List<Order> getOrder() {
+            return order;
+        }
+    }
+
+    static final int ITEMS_PER_ORDER = 3;
+
+    static String customer(final int i) {
+        return "c" + i % 97;
+    }
+
+    static Orders newBeans(final int size) {
+        final Orders orders = new Orders();
+        for (int i = 0; i < size; i++) {
+            final Order order = new Order(i, customer(i));
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                order.getItems().add(new Item("i" + j, price(i, j), j + 1));
+            }
+            orders.getOrder().add(order);
+        }
+        return orders;
+    }
+
+    static Document newDom(final int size) {
+        final Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (final ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        final Element root = document.createElement("orders");
+        document.appendChild(root);
+        for (int i = 0; i < size; i++) {
+            final Element order = document.createElement("order");
+            order.setAttribute("id", String.valueOf(i));
+            final Element customer = document.createElement("customer");
+            customer.appendChild(document.createTextNode(customer(i)));
+            order.appendChild(customer);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                final Element item = document.createElement("item");
+                final Element price = document.createElement("price");
+                price.appendChild(document.createTextNode(String.valueOf(price(i, j))));
+                item.appendChild(price);
+                final Element qty = document.createElement("qty");
+                qty.appendChild(document.createTextNode(String.valueOf(j + 1)));
+                item.appendChild(qty);
+                order.appendChild(item);
+            }
+            root.appendChild(order);
+        }
+        return document;
+    }
+
+    static org.jdom.Document newJdom(final int size) {
+        final org.jdom.Element root = new org.jdom.Element("orders");
+        for (int i = 0; i < size; i++) {
+            final org.jdom.Element order = new org.jdom.Element("order");
+            order.setAttribute("id", String.valueOf(i));
+            order.addContent(new org.jdom.Element("customer").setText(customer(i)));
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                final org.jdom.Element item = new org.jdom.Element("item");
+                item.addContent(new org.jdom.Element("price").setText(String.valueOf(price(i, j))));
+                item.addContent(new org.jdom.Element("qty").setText(String.valueOf(j + 1)));
+                order.addContent(item);
+            }
+            root.addContent(order);
+        }
+        return new org.jdom.Document(root);
+    }
+
+    static Map<String, Object> newMap(final int size) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put("key" + i, Integer.valueOf(i));
+        }
+        return map;
+    }
+
+    static Object newTiny(final int size) {
+        final StringWriter xml = new StringWriter();
+        try {
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(newDom(size)), new StreamResult(xml));
+        } catch (final TransformerException e) {
+            throw new IllegalStateException(e);
+        }
+        return new TinyParser().parseXML(new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static double price(final int i, final int j) {
+        return (i * 31 + j * 7) % 1000 + 0.5;
+    }
+
+    private Fixtures() {
+        // no instances
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.ri.Compiler;
+import org.apache.commons.jxpath.ri.Parser;
+import org.apache.commons.jxpath.ri.compiler.TreeCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures cold-compile throughput, that is parsing XPath strings without the expression cache, with 1 to N threads parsing at the same time.
+ * <p>
+ * Each invocation parses a batch of {@value #BATCH_SIZE} distinct expressions split evenly across {@code threads} workers, so the score is comparable
+ * across thread counts.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final String[] TEMPLATES = { "/orders/order[@id = %d]/item[%d]/price", "count(//customer[name = 'c%d']) + %d",
+            "/a/b[position() < %d]/c[@x != 'y%d'] | /a/d", "substring-after(/root/node%d, 'x') = string(%d)", "sum(/ledger/entry[amount > %d]/amount) div %d",
+            "$var%d/child::node()[last() - %d]", "ancestor-or-self::*[@lang][%d]/following-sibling::item%d", "not(/flags/f%d) and /limits/max > %d" };
+
+    @Param({ "1", "2", "4", "8" })
+    private int threads;
+
+    private String[] expressions;
+    private ExecutorService executor;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void parse(final Blackhole blackhole) throws InterruptedException, ExecutionException {
+        final int chunk = BATCH_SIZE / threads;
+        final List<Future<Object>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final int from = t * chunk;
+            final int to = t == threads - 1 ? BATCH_SIZE : from + chunk;
+            futures.add(executor.submit(() -> {
+                final Compiler compiler = new TreeCompiler();
+                Object last = null;
+                for (int i = from; i < to; i++) {
+                    last = Parser.parseExpression(expressions[i], compiler);
+                }
+                return last;
+            }));
+        }
+        for (final Future<Object> future : futures) {
+            blackhole.consume(future.get());
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        expressions = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            expressions[i] = String.format(TEMPLATES[i % TEMPLATES.length], i, i + 1);
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+}
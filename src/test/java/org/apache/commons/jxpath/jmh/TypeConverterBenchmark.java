@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.util.BasicTypeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BasicTypeConverter#convert(Object, Class)} for the conversions XPath evaluation performs most often.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TypeConverterBenchmark {
+
+    @Param({ "String->Double", "String->int", "Double->String", "Integer->double", "Boolean->String", "List->String[]", "int[]->List" })
+    private String conversion;
+
+    private final BasicTypeConverter converter = new BasicTypeConverter();
+    private Object value;
+    private Class<?> toType;
+
+    @Benchmark
+    public Object convert() {
+        return converter.convert(value, toType);
+    }
+
+    @Setup
+    public void setUp() {
+        final List<String> list = Arrays.asList("a", "b", "c");
+        switch (conversion) {
+        case "String->Double":
+            value = "123.5";
+            toType = Double.class;
+            break;
+        case "String->int":
+            value = "42";
+            toType = int.class;
+            break;
+        case "Double->String":
+            value = Double.valueOf(123.5);
+            toType = String.class;
+            break;
+        case "Integer->double":
+            value = Integer.valueOf(42);
+            toType = double.class;
+            break;
+        case "Boolean->String":
+            value = Boolean.TRUE;
+            toType = String.class;
+            break;
+        case "List->String[]":
+            value = list;
+            toType = String[].class;
+            break;
+        case "int[]->List":
+            value = new int[] { 1, 2, 3 };
+            toType = List.class;
+            break;
+        default:
+            throw new IllegalArgumentException(conversion);
+        }
+    }
+}
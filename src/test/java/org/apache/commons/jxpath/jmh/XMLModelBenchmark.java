@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.JXPathContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code descendant::} queries over the same document loaded as DOM, as JDOM and as a tiny tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class XMLModelBenchmark {
+
+    @Param({ "DOM", "JDOM", "TINY" })
+    private String model;
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    @Param({ "count(//price)", "//order[@id = '42']/customer", "count(/orders/descendant::item[qty > 2])" })
+    private String xpath;
+
+    private JXPathContext context;
+    private CompiledExpression expression;
+
+    @Benchmark
+    public Object getValue() {
+        return expression.getValue(context);
+    }
+
+    @Setup
+    public void setUp() {
+        final Object document;
+        switch (model) {
+        case "DOM":
+            document = Fixtures.newDom(size);
+            break;
+        case "JDOM":
+            document = Fixtures.newJdom(size);
+            break;
+        default:
+            document = Fixtures.newTiny(size);
+            break;
+        }
+        context = JXPathContext.newContext(document);
+        context.setLenient(true);
+        expression = JXPathContext.compile(xpath);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.ri.compiler.Constant;
+import org.apache.commons.jxpath.ri.compiler.Expression;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ExpressionCache}.
+ */
+class ExpressionCacheTest {
+
+    @Test
+    void testContextUsesCache() {
+        final ExpressionCache saved = JXPathContextReferenceImpl.getExpressionCache();
+        final ExpressionCache cache = new ExpressionCache(100, false);
+        JXPathContextReferenceImpl.setExpressionCache(cache);
+        try {
+            final JXPathContext context = JXPathContext.newContext(Double.valueOf(1));
+            assertEquals(Double.valueOf(3), context.getValue("/ + 2"));
+            assertEquals(Double.valueOf(3), context.getValue("/ + 2"));
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            JXPathContextReferenceImpl.setExpressionCache(saved);
+        }
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        final ExpressionCache cache = new ExpressionCache(10, false);
+        final Expression hot = new Constant("hot");
+        cache.put("hot", hot);
+        for (int i = 0; i < 100; i++) {
+            assertSame(hot, cache.get("hot"));
+            cache.put("cold" + i, new Constant(Integer.valueOf(i)));
+        }
+        assertTrue(cache.size() <= 10, cache.toString());
+        assertTrue(cache.getEvictionCount() >= 90, cache.toString());
+        assertSame(hot, cache.get("hot"));
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        final ExpressionCache cache = new ExpressionCache();
+        final Expression expression = new Constant("a");
+        assertNull(cache.get("'a'"));
+        cache.put("'a'", expression);
+        assertSame(expression, cache.get("'a'"));
+        assertSame(expression, cache.get("'a'"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitCount());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidMaximumSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionCache(0, true));
+        assertThrows(NullPointerException.class, () -> JXPathContextReferenceImpl.setExpressionCache(null));
+    }
+
+    @Test
+    void testSoftValues() {
+        final ExpressionCache cache = new ExpressionCache(10, true);
+        assertTrue(cache.isSoftValues());
+        final Expression expression = new Constant("a");
+        cache.put("'a'", expression);
+        assertNotNull(cache.get("'a'"));
+    }
+}
@@ -43,10 +43,12 @@ import org.apache.commons.jxpath.ri.compiler.ExtensionFunction;
 import org.apache.commons.jxpath.ri.compiler.LocationPath;
 import org.apache.commons.jxpath.ri.compiler.NameAttributeTest;
 import org.apache.commons.jxpath.ri.compiler.VariableReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 /**
- * Test compiler.
+ * Test compiler. The tests check the tree built from the source, so they turn optimization off.
  */
 class JXPathCompiledExpressionTest extends AbstractJXPathTest {
 
@@ -64,6 +66,18 @@ class JXPathCompiledExpressionTest extends AbstractJXPathTest {
         assertEquals(expected, expression.getExpression().toString(), "Expression toString() for " + xpath);
     }
 
+    @Override
+    @BeforeEach
+    protected void setUp() throws Exception {
+        super.setUp();
+        JXPathContextReferenceImpl.setOptimizing(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        JXPathContextReferenceImpl.setOptimizing(true);
+    }
+
     @Test
     void testConstant() {
         assertXPathExpression("1", Constant.class);
@@ -17,11 +17,104 @@
 
 package org.apache.commons.jxpath.ri;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import org.apache.commons.jxpath.DynamicPropertyHandler;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathIntrospector;
+import org.apache.commons.jxpath.ri.model.NodePointer;
+import org.apache.commons.jxpath.ri.model.NodePointerFactory;
+import org.apache.commons.jxpath.ri.model.beans.BeanPointer;
+import org.apache.commons.jxpath.ri.model.beans.NullPointer;
 import org.apache.commons.jxpath.ri.model.container.ContainerPointerFactory;
+import org.apache.commons.jxpath.ri.model.dynamic.DynamicPointer;
 import org.junit.jupiter.api.Test;
 
 public class JXPathContextReferenceImplTestCase {
 
+    public static final class Hidden {
+        // no properties
+    }
+
+    /**
+     * Hides {@link Hidden} objects behind null pointers.
+     */
+    private static final class HidingPointerFactory implements NodePointerFactory {
+
+        @Override
+        public NodePointer createNodePointer(final NodePointer parent, final QName qName, final Object object) {
+            return object instanceof Hidden ? new NullPointer(parent, qName) : null;
+        }
+
+        @Override
+        public NodePointer createNodePointer(final QName qName, final Object object, final Locale locale) {
+            return object instanceof Hidden ? new NullPointer(qName, locale) : null;
+        }
+
+        @Override
+        public int getOrder() {
+            return 1;
+        }
+    }
+
+    public static final class LateDynamic {
+
+        public String getFoo() {
+            return "bean";
+        }
+    }
+
+    public static final class LateDynamicHandler implements DynamicPropertyHandler {
+
+        @Override
+        public Object getProperty(final Object object, final String propertyName) {
+            return "dynamic";
+        }
+
+        @Override
+        public String[] getPropertyNames(final Object object) {
+            return new String[] { "foo" };
+        }
+
+        @Override
+        public void setProperty(final Object object, final String propertyName, final Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    void testFactoryDispatchFollowsFactories() {
+        final Hidden hidden = new Hidden();
+        assertInstanceOf(BeanPointer.class, JXPathContext.newContext(hidden).getContextPointer());
+        final NodePointerFactory factory = new HidingPointerFactory();
+        try {
+            JXPathContextReferenceImpl.addNodePointerFactory(factory);
+            assertInstanceOf(NullPointer.class, JXPathContext.newContext(hidden).getContextPointer());
+            final NodePointer property = (NodePointer) JXPathContext.newContext(Collections.singletonMap("hidden", hidden)).getPointer("hidden");
+            assertInstanceOf(NullPointer.class, property.getValuePointer());
+        } finally {
+            while (JXPathContextReferenceImpl.removeNodePointerFactory(factory)) {
+                // NOP
+            }
+        }
+        assertInstanceOf(BeanPointer.class, JXPathContext.newContext(hidden).getContextPointer());
+    }
+
+    @Test
+    void testFactoryDispatchFollowsIntrospector() {
+        final LateDynamic bean = new LateDynamic();
+        assertEquals("bean", JXPathContext.newContext(bean).getValue("foo"));
+        JXPathIntrospector.registerDynamicClass(LateDynamic.class, LateDynamicHandler.class);
+        assertInstanceOf(DynamicPointer.class, JXPathContext.newContext(bean).getContextPointer());
+        assertEquals("dynamic", JXPathContext.newContext(bean).getValue("foo"));
+        final NodePointer property = (NodePointer) JXPathContext.newContext(Collections.singletonMap("late", bean)).getPointer("late");
+        assertInstanceOf(DynamicPointer.class, property.getValuePointer());
+    }
+
     /**
      * https://issues.apache.org/jira/browse/JXPATH-166
      */
@@ -20,7 +20,19 @@ package org.apache.commons.jxpath.ri;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.CompiledExpression;
 import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.TestBean;
+import org.apache.commons.jxpath.ri.compiler.TreeCompiler;
+import org.apache.commons.jxpath.xml.DocumentContainer;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -53,6 +65,78 @@ class StressTest {
     private static int count;
     private static Throwable exception;
 
+    private static List<String> evaluate(final CompiledExpression expression, final JXPathContext context) {
+        final List<String> result = new ArrayList<>();
+        result.add(String.valueOf(expression.getValue(context)));
+        expression.iteratePointers(context).forEachRemaining(pointer -> result.add(pointer.asPath()));
+        return result;
+    }
+
+    @Test
+    void testCompiledExpressionsConcurrently() throws Exception {
+        final URL vendor = AbstractJXPathTest.class.getResource("Vendor.xml");
+        final JXPathContext[] contexts = { JXPathContext.newContext(new TestBean()), JXPathContext.newContext(new DocumentContainer(vendor)),
+                JXPathContext.newContext(new DocumentContainer(vendor, DocumentContainer.MODEL_JDOM)) };
+        final CompiledExpression[][] expressions = {
+                { JXPathContext.compile("nestedBean/strings[2]"), JXPathContext.compile("integers[position() > 2]"), JXPathContext.compile("count(beans/int)"),
+                        JXPathContext.compile("beans[int = 3]/name"), JXPathContext.compile("lang('en')") },
+                { JXPathContext.compile("//location[@id = '101']/address/street"), JXPathContext.compile("count(//*)"),
+                        JXPathContext.compile("//contact[@name = 'jack']"), JXPathContext.compile("sum(//location/@id)"),
+                        JXPathContext.compile("/vendor/location[last()]//text()") } };
+        final List<List<String>> expected = new ArrayList<>();
+        for (int c = 0; c < contexts.length; c++) {
+            for (final CompiledExpression expression : expressions[Math.min(c, 1)]) {
+                expected.add(evaluate(expression, contexts[c]));
+            }
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < THREAD_DURATION / 10; i++) {
+                        int e = 0;
+                        for (int c = 0; c < contexts.length; c++) {
+                            for (final CompiledExpression expression : expressions[Math.min(c, 1)]) {
+                                assertEquals(expected.get(e++), evaluate(expression, contexts[c]), expression.toString());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testParseConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    final TreeCompiler compiler = new TreeCompiler();
+                    for (int i = 0; i < THREAD_DURATION; i++) {
+                        final String xpath = "/a" + thread + "/b[@c = " + i + "]";
+                        assertEquals(xpath, Parser.parseExpression(xpath, compiler).toString());
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void testThreads() throws Throwable {
         context = JXPathContext.newContext(null, Double.valueOf(100));
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathNotFoundException;
+import org.apache.commons.jxpath.NestedTestBean;
+import org.apache.commons.jxpath.TestBean;
+import org.apache.commons.jxpath.ri.JXPathCompiledExpression;
+import org.apache.commons.jxpath.ri.JXPathContextReferenceImpl;
+import org.apache.commons.jxpath.ri.Parser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BeanPath}.
+ */
+class BeanPathTest extends AbstractJXPathTest {
+
+    /**
+     * Counts the reads of a null property.
+     */
+    public static final class CountingBean {
+
+        private int reads;
+
+        public String getName() {
+            reads++;
+            return null;
+        }
+    }
+
+    private static final String[] PATHS = { "int", "nestedBean", "nestedBean/name", "nestedBean/int", "/nestedBean/strings[2]", "nestedBean/strings",
+            "nestedBean/strings[1]", "beans[2]/name", "beans[3]/name", "beans/name", "beans", "beans[1]", "integers", "integers[2]", "integers[5]", "list[1]",
+            "list[2]", "list[3]/name", "list", "map", "map/Key1", "map[1]/Key2/name", "object/name", "objects[3]", "nestedBean[1]/name", "nestedBean[2]/name",
+            "int[1]", "int[2]", "missing", "nestedBean/missing", "beans[1.5]/name", "beans[2]/strings[3]", "object/strings[1]", "@int", "nestedBean/@name" };
+
+    private static CompiledExpression compile(final String xpath, final boolean specialize) {
+        return new JXPathCompiledExpression(xpath, (Expression) Parser.parseExpression(xpath, new TreeCompiler()), specialize);
+    }
+
+    private static Object getValue(final CompiledExpression expression, final JXPathContext context) {
+        try {
+            final Object value = expression.getValue(context);
+            if (value instanceof Object[]) {
+                return Arrays.asList((Object[]) value);
+            }
+            return value instanceof int[] ? Arrays.toString((int[]) value) : value;
+        } catch (final RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static BeanPath parse(final String xpath) {
+        return BeanPath.compile((Expression) Parser.parseExpression(xpath, new TreeCompiler()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JXPathContextReferenceImpl.setSpecializing(false);
+    }
+
+    @Test
+    void testCompile() {
+        assertNotNull(parse("order[3]/items[2]/price"));
+        assertNotNull(parse("/a/b"));
+        assertNull(parse("a/*"));
+        assertNull(parse("a/x:b"));
+        assertNull(parse("a/@b"));
+        assertNull(parse("a/.."));
+        assertNull(parse("//a"));
+        assertNull(parse("a[1][1]"));
+        assertNull(parse("a[0]"));
+        assertNull(parse("a[1.5]"));
+        assertNull(parse("a[last()]"));
+        assertNull(parse("a[b]"));
+        assertNull(parse("a[@id = 'x']"));
+        assertNull(parse("a[$i]"));
+        assertNull(parse("$x/a"));
+        assertNull(parse("count(a)"));
+    }
+
+    @Test
+    void testKeepsSemantics() {
+        for (final boolean lenient : new boolean[] { false, true }) {
+            for (final String xpath : PATHS) {
+                final JXPathContext context = JXPathContext.newContext(new TestBean());
+                context.setLenient(lenient);
+                final CompiledExpression specialized = compile(xpath, true);
+                // Twice, to read through the bound steps
+                assertEquals(getValue(compile(xpath, false), context), getValue(specialized, context), xpath);
+                assertEquals(getValue(compile(xpath, false), context), getValue(specialized, context), xpath);
+            }
+        }
+    }
+
+    @Test
+    void testReadsNullValueOnce() {
+        for (final boolean lenient : new boolean[] { false, true }) {
+            final CountingBean bean = new CountingBean();
+            final JXPathContext context = JXPathContext.newContext(bean);
+            context.setLenient(lenient);
+            assertNull(compile("name", true).getValue(context));
+            assertEquals(1, bean.reads);
+        }
+    }
+
+    @Test
+    void testRebinds() {
+        final CompiledExpression expression = compile("int", true);
+        assertEquals(1, expression.getValue(JXPathContext.newContext(new TestBean())));
+        assertEquals(1, expression.getValue(JXPathContext.newContext(new NestedTestBean("Name 0"))));
+        assertEquals(1, expression.getValue(JXPathContext.newContext(new TestBean())));
+        final CompiledExpression name = compile("name", true);
+        assertEquals("Name 0", name.getValue(JXPathContext.newContext(new NestedTestBean("Name 0"))));
+        // TestBean has no such property: the interpreter reports it
+        assertThrows(JXPathNotFoundException.class, () -> name.getValue(JXPathContext.newContext(new TestBean())));
+        assertEquals("Name 1", name.getValue(JXPathContext.newContext(new NestedTestBean("Name 1"))));
+    }
+
+    @Test
+    void testSetSpecializing() {
+        JXPathContextReferenceImpl.setSpecializing(true);
+        final CompiledExpression expression = JXPathContext.compile("nestedBean/strings[2]");
+        final JXPathContext context = JXPathContext.newContext(new TestBean());
+        assertEquals("String 2", expression.getValue(context));
+        assertEquals(Integer.valueOf(3), JXPathContext.compile("beans[2]/int").getValue(context, Integer.class));
+        assertEquals("3", JXPathContext.compile("beans[2]/int").getValue(context, String.class));
+    }
+}
@@ -17,13 +17,17 @@
 
 package org.apache.commons.jxpath.ri.compiler;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.ClassFunctions;
 import org.apache.commons.jxpath.ExtendedKeyManager;
 import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathFunctionNotFoundException;
 import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.TestMixedModelBean;
@@ -37,6 +41,20 @@ import org.junit.jupiter.api.Test;
  */
 class CoreFunctionTest extends AbstractJXPathTest {
 
+    /**
+     * Extension functions that share their names with the built-in min(), max() and avg().
+     */
+    public static class AggregateFunctions {
+
+        public static String avg(final Object nodes) {
+            return "user avg";
+        }
+
+        public static int max(final int a, final int b) {
+            return Math.max(a, b) * 10;
+        }
+    }
+
     private JXPathContext context;
 
     @Override
@@ -51,6 +69,57 @@ class CoreFunctionTest extends AbstractJXPathTest {
         }
     }
 
+    @Test
+    void testAggregateFunctions() {
+        assertXPathValue(context, "sum(bean/integers)", Double.valueOf(10));
+        assertXPathValue(context, "min(bean/integers)", Double.valueOf(1));
+        assertXPathValue(context, "max(bean/integers)", Double.valueOf(4));
+        assertXPathValue(context, "avg(bean/integers)", Double.valueOf(2.5));
+        assertXPathValue(context, "avg(document//location/@id)", Double.valueOf(100.5));
+        assertXPathValue(context, "max(document//location/@id | document//location[1]/@id)", Double.valueOf(101));
+        assertXPathValue(context, "count(document//location/@id | document//location[1]/@id)", Double.valueOf(2));
+        assertXPathValue(context, "sum(document//missing)", Double.valueOf(0));
+        assertXPathValue(context, "min(document//missing)", Double.valueOf(Double.NaN));
+        assertXPathValue(context, "max(document//missing)", Double.valueOf(Double.NaN));
+        assertXPathValue(context, "avg(document//missing)", Double.valueOf(Double.NaN));
+        assertXPathValue(context, "min(bean/integers) + max(bean/integers)", Double.valueOf(5));
+    }
+
+    @Test
+    void testAggregateFunctionsOfValues() {
+        final JXPathContext context = JXPathContext.newContext(null);
+        final Variables vars = context.getVariables();
+        vars.declareVariable("x", new int[] { 3, 1, 2 });
+        vars.declareVariable("l", Arrays.asList(Integer.valueOf(5), "7", Double.valueOf(6)));
+        vars.declareVariable("s", Integer.valueOf(4));
+        vars.declareVariable("empty", new int[0]);
+        assertXPathValue(context, "sum($x)", Double.valueOf(6));
+        assertXPathValue(context, "min($x)", Double.valueOf(1));
+        assertXPathValue(context, "max($x)", Double.valueOf(3));
+        assertXPathValue(context, "avg($x)", Double.valueOf(2));
+        assertXPathValue(context, "max($l)", Double.valueOf(7));
+        assertXPathValue(context, "min($l)", Double.valueOf(5));
+        assertXPathValue(context, "avg($s)", Double.valueOf(4));
+        assertXPathValue(context, "sum($s)", Double.valueOf(4));
+        assertXPathValue(context, "min($empty)", Double.valueOf(Double.NaN));
+        assertXPathValue(context, "avg($empty)", Double.valueOf(Double.NaN));
+        assertXPathValue(context, "sum($empty)", Double.valueOf(0));
+    }
+
+    @Test
+    void testAggregateFunctionsYieldToExtensionFunctions() {
+        final JXPathContext context = JXPathContext.newContext(new TestMixedModelBean());
+        context.setFunctions(new ClassFunctions(AggregateFunctions.class, null));
+        assertXPathValue(context, "max(1, 2)", Integer.valueOf(20));
+        assertXPathValue(context, "avg(.)", "user avg");
+        // No extension function matches: the built-in ones apply
+        assertXPathValue(context, "max(bean/integers)", Double.valueOf(4));
+        assertXPathValue(context, "min(bean/integers)", Double.valueOf(1));
+        context.getVariables().declareVariable("x", new int[] { 3, 1, 2 });
+        assertXPathValue(context, "min($x)", Double.valueOf(1));
+        assertThrows(JXPathFunctionNotFoundException.class, () -> context.getValue("min(1, 2)"));
+    }
+
     @Test
     void testCoreFunctions() {
         assertXPathValue(context, "string(2)", "2");
@@ -202,4 +271,32 @@ class CoreFunctionTest extends AbstractJXPathTest {
         context.setKeyManager((context, key, value) -> NodePointer.newNodePointer(null, "42", null));
         assertXPathValue(context, "key('a', 'b')", "42");
     }
+
+    @Test
+    void testLastAndCountShortcuts() {
+        // last() is counted once per set
+        assertXPathValue(context, "bean/integers[position() = last()]", Integer.valueOf(4));
+        assertXPathValue(context, "document/vendor/contact[position() = last()]", "Jack Black");
+        assertXPathValue(context, "document/vendor/contact[last() - 1]", "Jim");
+        assertXPathValue(context, "count(document/vendor/location/*[position() = last()])", Double.valueOf(2));
+        assertXPathValue(context, "count(document//*[position() = last()])", Double.valueOf(10));
+        // Predicates that do not depend on the node are computed once per set
+        assertXPathValue(context, "count(document/vendor/contact[$bool_true])", Double.valueOf(4));
+        assertXPathValue(context, "count(document/vendor/contact[$bool_false])", Double.valueOf(0));
+        assertXPathValue(context, "document/vendor/contact[$bool_true][2]", "Jack");
+        // count() compared with a constant stops counting once the comparison is decided
+        assertXPathValue(context, "count(bean/integers) > 3", Boolean.TRUE);
+        assertXPathValue(context, "count(bean/integers) >= 5", Boolean.FALSE);
+        assertXPathValue(context, "count(bean/integers) = 4", Boolean.TRUE);
+        assertXPathValue(context, "4 = count(bean/integers)", Boolean.TRUE);
+        assertXPathValue(context, "count(bean/integers) != 4", Boolean.FALSE);
+        assertXPathValue(context, "count(bean/integers) > -1", Boolean.TRUE);
+        assertXPathValue(context, "count(document//contact) > 3", Boolean.TRUE);
+        assertXPathValue(context, "count(document//contact) < 4", Boolean.FALSE);
+        assertXPathValue(context, "count(document//contact) = 4.5", Boolean.FALSE);
+        // boolean() and not() only look for the first node
+        assertXPathValue(context, "boolean(document//contact)", Boolean.TRUE);
+        assertXPathValue(context, "boolean(document//missing)", Boolean.FALSE);
+        assertXPathValue(context, "not(document//missing)", Boolean.TRUE);
+    }
 }
\ No newline at end of file
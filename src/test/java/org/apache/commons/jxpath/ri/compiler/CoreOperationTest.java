@@ -17,9 +17,20 @@
 
 package org.apache.commons.jxpath.ri.compiler;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.apache.commons.jxpath.AbstractJXPathTest;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.Variables;
+import org.apache.commons.jxpath.ri.EvalContext;
+import org.apache.commons.jxpath.ri.InfoSetUtil;
+import org.apache.commons.jxpath.ri.JXPathContextReferenceImpl;
+import org.apache.commons.jxpath.ri.Parser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -39,6 +50,8 @@ class CoreOperationTest extends AbstractJXPathTest {
             vars.declareVariable("integer", Integer.valueOf(1));
             vars.declareVariable("array", new double[] { 0.25, 0.5, 0.75 });
             vars.declareVariable("nan", Double.valueOf(Double.NaN));
+            vars.declareVariable("strings", new String[] { "a", "0.5", "b" });
+            vars.declareVariable("booleans", new Boolean[] { Boolean.FALSE });
         }
     }
 
@@ -137,4 +150,60 @@ class CoreOperationTest extends AbstractJXPathTest {
         assertXPathValue(context, "$array > 1", Boolean.FALSE, Boolean.class);
         assertXPathValue(context, "$array < 0", Boolean.FALSE, Boolean.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNodeSetEquality() {
+        assertXPathValue(context, "$array = $strings", Boolean.TRUE, Boolean.class);
+        assertXPathValue(context, "$strings = $array", Boolean.TRUE, Boolean.class);
+        assertXPathValue(context, "$strings = $strings", Boolean.TRUE, Boolean.class);
+        assertXPathValue(context, "$array[1] = $strings", Boolean.FALSE, Boolean.class);
+        assertXPathValue(context, "$strings = 'b'", Boolean.TRUE, Boolean.class);
+        assertXPathValue(context, "$strings = 'c'", Boolean.FALSE, Boolean.class);
+        assertXPathValue(context, "$booleans = $array", Boolean.FALSE, Boolean.class);
+        assertXPathValue(context, "$booleans = $strings[1]", Boolean.FALSE, Boolean.class);
+        assertXPathValue(context, "$array != $strings", Boolean.TRUE, Boolean.class);
+        assertXPathValue(context, "$strings[2] != $array[2]", Boolean.FALSE, Boolean.class);
+    }
+
+    @Test
+    void testNodeSetEqualityMatchesPairwiseComparison() {
+        final Object[] pool = { Boolean.TRUE, Boolean.FALSE, Double.valueOf(0), Double.valueOf(-0.0), Integer.valueOf(1), Double.valueOf(1.5),
+                Double.valueOf(Double.NaN), "", "1", "1.5", "true", "a", null, Arrays.asList("a"), Arrays.asList("a") };
+        final Random random = new Random(42);
+        for (final boolean invert : new boolean[] { false, true }) {
+            final CoreOperationCompare compare = invert ? new CoreOperationNotEqual(null, null) : new CoreOperationEqual(null, null);
+            for (int i = 0; i < 2000; i++) {
+                final List<Object> left = new ArrayList<>();
+                final List<Object> right = new ArrayList<>();
+                for (int j = random.nextInt(4); j > 0; j--) {
+                    left.add(pool[random.nextInt(pool.length)]);
+                }
+                for (int j = random.nextInt(4); j > 0; j--) {
+                    right.add(pool[random.nextInt(pool.length)]);
+                }
+                boolean expected = false;
+                for (final Object l : left) {
+                    for (final Object r : right) {
+                        expected |= compare.equal(l, r);
+                    }
+                }
+                assertEquals(expected, compare.findMatch(left.iterator(), right.iterator()), () -> left + (invert ? " != " : " = ") + right);
+            }
+        }
+    }
+
+    @Test
+    void testTypedEvaluationMatchesValue() {
+        final EvalContext root = ((JXPathContextReferenceImpl) context).getAbsoluteRootContext();
+        for (final String xpath : new String[] { "1 + 2 * 3", "7 mod 3", "-(1 div 0)", "0 div 0", "2 * 3 > 5", "$integer * 2 > 1", "1 = 1.0",
+                "(0 div 0) != (0 div 0)", "floor(2.5) <= round(2.5)", "ceiling(-0.5)", "round(0 div 0)", "sum($array) + count($array)",
+                "string-length('abc') = 3", "number('x')", "number(true())", "number('') < 1", "not(1 > 2) and true()", "1 > 2 or $nan", "1 + true()",
+                "$strings = 0.5", "last() + position()" }) {
+            final Expression expression = (Expression) Parser.parseExpression(xpath, new TreeCompiler());
+            final Object value = expression.computeValue(root);
+            assertEquals(InfoSetUtil.doubleValue(value), expression.computeDouble(root), xpath);
+            assertEquals(InfoSetUtil.booleanValue(value), expression.computeBoolean(root), xpath);
+            assertEquals(InfoSetUtil.stringValue(value), expression.computeString(root), xpath);
+        }
+    }
+}
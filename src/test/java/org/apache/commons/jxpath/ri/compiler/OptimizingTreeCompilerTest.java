@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.commons.jxpath.ri.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.TestBean;
+import org.apache.commons.jxpath.ri.JXPathContextReferenceImpl;
+import org.apache.commons.jxpath.ri.Parser;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OptimizingTreeCompiler}.
+ */
+class OptimizingTreeCompilerTest extends AbstractJXPathTest {
+
+    private static final String[] PATHS = { "1 + 2 * 3", "-(2) mod 3", "concat('a', string(1 div 0))", "substring('abcd', 1 + 1, 2)", "not(true()) or 1 = 1",
+            "integers[true()][2]", "integers[1 + 1]", "integers[true()]", "integers[1 = 1]/.", "list/.", "list[true()]", "./list", "beans/./name",
+            "./beans[1]/name", "beans[true() and name = concat('Name ', 1)]/int", "beans[false() or name = 'Name 2'][true()]/int",
+            "count(beans[position() > 1 or false()])", "sum(integers) + 2 * 3", "(integers | int) | nestedBean/int", "$x[true()][1]",
+            "$x/.", "int and true()", "int > 1 and 2 > 1", "false() and int", "nestedBean/../nestedBean/./name" };
+
+    private static List<Object> evaluate(final JXPathContext context, final String xpath) {
+        final List<Object> result = new ArrayList<>();
+        result.add(context.getValue(xpath));
+        result.add(context.getPointer(xpath).asPath());
+        for (final Iterator<?> it = context.iterate(xpath); it.hasNext();) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    private static String optimize(final String xpath) {
+        return Parser.parseExpression(xpath, new OptimizingTreeCompiler()).toString();
+    }
+
+    @Test
+    void testKeepsSemantics() {
+        final JXPathContext context = JXPathContext.newContext(new TestBean());
+        context.getVariables().declareVariable("x", new int[] { 4, 5 });
+        for (final String xpath : PATHS) {
+            final List<Object> optimized = evaluate(context, xpath);
+            JXPathContextReferenceImpl.setOptimizing(false);
+            try {
+                assertEquals(evaluate(context, xpath), optimized, xpath);
+            } finally {
+                JXPathContextReferenceImpl.setOptimizing(true);
+            }
+        }
+    }
+
+    @Test
+    void testRewrites() {
+        assertEquals("7", optimize("1 + 2 * 3"));
+        assertEquals("'ab'", optimize("concat('a', 'b')"));
+        assertEquals("false()", optimize("not(true())"));
+        assertEquals("3", optimize("string-length('abc')"));
+        assertEquals("true()", optimize("1 < 2 and 'x'"));
+        assertEquals("foo[2]", optimize("foo[1 + 1]"));
+        // Errors are left for evaluation
+        assertEquals("1 mod 0", optimize("1 mod 0"));
+        assertEquals("substring('abc')", optimize("substring('abc')"));
+        // Functions of the context are kept
+        assertEquals("string-length()", optimize("string-length()"));
+        assertEquals("last() + 1", optimize("last() + 1"));
+        assertEquals("boolean(foo)", optimize("foo and true()"));
+        assertEquals("foo or true()", optimize("foo or true() or bar"));
+        assertEquals("true()", optimize("true() or foo"));
+        assertEquals("foo = 1", optimize("foo = 1 or false()"));
+        assertEquals("foo[2]", optimize("foo[true()][2]"));
+        assertEquals("foo[true()]", optimize("foo[true()]"));
+        assertEquals("foo[1]", optimize("foo['yes'][1]"));
+        assertEquals("$x[true()][1]/a", optimize("$x[true()][1]/./a"));
+        assertEquals("a | b | c", optimize("(a | b) | c"));
+        assertEquals("a/b/.", optimize("./a/./b/."));
+        assertEquals(".", optimize("./."));
+    }
+}
@@ -512,12 +512,24 @@ public abstract class AbstractBeanModelTest extends AbstractJXPathTest {
         assertXPathValueIterator(context, "nestedBean/strings", list());
     }
 
+    @Test
+    void testRemoveAllArrayElementsSubset() {
+        context.removeAll("nestedBean/strings[position() != 2]");
+        assertXPathValueIterator(context, "nestedBean/strings", list("String 2"));
+    }
+
     @Test
     void testRemoveAllListElements() {
         context.removeAll("list");
         assertXPathValueIterator(context, "list", this instanceof DynaBeanModelTest ? list(null, null, null) : list());
     }
 
+    @Test
+    void testRemoveAllListElementsSubset() {
+        context.removeAll("list[position() > 1]");
+        assertXPathValueIterator(context, "list", this instanceof DynaBeanModelTest ? list("String 3", null, null) : list("String 3"));
+    }
+
     @Test
     void testRemoveAllMapEntries() {
         context.removeAll("map/*");
@@ -20,6 +20,17 @@ package org.apache.commons.jxpath.ri.model;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.jxpath.AbstractFactory;
 import org.apache.commons.jxpath.AbstractJXPathTest;
@@ -27,9 +38,11 @@ import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.jxpath.JXPathException;
 import org.apache.commons.jxpath.Pointer;
 import org.apache.commons.jxpath.Variables;
+import org.apache.commons.jxpath.ri.JXPathContextReferenceImpl;
 import org.apache.commons.jxpath.xml.DocumentContainer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Abstract superclass for pure XPath 1.0. Subclasses apply the same XPaths to contexts using different models: DOM, JDOM etc.
@@ -78,6 +91,38 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
         }
     }
 
+    @Test
+    void testAttributeIndex() {
+        context.getVariables().declareVariable("id", "101");
+        context.getVariables().declareVariable("number", Integer.valueOf(101));
+        final JXPathContext indexed = JXPathContext.newContext(context, context.getContextBean());
+        indexed.registerAttributeIndex("id");
+        indexed.registerAttributeIndex("name");
+        for (final String xpath : new String[] { "//location[@id = '101']", "//location[@id = $id]", "//location[$id = @id]/address",
+                "//location[@id = $number]", "//location[@id = 101]", "//contact[@name = 'jack']", "//contact[@name = 'jack'][2]",
+                "//contact['jack' = @name][@name]", "vendor/descendant::contact[@name = 'jim']", "/descendant-or-self::vendor[@name = 'fruitco']",
+                "//*[@name = 'jack']", "//contact[@name = 'joe']", "$document//contact[@name = 'jack']", "$container//location[@id = '100']//street" }) {
+            final List<String> expected = new ArrayList<>();
+            context.iteratePointers(xpath).forEachRemaining(pointer -> expected.add(pointer.asPath()));
+            final List<String> actual = new ArrayList<>();
+            indexed.iteratePointers(xpath).forEachRemaining(pointer -> actual.add(pointer.asPath()));
+            assertEquals(expected, actual, xpath);
+        }
+        assertEquals("Jack Black", indexed.getValue("//contact[@name = 'jack'][2]"));
+    }
+
+    @Test
+    public void testAttributeIndexUpdates() {
+        context.registerAttributeIndex("name");
+        assertEquals(Double.valueOf(2), context.getValue("count(//contact[@name = 'jack'])"));
+        context.createPathAndSetValue("vendor/contact[1]/@name", "jack");
+        assertXPathValueIterator(context, "//contact[@name = 'jack']", list("John", "Jack", "Jack Black"));
+        context.removePath("vendor/contact[2]/@name");
+        context.setValue("vendor/contact[4]/@name", "jim");
+        assertXPathValueIterator(context, "//contact[@name = 'jack']", list("John"));
+        assertXPathValueIterator(context, "//contact[@name = 'jim']", list("Jim", "Jack Black"));
+    }
+
     @Test
     void testAxisAncestor() {
         // ancestor::
@@ -285,7 +330,7 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
      * Test JXPathContext.createPath() with various arguments
      */
     @Test
-    void testCreatePath() {
+    public void testCreatePath() {
         // Create a DOM element
         assertXPathCreatePath(context, "/vendor[1]/location[3]", "", "/vendor[1]/location[3]");
         // Create a DOM element with contents
@@ -303,7 +348,7 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
      * Test JXPath.createPathAndSetValue() with various arguments
      */
     @Test
-    void testCreatePathAndSetValue() {
+    public void testCreatePathAndSetValue() {
         // Create a XML element
         assertXPathCreatePathAndSetValue(context, "vendor/location[3]", "", "/vendor[1]/location[3]");
         // Create a DOM element with contents
@@ -333,11 +378,78 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
         assertDocumentOrder(context, "vendor//price:amount", "vendor/location", 1);
     }
 
+    @Test
+    void testDocumentOrderKeys() {
+        final List<NodePointer> expected = new ArrayList<>();
+        for (final Iterator<?> it = context.iteratePointers("/vendor//node() | /vendor//@*"); it.hasNext();) {
+            expected.add((NodePointer) it.next());
+        }
+        final List<NodePointer> sorted = new ArrayList<>(expected);
+        Collections.shuffle(sorted, new Random(1));
+        Collections.sort(sorted);
+        assertEquals(expected, sorted);
+        Collections.shuffle(sorted, new Random(2));
+        assertTrue(DocumentOrder.sort(sorted, false));
+        assertEquals(expected, sorted);
+        assertTrue(DocumentOrder.sort(sorted, true));
+        Collections.reverse(sorted);
+        assertEquals(expected, sorted);
+    }
+
     @Test
     void testElementInVariable() {
         assertXPathValue(context, "$element", "Orchard Road");
     }
 
+    @Test
+    void testElementNameIndex() {
+        final JXPathContext indexed = JXPathContext.newContext(context, context.getContextBean());
+        indexed.setElementNameIndexEnabled(true);
+        for (final String xpath : new String[] { "//location", "//street", "vendor//street", "//location[@id = '101']//street", "//location[address]/@id",
+                "//contact[starts-with(., 'J') and @name]", "//contact[2]", "//contact[last()]", "//product:name", "//price:amount", "//value:amount",
+                "/vendor/descendant::address", "//location/descendant-or-self::location", "//nothing", "$container//street", "$document/vendor//location",
+                "$element//street", "//location[1]//*" }) {
+            final List<String> expected = new ArrayList<>();
+            context.iteratePointers(xpath).forEachRemaining(pointer -> expected.add(pointer.asPath()));
+            final List<String> actual = new ArrayList<>();
+            indexed.iteratePointers(xpath).forEachRemaining(pointer -> actual.add(pointer.asPath()));
+            assertEquals(expected, actual, xpath);
+        }
+        assertEquals(Double.valueOf(4), indexed.getValue("count(//contact)"));
+        assertEquals("Tangerine Drive", indexed.getValue("//location[@id = '101']//street"));
+    }
+
+    @Test
+    void testElementNameIndexOfDeepDocument(@TempDir final Path directory) throws IOException {
+        final int depth = 20_000;
+        final StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            xml.append("<e>");
+        }
+        xml.append("<x/>");
+        for (int i = 0; i < depth; i++) {
+            xml.append("</e>");
+        }
+        final Path file = Files.write(directory.resolve("deep.xml"), xml.toString().getBytes(StandardCharsets.UTF_8));
+        final JXPathContext deep = JXPathContext.newContext(new DocumentContainer(file.toUri().toURL(), getModel()));
+        assertEquals(Double.valueOf(1), deep.getValue("count(//x)"));
+        deep.setElementNameIndexEnabled(true);
+        assertEquals(Double.valueOf(1), deep.getValue("count(//x)"));
+        assertEquals(Double.valueOf(depth), deep.getValue("count(//e)"));
+    }
+
+    @Test
+    public void testElementNameIndexUpdates() {
+        context.setElementNameIndexEnabled(true);
+        assertEquals(Double.valueOf(2), context.getValue("count(//street)"));
+        context.createPathAndSetValue("vendor/location[3]/address/street", "Lemon Circle");
+        assertXPathValueIterator(context, "//street", list("Orchard Road", "Tangerine Drive", "Lemon Circle"));
+        context.removePath("vendor/location[1]");
+        assertXPathValueIterator(context, "//street", list("Tangerine Drive", "Lemon Circle"));
+        context.setValue("vendor/location[1]", "");
+        assertXPathValueIterator(context, "//street", list("Lemon Circle"));
+    }
+
     @Test
     void testFunctionsLastAndPosition() {
         assertXPathPointer(context, "vendor//location[last()]", "/vendor[1]/location[2]");
@@ -354,6 +466,18 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
         assertXPathPointerLenient(context, "id(105)/address/street", "id(105)/address/street");
     }
 
+    @Test
+    public void testIDAttributeNames() {
+        context.setIDAttributeNames("id", "name");
+        assertXPathValue(context, "id('101')//street", "Tangerine Drive");
+        assertXPathValue(context, "id('local')/address/street", "Orchard Road");
+        assertXPathValue(context, "id('jack')", "Jack");
+        assertEquals("Jim", context.getPointerByID("jim").getValue());
+        assertXPathPointerLenient(context, "id('nobody')", "id(nobody)");
+        context.removePath("vendor/contact[2]/@name");
+        assertXPathValue(context, "id('jack')", "Jack Black");
+    }
+
     @Test
     void testLang() {
         // xml:lang built-in attribute
@@ -421,11 +545,29 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
         assertXPathPointer(context, "//product/text()", "/vendor[1]/product[1]/text()[1]");
     }
 
+    @Test
+    public void testRemoveAll() {
+        context.removeAll("vendor/contact[position() > 1] | vendor/location/@* | vendor/location[@id = '101']/text()");
+        assertXPathValueIterator(context, "vendor/contact", list("John"));
+        assertEquals(Double.valueOf(0), context.getValue("count(vendor/location/@*)"), "Remove attributes");
+        assertEquals("Tangerine DriveFruit Market", context.getValue("normalize-space(vendor/location[2])"), "Remove text");
+        assertEquals("Orchard Road", context.getValue("vendor/location[1]/address/street"));
+    }
+
+    @Test
+    public void testRemovePointers() {
+        final List<Pointer> pointers = new ArrayList<>();
+        context.iteratePointers("//contact | //street").forEachRemaining(pointers::add);
+        assertEquals(6, ((JXPathContextReferenceImpl) context).removePointers(pointers));
+        assertEquals(Double.valueOf(0), context.getValue("count(//contact | //street)"));
+        assertEquals("Fruit Market", context.getValue("vendor/location[2]/address/city"));
+    }
+
     /**
      * Test JXPathContext.removePath() with various arguments
      */
     @Test
-    void testRemovePath() {
+    public void testRemovePath() {
         // Remove XML nodes
         context.removePath("vendor/location[@id = '101']//street/text()");
         assertEquals("", context.getValue("vendor/location[@id = '101']//street"), "Remove DOM text");
@@ -436,7 +578,7 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
     }
 
     @Test
-    void testSetValue() {
+    public void testSetValue() {
         assertXPathSetValue(context, "vendor/location[@id = '100']", "New Text");
         assertXMLSignature(context, "vendor/location[@id = '100']", "<E>New Text</E>", false, false, true, false);
         assertXPathSetValue(context, "vendor/location[@id = '101']", "Replacement Text");
@@ -455,5 +597,8 @@ public abstract class AbstractXMLModelTest extends AbstractJXPathTest {
     void testUnion() {
         assertXPathValue(context, "/vendor[1]/contact[1] | /vendor[1]/contact[4]", "John");
         assertXPathValue(context, "/vendor[1]/contact[4] | /vendor[1]/contact[1]", "John");
+        // Overlapping operands are deduplicated and merged in document order
+        assertXPathValueIterator(context, "/vendor/contact[@name = 'jack'] | /vendor/contact[3] | /vendor/contact[2]", list("Jack", "Jim", "Jack Black"));
+        assertXPathValueIterator(context, "//street | /vendor/contact[1] | //street[1]", list("John", "Orchard Road", "Tangerine Drive"));
     }
 }
\ No newline at end of file
@@ -22,8 +22,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.commons.jxpath.AbstractJXPathTest;
 import org.apache.commons.jxpath.JXPathContext;
@@ -196,6 +198,43 @@ class DynamicPropertiesModelTest extends AbstractJXPathTest {
         assertXPathPointerLenient(context, "//fruit/pear", "/map[@name='fruit']/pear");
     }
 
+    @Test
+    void testMixedMapKeys() {
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("a", "A");
+        map.put(Integer.valueOf(2), "two");
+        final JXPathContext mapContext = JXPathContext.newContext(null);
+        mapContext.getVariables().declareVariable("m", map);
+        // The key that is not a string is found by its string value after the string key
+        assertXPathValue(mapContext, "count($m[@name = '2'])", Double.valueOf(1));
+        assertXPathValue(mapContext, "count($m[@name = '3'])", Double.valueOf(0));
+        assertXPathValue(mapContext, "count($m/*)", Double.valueOf(2));
+    }
+
+    @Test
+    void testNamesOfMapKeys() {
+        final Map<Object, Object> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, Integer.valueOf(i));
+        }
+        map.put(Integer.valueOf(7), "seven");
+        final TreeMap<String, Object> sorted = new TreeMap<>();
+        sorted.put("b", "2");
+        sorted.put("a", "1");
+        final JXPathContext mapContext = JXPathContext.newContext(map);
+        mapContext.getVariables().declareVariable("sorted", sorted);
+        assertXPathValue(mapContext, "count(*)", Double.valueOf(101));
+        assertXPathValue(mapContext, "key42", Integer.valueOf(42));
+        assertXPathValue(mapContext, ".[@name = 'key42']", Integer.valueOf(42));
+        assertXPathValue(mapContext, "count(.[@name = 'key420'])", Double.valueOf(0));
+        // getProperty looks up the string, which is not a key
+        assertXPathPointer(mapContext, ".[@name = '7']", "/.[@name='7']");
+        assertXPathValue(mapContext, "name(key42/preceding-sibling::*[1])", "key41");
+        assertXPathValue(mapContext, "name($sorted/*[2])", "b");
+        assertXPathValue(mapContext, "$sorted[@name = 'a']", "1");
+        assertXPathValue(mapContext, "count($sorted/c)", Double.valueOf(0));
+    }
+
     @Test
     void testRemovePath() {
         final TestBean bean = (TestBean) context.getContextBean();
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.ri.model.tiny;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.jxpath.AbstractFactory;
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.ri.model.AbstractXMLModelTest;
+import org.apache.commons.jxpath.xml.DocumentContainer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests JXPath with tiny trees.
+ */
+class TinyModelTest extends AbstractXMLModelTest {
+
+    private void appendChildSignatures(final StringBuilder buffer, final TinyDocument document, final int node, final boolean elements, final boolean text) {
+        for (int child = document.getFirstChild(node); child >= 0; child = document.getNextSibling(child)) {
+            appendXMLSignature(buffer, document, child, elements, text);
+        }
+    }
+
+    private void appendXMLSignature(final StringBuilder buffer, final TinyDocument document, final int node, final boolean elements, final boolean text) {
+        switch (document.getKind(node)) {
+        case TinyDocument.DOCUMENT:
+            buffer.append("<D>");
+            appendChildSignatures(buffer, document, node, elements, text);
+            buffer.append("</D");
+            break;
+        case TinyDocument.ELEMENT:
+            final String prefix = document.getPrefix(node);
+            final String tag = elements ? prefix == null ? document.getLocalName(node) : prefix + ":" + document.getLocalName(node) : "E";
+            buffer.append("<");
+            buffer.append(tag);
+            buffer.append(">");
+            appendChildSignatures(buffer, document, node, elements, text);
+            buffer.append("</");
+            buffer.append(tag);
+            buffer.append(">");
+            break;
+        case TinyDocument.TEXT:
+            if (text) {
+                buffer.append(document.getText(node).replace('\n', '='));
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Lists the pointers a path selects.
+     */
+    private List<String> asPaths(final JXPathContext context, final String xpath) {
+        final List<String> paths = new ArrayList<>();
+        for (final Iterator<?> it = context.iteratePointers(xpath); it.hasNext();) {
+            paths.add(((Pointer) it.next()).asPath());
+        }
+        return paths;
+    }
+
+    @Override
+    protected AbstractFactory getAbstractFactory() {
+        return null;
+    }
+
+    @Override
+    protected String getModel() {
+        return DocumentContainer.MODEL_TINY;
+    }
+
+    @Override
+    protected String getXMLSignature(final Object node, final boolean elements, final boolean attributes, final boolean text, final boolean pi) {
+        final TinyNode tinyNode = (TinyNode) node;
+        final StringBuilder buffer = new StringBuilder();
+        appendXMLSignature(buffer, tinyNode.getDocument(), tinyNode.getNumber(), elements, text);
+        return buffer.toString();
+    }
+
+    @Test
+    void testAxesMatchDOM() {
+        final JXPathContext dom = JXPathContext.newContext(new DocumentContainer(AbstractJXPathTest.class.getResource("Vendor.xml")));
+        dom.registerNamespace("product", "productNS");
+        for (final String xpath : new String[] { "/vendor//node()", "//*", "//@id", "//text()", "/vendor/descendant::*",
+                "//location/descendant-or-self::node()", "//address/following::node()", "//street/preceding::*", "//product:name/following::*",
+                "//price:sale/preceding::text()", "//location[2]/following::*[2]", "//saleEnds/preceding::*[3]", "/vendor/product/node()[last()]",
+                "//location/*[1]/preceding-sibling::node()", "//contact/following-sibling::*", "//@id/following::location", "//@id/preceding::*" }) {
+            assertEquals(asPaths(dom, xpath), asPaths(context, xpath), xpath);
+        }
+    }
+
+    @Override
+    @Test
+    public void testAttributeIndexUpdates() {
+        context.registerAttributeIndex("name");
+        assertEquals(Double.valueOf(2), context.getValue("count(//contact[@name = 'jack'])"));
+        assertThrows(JXPathException.class, () -> context.setValue("vendor/contact[4]/@name", "jim"));
+    }
+
+    @Override
+    @Test
+    public void testCreatePath() {
+        assertThrows(JXPathException.class, () -> context.createPath("/vendor[1]/location[3]"));
+    }
+
+    @Override
+    @Test
+    public void testCreatePathAndSetValue() {
+        assertThrows(JXPathException.class, () -> context.createPathAndSetValue("vendor/location[3]", ""));
+    }
+
+    @Override
+    @Test
+    public void testElementNameIndexUpdates() {
+        context.setElementNameIndexEnabled(true);
+        assertEquals(Double.valueOf(2), context.getValue("count(//street)"));
+        assertThrows(JXPathException.class, () -> context.removePath("vendor/location[1]"));
+    }
+
+    @Test
+    void testFragment() throws Exception {
+        final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader("<a><b id='1'><c>x</c></b><b id='2'/></a>"));
+        reader.nextTag();
+        reader.nextTag();
+        final TinyDocument document = TinyDocument.build(reader);
+        assertTrue(reader.isEndElement());
+        assertEquals("b", reader.getLocalName());
+        final JXPathContext fragment = JXPathContext.newContext(document);
+        assertEquals("1", fragment.getValue("b/@id"));
+        assertEquals("x", fragment.getValue("//c"));
+        assertEquals(Double.valueOf(1), fragment.getValue("count(//b)"));
+    }
+
+    @Test
+    void testGetNode() {
+        assertXPathNodeType(context, "/", TinyNode.class);
+        assertXPathNodeType(context, "/vendor/location", TinyNode.class);
+        assertXPathNodeType(context, "//location/@name", TinyNode.class);
+        assertInstanceOf(TinyDocument.class, context.getContextBean() instanceof DocumentContainer
+                ? ((DocumentContainer) context.getContextBean()).getValue() : context.getContextBean());
+        assertEquals(context.getPointer("//location[2]").getNode(), context.getPointer("/vendor/location[@id = '101']").getNode());
+    }
+
+    @Override
+    @Test
+    public void testIDAttributeNames() {
+        context.setIDAttributeNames("id", "name");
+        assertXPathValue(context, "id('101')//street", "Tangerine Drive");
+        assertXPathValue(context, "id('local')/address/street", "Orchard Road");
+        assertXPathValue(context, "id('jack')", "Jack");
+        assertEquals("Jim", context.getPointerByID("jim").getValue());
+        assertXPathPointerLenient(context, "id('nobody')", "id(nobody)");
+    }
+
+    @Override
+    @Test
+    public void testRemoveAll() {
+        assertThrows(JXPathException.class, () -> context.removeAll("vendor/contact"));
+        assertEquals(Double.valueOf(4), context.getValue("count(vendor/contact)"));
+    }
+
+    @Override
+    @Test
+    public void testRemovePointers() {
+        testRemoveAll();
+    }
+
+    @Override
+    @Test
+    public void testRemovePath() {
+        assertThrows(JXPathException.class, () -> context.removePath("vendor/location[@id = '101']//street"));
+    }
+
+    @Override
+    @Test
+    public void testSetValue() {
+        assertThrows(JXPathException.class, () -> context.setValue("vendor/location[@id = '100']", "New Text"));
+        assertXMLSignature(context, "vendor/location[@id = '100']/address", "<E>=      <E>Orchard Road</E>=    </E>", false, false, true, false);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.NodeSet;
+import org.apache.commons.jxpath.xml.DocumentContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndexingKeyManagerTest extends AbstractJXPathTest {
+
+    private DocumentContainer container;
+    private IndexingKeyManager keyManager;
+    private JXPathContext context;
+
+    /**
+     * Indexes a new document that nothing else references.
+     *
+     * @return a weak reference to the document
+     */
+    private WeakReference<DocumentContainer> indexNewRoot() {
+        final DocumentContainer container = new DocumentContainer(AbstractJXPathTest.class.getResource("Vendor.xml"));
+        final JXPathContext context = JXPathContext.newContext(container);
+        context.setKeyManager(keyManager);
+        assertEquals("/vendor[1]/contact[2]", context.getPointerByKey("contact", "jack").asPath());
+        return new WeakReference<>(container);
+    }
+
+    private JXPathContext newContext() {
+        final JXPathContext context = JXPathContext.newContext(container);
+        context.setKeyManager(keyManager);
+        return context;
+    }
+
+    @Override
+    @BeforeEach
+    public void setUp() {
+        container = new DocumentContainer(AbstractJXPathTest.class.getResource("Vendor.xml"));
+        keyManager = new IndexingKeyManager();
+        keyManager.declareKey("contact", "//contact", "@name");
+        keyManager.declareKey("place", "//location", "address/*");
+        context = newContext();
+    }
+
+    @Test
+    void testGetPointerByKey() {
+        assertEquals("/vendor[1]/contact[2]", context.getPointerByKey("contact", "jack").asPath());
+        assertNull(context.getPointerByKey("contact", "joe"));
+    }
+
+    @Test
+    void testInvalidate() {
+        context.setValue("vendor/contact[4]/@name", "jim");
+        // Indexes are built on first use
+        assertXPathValueIterator(context, "key('contact', 'jim')", list("Jim", "Jack Black"));
+        context.setValue("vendor/contact[3]/@name", "jack");
+        assertXPathValueIterator(context, "key('contact', 'jim')", list("Jim", "Jack Black"));
+        keyManager.invalidateRoot(context.getContextPointer().getNode());
+        assertXPathValueIterator(context, "key('contact', 'jim')", list("Jack Black"));
+        keyManager.declareKey("contact", "//contact", "string(.)");
+        assertXPathValueIterator(context, "key('contact', 'Jim')/@name", list("jack"));
+    }
+
+    @Test
+    void testKey() {
+        assertXPathValueIterator(context, "key('contact', 'jack')", list("Jack", "Jack Black"));
+        assertXPathValue(context, "count(key('contact', 'jim'))", Double.valueOf(1));
+        assertXPathValue(context, "count(key('contact', 'joe'))", Double.valueOf(0));
+        assertXPathValueIterator(context, "key('contact', //contact[3]/@name | 'jack')", list("Jim", "Jack", "Jack Black"));
+        assertXPathValue(context, "key('place', 'Fruit Market')/@id", "101");
+        assertXPathValue(context, "key('place', 'Tangerine Drive')/@id", "101");
+        assertXPathValue(context, "key('place', 'Orchard Road')/employeeCount", "10");
+        assertThrows(JXPathException.class, () -> context.getValue("key('account', '1')"));
+    }
+
+    @Test
+    void testRootsAreBounded() throws InterruptedException {
+        final NodeSet jack = keyManager.getNodeSetByKey(context, "contact", "jack");
+        indexNewRoot();
+        assertSame(jack, keyManager.getNodeSetByKey(context, "contact", "jack"));
+        keyManager = new IndexingKeyManager(1);
+        keyManager.declareKey("contact", "//contact", "@name");
+        context.setKeyManager(keyManager);
+        final WeakReference<DocumentContainer> first = indexNewRoot();
+        // Indexing another root drops the indexes of the first one, which can then be collected
+        final NodeSet own = keyManager.getNodeSetByKey(context, "contact", "jack");
+        for (int i = 0; i < 100 && first.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(first.get());
+        indexNewRoot();
+        assertNotSame(own, keyManager.getNodeSetByKey(context, "contact", "jack"));
+    }
+
+    @Test
+    void testSharedIndexes() throws Exception {
+        final NodeSet jack = keyManager.getNodeSetByKey(context, "contact", "jack");
+        // Contexts over the same document, including relative ones, share the index
+        assertSame(jack, keyManager.getNodeSetByKey(newContext(), "contact", "jack"));
+        assertSame(jack, keyManager.getNodeSetByKey(context.getRelativeContext(context.getPointer("vendor/location[2]")), "contact", "jack"));
+        assertThrows(UnsupportedOperationException.class, () -> jack.getPointers().clear());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> newContext().getValue("key('place', 'Orchard Road')/@id")));
+            }
+            for (final Future<Object> future : futures) {
+                assertEquals("100", future.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.jxpath.JXPathBasicBeanInfo;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.junit.jupiter.api.Test;
+
+class MethodHandlePropertyAccessorTest {
+
+    public static class Bean {
+
+        private int count = 1;
+        private final int[] integers = { 1, 2, 3 };
+        private final List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getIntegers(final int index) {
+            return integers[index];
+        }
+
+        public int[] getIntegers() {
+            return integers;
+        }
+
+        public List<String> getList() {
+            return list;
+        }
+
+        public String getReadOnly() {
+            return "read-only";
+        }
+
+        public void setCount(final int count) {
+            this.count = count;
+        }
+
+        public void setIntegers(final int index, final int value) {
+            integers[index] = value;
+        }
+    }
+
+    public static class FailingBean {
+
+        public String getError() {
+            throw new AssertionError("error");
+        }
+
+        public String getException() {
+            throw new IllegalStateException("exception");
+        }
+    }
+
+    public static class IndexedBean {
+
+        private final String[] items = { "a", "b", "c" };
+
+        public String getItems(final int index) {
+            return items[index];
+        }
+    }
+
+    public static class CountedIndexedBean extends IndexedBean {
+
+        public int getItemsCount() {
+            return 2;
+        }
+    }
+
+    private static PropertyDescriptor descriptor(final JXPathBasicBeanInfo beanInfo, final String name) {
+        return beanInfo.getPropertyDescriptor(name);
+    }
+
+    @Test
+    void testCachedPerDescriptor() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class);
+        final PropertyDescriptor pd = descriptor(beanInfo, "count");
+        final PropertyAccessor accessor = beanInfo.getPropertyAccessor(pd);
+        assertNotNull(accessor);
+        assertSame(accessor, beanInfo.getPropertyAccessor(pd));
+        // A descriptor of another bean info is not served
+        assertNull(beanInfo.getPropertyAccessor(descriptor(new JXPathBasicBeanInfo(Bean.class), "count")));
+    }
+
+    @Test
+    void testCreatePropertyAccessorOverride() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected PropertyAccessor createPropertyAccessor(final PropertyDescriptor propertyDescriptor) {
+                return null;
+            }
+        };
+        assertNull(beanInfo.getPropertyAccessor(descriptor(beanInfo, "count")));
+    }
+
+    @Test
+    void testGetLengthOfRuntimeClass() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(IndexedBean.class);
+        final PropertyAccessor items = beanInfo.getPropertyAccessor(descriptor(beanInfo, "items"));
+        assertEquals(3, items.getLength(new IndexedBean()));
+        // The count method of a subclass is found on the bean's class
+        assertEquals(2, items.getLength(new CountedIndexedBean()));
+        assertEquals(3, items.getLength(new IndexedBean()));
+    }
+
+    @Test
+    void testGetValue() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class);
+        final Bean bean = new Bean();
+        assertEquals(1, beanInfo.getPropertyAccessor(descriptor(beanInfo, "count")).getValue(bean));
+        assertEquals("read-only", beanInfo.getPropertyAccessor(descriptor(beanInfo, "readOnly")).getValue(bean));
+    }
+
+    @Test
+    void testGetValueIndexed() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class);
+        final Bean bean = new Bean();
+        final PropertyAccessor integers = beanInfo.getPropertyAccessor(descriptor(beanInfo, "integers"));
+        assertEquals(2, integers.getValue(bean, 1));
+        assertNull(integers.getValue(bean, 5));
+        final PropertyAccessor list = beanInfo.getPropertyAccessor(descriptor(beanInfo, "list"));
+        assertEquals("b", list.getValue(bean, 1));
+        assertNull(list.getValue(bean, 5));
+    }
+
+    @Test
+    void testGetValueWrapsExceptionsOnly() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(FailingBean.class);
+        final FailingBean bean = new FailingBean();
+        assertThrows(AssertionError.class, () -> beanInfo.getPropertyAccessor(descriptor(beanInfo, "error")).getValue(bean));
+        assertThrows(JXPathException.class, () -> beanInfo.getPropertyAccessor(descriptor(beanInfo, "exception")).getValue(bean));
+    }
+
+    @Test
+    void testSetValue() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class);
+        final Bean bean = new Bean();
+        final PropertyAccessor count = beanInfo.getPropertyAccessor(descriptor(beanInfo, "count"));
+        count.setValue(bean, "42");
+        assertEquals(42, bean.getCount());
+        // A non-collection accepts index 0 only
+        count.setValue(bean, 0, 7);
+        assertEquals(7, bean.getCount());
+        assertThrows(IllegalArgumentException.class, () -> count.setValue(bean, 1, 7));
+        assertThrows(JXPathException.class, () -> beanInfo.getPropertyAccessor(descriptor(beanInfo, "readOnly")).setValue(bean, "x"));
+    }
+
+    @Test
+    void testSetValueIndexed() {
+        final JXPathBasicBeanInfo beanInfo = new JXPathBasicBeanInfo(Bean.class);
+        final Bean bean = new Bean();
+        beanInfo.getPropertyAccessor(descriptor(beanInfo, "integers")).setValue(bean, 2, "9");
+        assertArrayEquals(new int[] { 1, 2, 9 }, bean.getIntegers());
+        beanInfo.getPropertyAccessor(descriptor(beanInfo, "list")).setValue(bean, 0, "z");
+        assertEquals(Arrays.asList("z", "b"), bean.getList());
+        assertThrows(IllegalArgumentException.class, () -> beanInfo.getPropertyAccessor(descriptor(beanInfo, "integers")).setValue(bean, 5, 1));
+    }
+
+    @Test
+    void testThroughContext() {
+        final Bean bean = new Bean();
+        final JXPathContext context = JXPathContext.newContext(bean);
+        assertEquals(3, context.getValue("integers[3]"));
+        context.setValue("integers[1]", 5);
+        context.setValue("count", 10);
+        assertEquals(5, bean.getIntegers()[0]);
+        assertEquals(10, bean.getCount());
+        assertEquals("b", context.getValue("list[2]"));
+    }
+}
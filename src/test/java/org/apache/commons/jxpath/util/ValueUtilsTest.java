@@ -17,26 +17,52 @@
 
 package org.apache.commons.jxpath.util;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.jxpath.DynamicPropertyHandler;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
 import org.junit.jupiter.api.Test;
 
 class ValueUtilsTest {
 
+    public static class CountedBean {
+
+        private final String[] items = { "a", "b", "c" };
+
+        public String getItems(final int index) {
+            return items[index];
+        }
+
+        public int getItemsCount() {
+            return items.length;
+        }
+    }
+
     public static class DummyHandler implements DynamicPropertyHandler {
 
         @Override
@@ -74,6 +100,19 @@ class ValueUtilsTest {
         }
     }
 
+    @Test
+    void testGetIndexedPropertyLength() {
+        final JXPathContext context = JXPathContext.newContext(new CountedBean());
+        assertEquals(3.0, context.getValue("count(items)"));
+        assertEquals("c", context.getValue("items[last()]"));
+    }
+
+    @Test
+    void testGetIndexedPropertyLengthMethod() {
+        assertEquals("getItemsCount", ValueUtils.getIndexedPropertyLengthMethod(CountedBean.class, "items").getName());
+        assertNull(ValueUtils.getIndexedPropertyLengthMethod(CountedBean.class, "other"));
+    }
+
     @Test
     void testGetValueFromArray() {
         final Object data = new Object();
@@ -109,6 +148,20 @@ class ValueUtilsTest {
         assertNull(ValueUtils.getValue(Collections.EMPTY_LIST, 2));
     }
 
+    @Test
+    void testGetValueFromPartlyReadCollection() throws InterruptedException {
+        LinkedList<Integer> list = new LinkedList<>(Arrays.asList(1, 2, 3, 4));
+        assertEquals(Integer.valueOf(2), ValueUtils.getValue(list, 1));
+        // The cursor left in the middle of the list does not keep it reachable
+        final WeakReference<LinkedList<Integer>> reference = new WeakReference<>(list);
+        list = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
     @Test
     void testGetValueFromSet() {
         final Object data = new Object();
@@ -117,6 +170,31 @@ class ValueUtilsTest {
         assertSame(data, ValueUtils.getValue(dataSet, 0));
     }
 
+    @Test
+    void testGetValueFromSequence() {
+        final Set<Integer> set = new LinkedHashSet<>();
+        for (int i = 0; i < 10; i++) {
+            set.add(Integer.valueOf(i));
+        }
+        final LinkedList<Integer> list = new LinkedList<>(set);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), ValueUtils.getValue(set, i));
+            assertEquals(Integer.valueOf(i), ValueUtils.getValue(list, i));
+        }
+        // Backwards, and after modifications
+        assertEquals(Integer.valueOf(3), ValueUtils.getValue(set, 3));
+        set.remove(Integer.valueOf(4));
+        assertEquals(Integer.valueOf(5), ValueUtils.getValue(set, 4));
+        set.remove(Integer.valueOf(0));
+        set.add(Integer.valueOf(10));
+        assertEquals(Integer.valueOf(6), ValueUtils.getValue(set, 4));
+        assertEquals(Integer.valueOf(10), ValueUtils.getValue(set, 8));
+        assertNull(ValueUtils.getValue(set, 9));
+        assertEquals(Integer.valueOf(7), ValueUtils.getValue(new int[] { 7 }, 0));
+        assertEquals(Double.valueOf(7), ValueUtils.getValue(new double[] { 7 }, 0));
+        assertEquals(Character.valueOf('7'), ValueUtils.getValue(new char[] { '7' }, 0));
+    }
+
     @Test
     void testGetValueFromSetNegativeIndex() {
         final Object data = new Object();
@@ -132,4 +210,43 @@ class ValueUtilsTest {
     void testGetValueFromSetTooSmall() {
         assertNull(ValueUtils.getValue(Collections.EMPTY_SET, 2));
     }
+
+    @Test
+    void testGetValueFromWeaklyConsistentCollection() {
+        final Queue<String> queue = new ConcurrentLinkedQueue<>(Arrays.asList("a", "b", "c", "d"));
+        assertEquals("b", ValueUtils.getValue(queue, 1));
+        queue.poll();
+        queue.add("e");
+        assertEquals("d", ValueUtils.getValue(queue, 2));
+        final Set<String> set = new CopyOnWriteArraySet<>(Arrays.asList("a", "b", "c", "d"));
+        assertEquals("b", ValueUtils.getValue(set, 1));
+        set.remove("a");
+        set.add("e");
+        assertEquals("d", ValueUtils.getValue(set, 2));
+    }
+
+    @Test
+    void testProbeIndexedPropertyLength() {
+        for (final int length : new int[] { 0, 1, 2, 3, 4, 100, 1000 }) {
+            final AtomicInteger calls = new AtomicInteger();
+            assertEquals(length, ValueUtils.probeIndexedPropertyLength(i -> {
+                calls.incrementAndGet();
+                return i < length;
+            }, "items"));
+            assertTrue(calls.get() <= 2 * 32 - Integer.numberOfLeadingZeros(length + 1) + 1, () -> length + ": " + calls);
+        }
+        assertThrows(JXPathException.class, () -> ValueUtils.probeIndexedPropertyLength(i -> true, "items"));
+    }
+
+    @Test
+    void testRemoveIndexes() {
+        assertArrayEquals(new String[] { "b", "d" }, (String[]) ValueUtils.remove(new String[] { "a", "b", "c", "d" }, new int[] { 2, 0 }));
+        final List<String> list = new ArrayList<>(Arrays.asList("a", "b", "c", "d"));
+        assertSame(list, ValueUtils.remove(list, new int[] { 3, 1 }));
+        assertEquals(Arrays.asList("a", "c"), list);
+        final Set<String> set = new LinkedHashSet<>(Arrays.asList("a", "b", "c"));
+        ValueUtils.remove(set, new int[] { 1 });
+        assertEquals(new LinkedHashSet<>(Arrays.asList("a", "c")), set);
+        assertThrows(JXPathException.class, () -> ValueUtils.remove(new int[] { 1 }, new int[] { 1 }));
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.jxpath.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.jxpath.AbstractJXPathTest;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+
+class XMLStreamEvaluatorTest {
+
+    private static final String[] PATHS = { "/vendor/location/@id", "vendor/location[@id = '101']//street", "//location[2]/address/city",
+            "//contact[@name = 'jack']", "vendor/contact[3]", "vendor/contact[@name][2]", "//@name", "//product/text()", "//price:sale/saleEnds",
+            "//product:name", "vendor/*[@name != 'jack']", "vendor/contact[1] | //street", "//location/descendant::*", "vendor/location[1]/@*",
+            "./vendor/product/prix", "vendor/pos//number", "//text()" };
+
+    private static List<Object> evaluate(final String xpath) throws Exception {
+        final XMLStreamEvaluator evaluator = new XMLStreamEvaluator();
+        evaluator.registerNamespace("product", "productNS");
+        evaluator.registerNamespace("price", "priceNS");
+        evaluator.addPath(xpath);
+        final List<Object> values = new ArrayList<>();
+        try (InputStream stream = AbstractJXPathTest.class.getResourceAsStream("Vendor.xml")) {
+            evaluator.evaluate(stream, (path, value) -> {
+                assertEquals(xpath, path);
+                values.add(value instanceof Element ? JXPathContext.newContext(value).getValue(".") : value);
+            });
+        }
+        return values;
+    }
+
+    @Test
+    void testElementCopy() throws Exception {
+        final XMLStreamEvaluator evaluator = new XMLStreamEvaluator();
+        evaluator.addPath("//location[@id = '100']");
+        final List<Object> values = new ArrayList<>();
+        try (InputStream stream = AbstractJXPathTest.class.getResourceAsStream("Vendor.xml")) {
+            evaluator.evaluate(stream, (path, value) -> values.add(value));
+        }
+        assertEquals(1, values.size());
+        final JXPathContext context = JXPathContext.newContext(values.get(0));
+        assertEquals("Orchard Road", context.getValue("address/street"));
+        assertEquals("local", context.getValue("@name"));
+    }
+
+    @Test
+    void testFragment() throws Exception {
+        final String xml = "<a><b id='1'><c/></b><b id='2'/></a>";
+        final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        reader.nextTag();
+        reader.nextTag();
+        final XMLStreamEvaluator evaluator = new XMLStreamEvaluator();
+        evaluator.addPath("//@id");
+        final List<Object> values = new ArrayList<>();
+        evaluator.evaluate(reader, (path, value) -> values.add(value));
+        assertEquals(1, values.size());
+        assertEquals("1", values.get(0));
+        // The reader stops at the end of the fragment
+        assertTrue(reader.isEndElement());
+        assertEquals("b", reader.getLocalName());
+    }
+
+    @Test
+    void testMatchesDocumentModel() throws Exception {
+        final JXPathContext context = JXPathContext.newContext(new DocumentContainer(AbstractJXPathTest.class.getResource("Vendor.xml")));
+        context.registerNamespace("product", "productNS");
+        context.registerNamespace("price", "priceNS");
+        for (final String xpath : PATHS) {
+            final List<Object> expected = new ArrayList<>();
+            for (final Iterator<?> it = context.iterate(xpath); it.hasNext();) {
+                expected.add(it.next());
+            }
+            // pos is in a default namespace, so unprefixed names do not select it
+            assertTrue(xpath.startsWith("vendor/pos") || !expected.isEmpty(), xpath);
+            final List<Object> actual = evaluate(xpath);
+            if (xpath.endsWith("descendant::*") || xpath.endsWith("@*")) {
+                // Nested matches are reported when they end, not in document order, and the order of attributes depends on the parser
+                expected.sort(null);
+                actual.sort(null);
+            }
+            assertEquals(expected, actual, xpath);
+        }
+    }
+
+    @Test
+    void testMultiplePaths() throws Exception {
+        final XMLStreamEvaluator evaluator = new XMLStreamEvaluator();
+        evaluator.addPath("//contact");
+        evaluator.addPath("//street");
+        final List<String> matches = new ArrayList<>();
+        try (InputStream stream = AbstractJXPathTest.class.getResourceAsStream("Vendor.xml")) {
+            evaluator.evaluate(stream, (path, value) -> matches.add(path + "=" + ((Element) value).getTextContent()));
+        }
+        assertEquals("[//contact=John, //contact=Jack, //contact=Jim, //contact=Jack Black, //street=Orchard Road, //street=Tangerine Drive]",
+                matches.toString());
+    }
+
+    @Test
+    void testNotStreamable() {
+        final XMLStreamEvaluator evaluator = new XMLStreamEvaluator();
+        for (final String xpath : new String[] { "count(//a)", "//a/..", "//a[b]", "//a[last()]", "descendant::a[2]", "/", "//a/following-sibling::b",
+                "//a[@b = 1]", "$x/a" }) {
+            assertThrows(JXPathException.class, () -> evaluator.addPath(xpath), xpath);
+        }
+    }
+}